@@ -0,0 +1,30 @@
+package com.hasan.library_management.benchmark;
+
+import com.hasan.library_management.LibraryManagementApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the full application against the embedded H2 database of the benchmark module.
+ * Benchmark states extend it and call start() from their own trial setup.
+ **/
+public abstract class ApplicationState {
+
+    private ConfigurableApplicationContext context;
+
+    protected void start() {
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .logStartupInfo(false)
+                .run();
+    }
+
+    protected void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    protected <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hasan.library_management.benchmark;
+
+import com.hasan.library_management.dto.request.BookRequestDto;
+import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
+import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import com.hasan.library_management.entity.Role;
+import com.hasan.library_management.entity.User;
+import com.hasan.library_management.repository.UserRepository;
+import com.hasan.library_management.service.BookService;
+import com.hasan.library_management.service.BorrowRecordService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Library extends ApplicationState {
+
+        BorrowRecordService borrowRecordService;
+        BorrowRecordRequestDto request;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            start();
+            borrowRecordService = bean(BorrowRecordService.class);
+
+            User patron = bean(UserRepository.class).save(User.builder()
+                    .name("Benchmark Patron")
+                    .email("benchmark_patron@example.com")
+                    .password("not-used")
+                    .role(Role.PATRON)
+                    .build());
+
+            var book = bean(BookService.class).createBook(BookRequestDto.builder()
+                    .title("Benchmark Book")
+                    .author("Benchmark Author")
+                    .isbn("9780000000002")
+                    .publicationDate(LocalDate.of(2000, 1, 1))
+                    .genre("Benchmark")
+                    .copies(1)
+                    .build());
+
+            request = BorrowRecordRequestDto.builder()
+                    .userId(patron.getId())
+                    .bookId(book.getId())
+                    .borrowDate(LocalDate.now())
+                    .dueDate(LocalDate.now().plusDays(14))
+                    .build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stop();
+        }
+    }
+
+    // Borrow and return as one operation, so the single copy is back on the shelf for the next invocation
+    @Benchmark
+    public BorrowRecordResponseDto borrowAndReturn(Library library) {
+        BorrowRecordResponseDto borrowed = library.borrowRecordService.borrowBook(library.request);
+        return library.borrowRecordService.returnBook(borrowed.getId());
+    }
+}
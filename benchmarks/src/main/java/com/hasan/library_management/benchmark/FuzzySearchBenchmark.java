@@ -0,0 +1,60 @@
+package com.hasan.library_management.benchmark;
+
+import com.hasan.library_management.util.FuzzyIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FuzzySearchBenchmark {
+
+    private static final String[] TITLE_WORDS = {"Silent", "River", "Shadow", "Garden", "Empire", "Winter", "Glass", "Memory",
+            "Ocean", "Fire", "Road", "Crown", "Letters", "Night", "Machine", "Island", "Storm", "Mirror", "Stone", "Song",
+            "Hunger", "Games", "Fellowship", "Ring", "Kingdom", "Thrones", "Wind", "Castle", "Secret", "Garden"};
+    private static final String[] AUTHORS = {"Ada Lovelace", "Alan Turing", "Grace Hopper", "Linus Torvalds", "Hedy Lamarr",
+            "Dennis Ritchie", "Barbara Liskov", "Ken Thompson", "Edsger Dijkstra", "Frances Allen", "J. R. R. Tolkien",
+            "Suzanne Collins"};
+    private static final String[] GENRES = {"Classic", "Dystopian", "Fantasy", "Romance", "Science Fiction", "Biography",
+            "History", "Mystery", "Poetry", "Thriller"};
+
+    // Built directly, without the application context, so large catalogs are cheap to set up
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        @Param({"10000", "100000"})
+        int books;
+
+        final FuzzyIndex<UUID> index = new FuzzyIndex<>(3.0, 2.0, 1.0);
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            for (int i = 0; i < books; i++) {
+                String title = "The " + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " "
+                        + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + i;
+                index.put(UUID.randomUUID(), title, AUTHORS[random.nextInt(AUTHORS.length)], GENRES[random.nextInt(GENRES.length)]);
+            }
+        }
+    }
+
+    @Benchmark
+    public FuzzyIndex.Result<UUID> exactTerm(Catalog catalog) {
+        return catalog.index.search("fellowship", 10);
+    }
+
+    @Benchmark
+    public FuzzyIndex.Result<UUID> misspelledAuthor(Catalog catalog) {
+        return catalog.index.search("tolkein", 10);
+    }
+
+    @Benchmark
+    public FuzzyIndex.Result<UUID> misspelledTitle(Catalog catalog) {
+        return catalog.index.search("hunger game", 10);
+    }
+}
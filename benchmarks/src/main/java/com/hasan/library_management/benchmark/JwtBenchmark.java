@@ -0,0 +1,54 @@
+package com.hasan.library_management.benchmark;
+
+import com.hasan.library_management.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+
+        final JwtUtil jwtUtil = new JwtUtil();
+        String token;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // JwtUtil is configured through @Value fields, no application context is needed for it
+            set("secretKey", "benchmark-secret-key-that-is-long-enough-for-hs256");
+            set("expirationMs", 86_400_000L);
+            token = jwtUtil.generateToken("hasan@gmail.com", "PATRON");
+        }
+
+        private void set(String name, Object value) {
+            Field field = ReflectionUtils.findField(JwtUtil.class, name);
+            ReflectionUtils.makeAccessible(field);
+            ReflectionUtils.setField(field, jwtUtil, value);
+        }
+    }
+
+    @Benchmark
+    public String generateToken(Tokens tokens) {
+        return tokens.jwtUtil.generateToken("hasan@gmail.com", "PATRON");
+    }
+
+    @Benchmark
+    public boolean validateToken(Tokens tokens) {
+        return tokens.jwtUtil.validateToken(tokens.token);
+    }
+
+    // What JwtAuthenticationFilter does for every authenticated request
+    @Benchmark
+    public void authenticateRequest(Tokens tokens, Blackhole blackhole) {
+        blackhole.consume(tokens.jwtUtil.parseClaims(tokens.token).getSubject());
+    }
+}
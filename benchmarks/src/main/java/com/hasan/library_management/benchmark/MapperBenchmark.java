@@ -0,0 +1,80 @@
+package com.hasan.library_management.benchmark;
+
+import com.hasan.library_management.dto.request.BookRequestDto;
+import com.hasan.library_management.dto.response.BookResponseDto;
+import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.BorrowRecord;
+import com.hasan.library_management.entity.Role;
+import com.hasan.library_management.entity.User;
+import com.hasan.library_management.mapper.BookMapper;
+import com.hasan.library_management.mapper.BorrowRecordMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @State(Scope.Thread)
+    public static class Fixtures {
+
+        final BookMapper bookMapper = new BookMapper();
+        final BorrowRecordMapper borrowRecordMapper = new BorrowRecordMapper();
+
+        BookRequestDto bookRequest;
+        Book book;
+        BorrowRecord borrowRecord;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            bookRequest = BookRequestDto.builder()
+                    .title("The Road")
+                    .author("Cormac McCarthy")
+                    .isbn("9780307277671")
+                    .publicationDate(LocalDate.of(2006, 9, 26))
+                    .genre("Post-apocalyptic")
+                    .copies(3)
+                    .build();
+
+            book = bookMapper.toEntity(bookRequest);
+            book.setId(UUID.randomUUID());
+
+            User user = User.builder()
+                    .id(UUID.randomUUID())
+                    .name("Hasan")
+                    .email("hasan@gmail.com")
+                    .role(Role.PATRON)
+                    .build();
+
+            borrowRecord = BorrowRecord.builder()
+                    .id(UUID.randomUUID())
+                    .user(user)
+                    .book(book)
+                    .borrowDate(LocalDate.now())
+                    .dueDate(LocalDate.now().plusDays(14))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public Book bookToEntity(Fixtures fixtures) {
+        return fixtures.bookMapper.toEntity(fixtures.bookRequest);
+    }
+
+    @Benchmark
+    public BookResponseDto bookToResponseDto(Fixtures fixtures) {
+        return fixtures.bookMapper.toResponseDto(fixtures.book);
+    }
+
+    @Benchmark
+    public BorrowRecordResponseDto borrowRecordToResponseDto(Fixtures fixtures) {
+        return fixtures.borrowRecordMapper.toResponseDto(fixtures.borrowRecord);
+    }
+}
@@ -0,0 +1,102 @@
+package com.hasan.library_management.benchmark;
+
+import com.hasan.library_management.dto.response.BookResponseDto;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.mapper.BookMapper;
+import com.hasan.library_management.repository.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Compare gc.alloc.rate.norm (bytes per operation) between the entity and summary variants
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    private static final int SEED_CHUNK = 500;
+
+    @State(Scope.Benchmark)
+    public static class Catalog extends ApplicationState {
+
+        @Param({"100", "1000"})
+        int books;
+
+        BookRepository bookRepository;
+        BookMapper bookMapper;
+        TransactionTemplate readWrite;
+        TransactionTemplate readOnly;
+        UUID knownId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            start();
+            bookRepository = bean(BookRepository.class);
+            bookMapper = bean(BookMapper.class);
+
+            PlatformTransactionManager transactionManager = bean(PlatformTransactionManager.class);
+            readWrite = new TransactionTemplate(transactionManager);
+            readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+
+            List<Book> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = 0; i < books; i++) {
+                chunk.add(Book.builder()
+                        .title("Projection Title " + i)
+                        .author("Author " + (i % 50))
+                        .isbn(String.format("978%010d", i))
+                        .isbnCanonical(String.format("978%010d", i))
+                        .publicationDate(LocalDate.of(1900 + i % 120, 1, 1))
+                        .genre("Classic")
+                        .totalCopies(1)
+                        .availableCopies(1)
+                        .build());
+
+                if (chunk.size() == SEED_CHUNK || i == books - 1) {
+                    knownId = bookRepository.saveAll(chunk).get(0).getId();
+                    chunk.clear();
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stop();
+        }
+    }
+
+    // Managed entities in a read-write transaction, as the read endpoints used to load them
+    @Benchmark
+    public BookResponseDto findEntityById(Catalog catalog) {
+        return catalog.readWrite.execute(status -> catalog.bookMapper.toResponseDto(
+                catalog.bookRepository.findById(catalog.knownId).orElseThrow()));
+    }
+
+    @Benchmark
+    public BookResponseDto findSummaryById(Catalog catalog) {
+        return catalog.readOnly.execute(status -> catalog.bookMapper.toResponseDto(
+                catalog.bookRepository.findSummaryById(catalog.knownId).orElseThrow()));
+    }
+
+    @Benchmark
+    public List<BookResponseDto> findAllEntities(Catalog catalog) {
+        return catalog.readWrite.execute(status -> catalog.bookRepository.findAll().stream()
+                .map(catalog.bookMapper::toResponseDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<BookResponseDto> findAllSummaries(Catalog catalog) {
+        return catalog.readOnly.execute(status -> catalog.bookRepository.findAllSummaries().stream()
+                .map(catalog.bookMapper::toResponseDto)
+                .toList());
+    }
+}
@@ -0,0 +1,99 @@
+package com.hasan.library_management.benchmark;
+
+import com.hasan.library_management.dto.request.SearchTotal;
+import com.hasan.library_management.dto.response.BookResponseDto;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final String[] GENRES = {"Classic", "Dystopian", "Fantasy", "Romance", "Science Fiction", "Biography"};
+    private static final int SEED_CHUNK = 500;
+
+    @State(Scope.Benchmark)
+    public static class Catalog extends ApplicationState {
+
+        @Param({"1000", "10000"})
+        int books;
+
+        BookService bookService;
+        Pageable firstPage = PageRequest.of(0, 10);
+        UUID knownId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            start();
+            bookService = bean(BookService.class);
+            BookRepository bookRepository = bean(BookRepository.class);
+
+            List<Book> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = 0; i < books; i++) {
+                chunk.add(Book.builder()
+                        .title("Benchmark Title " + i)
+                        .author("Author " + (i % 500))
+                        .isbn(String.format("979%010d", i))
+                        .isbnCanonical(String.format("979%010d", i))
+                        .publicationDate(LocalDate.of(1900 + i % 120, 1, 1))
+                        .genre(GENRES[i % GENRES.length])
+                        .build());
+
+                if (chunk.size() == SEED_CHUNK || i == books - 1) {
+                    knownId = bookRepository.saveAll(chunk).get(0).getId();
+                    chunk.clear();
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stop();
+        }
+    }
+
+    @Benchmark
+    public BookResponseDto getBookById(Catalog catalog) {
+        return catalog.bookService.getBookById(catalog.knownId);
+    }
+
+    @Benchmark
+    public Slice<BookResponseDto> searchByTitle(Catalog catalog) {
+        return catalog.bookService.searchByTitle("title 42", catalog.firstPage, SearchTotal.EXACT);
+    }
+
+    // Same search without the COUNT query
+    @Benchmark
+    public Slice<BookResponseDto> searchByTitleWithoutTotal(Catalog catalog) {
+        return catalog.bookService.searchByTitle("title 42", catalog.firstPage, SearchTotal.NONE);
+    }
+
+    @Benchmark
+    public Slice<BookResponseDto> searchByAuthor(Catalog catalog) {
+        return catalog.bookService.searchByAuthor("author 17", catalog.firstPage, SearchTotal.EXACT);
+    }
+
+    @Benchmark
+    public Slice<BookResponseDto> searchByIsbn(Catalog catalog) {
+        return catalog.bookService.searchByIsbn("0000042", catalog.firstPage, SearchTotal.EXACT);
+    }
+
+    @Benchmark
+    public Slice<BookResponseDto> searchByGenre(Catalog catalog) {
+        return catalog.bookService.searchByGenre("fantasy", catalog.firstPage, SearchTotal.EXACT);
+    }
+}
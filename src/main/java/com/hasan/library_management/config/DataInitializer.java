@@ -7,7 +7,10 @@ import com.hasan.library_management.entity.User;
 import com.hasan.library_management.repository.BookRepository;
 import com.hasan.library_management.repository.BorrowRecordRepository;
 import com.hasan.library_management.repository.UserRepository;
+import com.hasan.library_management.service.BookCopyService;
+import com.hasan.library_management.util.IsbnUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -16,16 +19,24 @@ import java.time.LocalDate;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class DataInitializer implements CommandLineRunner {
 
     private final UserRepository userRepo;
     private final BookRepository bookRepo;
     private final BorrowRecordRepository borrowRecordRepo;
     private final PasswordEncoder passwordEncoder;
+    private final BookCopyService bookCopyService;
 
     @Override
     public void run(String... args) {
 
+        // Give books created before copies were tracked their physical copies
+        bookCopyService.backfillMissingCopies();
+
+        // Fill the canonical ISBN of books created before it was stored
+        backfillCanonicalIsbns();
+
         // Create librarian account if not exists
         User admin = userRepo.findByEmail("admin@gmail.com")
                 .orElseGet(() -> userRepo.save(User.builder()
@@ -66,15 +77,37 @@ public class DataInitializer implements CommandLineRunner {
     }
 
     private Book createBookIfMissing(String isbn, String title, String author, LocalDate pubDate, String genre) {
-        return bookRepo.findByIsbn(isbn)
-                .orElseGet(() -> bookRepo.save(Book.builder()
-                        .title(title)
-                        .author(author)
-                        .isbn(isbn)
-                        .publicationDate(pubDate)
-                        .genre(genre)
-                        .available(true)
-                        .build()));
+        String canonicalIsbn = IsbnUtils.toIsbn13(isbn).orElse(isbn);
+        return bookRepo.findByIsbnCanonical(canonicalIsbn)
+                .orElseGet(() -> {
+                    Book book = Book.builder()
+                            .title(title)
+                            .author(author)
+                            .isbn(isbn)
+                            .isbnCanonical(canonicalIsbn)
+                            .publicationDate(pubDate)
+                            .genre(genre)
+                            .available(true)
+                            .totalCopies(1)
+                            .availableCopies(1)
+                            .build();
+                    book.setCopies(bookCopyService.newCopies(book, 1, 1));
+                    return bookRepo.save(book);
+                });
+    }
+
+    private void backfillCanonicalIsbns() {
+        for (Book book : bookRepo.findByIsbnCanonicalIsNull()) {
+            IsbnUtils.toIsbn13(book.getIsbn()).ifPresent(canonical -> {
+                if (bookRepo.existsByIsbnCanonical(canonical)) {
+                    // Legacy duplicate, leave it unset so the unique index is not violated
+                    log.warn("Duplicate ISBN left without canonical form: {}", book.getIsbn());
+                    return;
+                }
+                book.setIsbnCanonical(canonical);
+                bookRepo.saveAndFlush(book);
+            });
+        }
     }
 
     private void createOverdueBorrowRecordIfNotExists(User user, Book book) {
@@ -82,18 +115,19 @@ public class DataInitializer implements CommandLineRunner {
                 .anyMatch(record -> !record.isReturned());
 
         if (!alreadyExists) {
-            book.setAvailable(false);
-            bookRepo.save(book);
-
-            BorrowRecord record = BorrowRecord.builder()
-                    .book(book)
-                    .user(user)
-                    .borrowDate(LocalDate.now().minusDays(20))   // Borrowed 20 days ago
-                    .dueDate(LocalDate.now().minusDays(10))      // Due 10 days ago
-                    .returned(false)
-                    .build();
-
-            borrowRecordRepo.save(record);
+            bookCopyService.claimFreeCopy(book.getId()).ifPresent(copy -> {
+                BorrowRecord record = BorrowRecord.builder()
+                        .book(book)
+                        .user(user)
+                        .copy(copy)
+                        .borrowDate(LocalDate.now().minusDays(20))   // Borrowed 20 days ago
+                        .dueDate(LocalDate.now().minusDays(10))      // Due 10 days ago
+                        .returned(false)
+                        .build();
+
+                borrowRecordRepo.save(record);
+                bookCopyService.decrementAvailableCopies(book.getId());
+            });
         }
     }
 }
@@ -0,0 +1,53 @@
+package com.hasan.library_management.config;
+
+import com.hasan.library_management.security.BoundedPasswordEncoder;
+import com.hasan.library_management.security.RateLimitFilter;
+import com.hasan.library_management.service.BookAvailabilityService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Application metrics on top of what Spring Boot binds on its own
+ * (HTTP requests, repository invocations, Hikari pool, JVM and caches).
+ **/
+@Configuration
+public class MetricsConfig {
+
+    // Makes @Timed on the service implementations record a timer per method
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder availabilityStreamMetrics(BookAvailabilityService availabilityService) {
+        return registry -> Gauge.builder("library.availability.subscribers", availabilityService, BookAvailabilityService::getSubscriberCount)
+                .description("Open subscriptions to the book availability stream")
+                .register(registry);
+    }
+
+    // Pool size, queue depth and task timings of the password hashing executor
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordEncoder passwordEncoder) {
+        return registry -> {
+            if (passwordEncoder instanceof BoundedPasswordEncoder boundedEncoder) {
+                new ExecutorServiceMetrics(boundedEncoder.getExecutor(), "password.hashing", Tags.empty()).bindTo(registry);
+            }
+        };
+    }
+
+    // Allowed/rejected counts per route group are recorded by the filter as library.ratelimit.requests
+    @Bean
+    public MeterBinder rateLimitMetrics(RateLimitFilter rateLimitFilter) {
+        return registry -> Gauge.builder("library.ratelimit.buckets", rateLimitFilter, RateLimitFilter::getBucketCount)
+                .description("Clients currently tracked by the rate limiter")
+                .register(registry);
+    }
+}
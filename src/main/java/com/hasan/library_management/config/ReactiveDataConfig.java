@@ -0,0 +1,42 @@
+package com.hasan.library_management.config;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * R2DBC connection for the reactive borrow/return path, active with the "reactive" profile.
+ * Spring Boot's R2DBC auto-configuration is excluded so JPA stays the default data access.
+ **/
+@Configuration
+@Profile("reactive")
+public class ReactiveDataConfig {
+
+    @Bean
+    public ConnectionFactory connectionFactory(@Value("${spring.r2dbc.url}") String url,
+                                               @Value("${spring.r2dbc.username}") String username,
+                                               @Value("${spring.r2dbc.password}") String password) {
+        return ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    // The transaction manager is deliberately not a bean: a second TransactionManager would make @Transactional ambiguous
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
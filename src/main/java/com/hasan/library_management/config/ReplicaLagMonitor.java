@@ -0,0 +1,70 @@
+package com.hasan.library_management.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica for its replay lag. Reads are routed to the replica only while the lag, plus the age of the
+ * last measurement, stays within max-lag-ms; an unreachable replica counts as lagging.
+ **/
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Zero on a caught-up standby or a database that is not a standby at all (e.g. a second local database)
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT) END";
+
+    private static final long UNKNOWN = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMs;
+
+    private volatile long lagMs = UNKNOWN;
+    private volatile long checkedAt;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMs, long checkIntervalMs) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        // A check that hangs must not hold up the next one for long
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, checkIntervalMs / 1000));
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        long measured;
+        try {
+            Long lag = jdbcTemplate.queryForObject(lagQuery, Long.class);
+            measured = lag == null ? UNKNOWN : Math.max(0, lag);
+        } catch (DataAccessException e) {
+            if (lagMs != UNKNOWN) {
+                log.warn("Replica lag check failed, routing reads to the primary: {}", e.getMessage());
+            }
+            measured = UNKNOWN;
+        }
+
+        boolean wasUsable = isUsable();
+        lagMs = measured;
+        checkedAt = System.currentTimeMillis();
+
+        if (wasUsable != isUsable()) {
+            log.info("Replica {} (lag {} ms, limit {} ms)", isUsable() ? "back in use" : "taken out of use", measured, maxLagMs);
+        }
+    }
+
+    public boolean isUsable() {
+        long lag = lagMs;
+        return lag != UNKNOWN && lag + (System.currentTimeMillis() - checkedAt) <= maxLagMs;
+    }
+
+    // Last measured lag in milliseconds, -1 while unknown or unreachable
+    public long getLagMs() {
+        return lagMs;
+    }
+}
@@ -0,0 +1,24 @@
+package com.hasan.library_management.config;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Read-only transactions may be served by a lagging replica, so they read from the second-level cache but never
+ * put into it; a stale row cached there would outlive the lag by the region's time to live.
+ **/
+class ReplicaReadJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition) throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        // Reset for read-write transactions too, the session may outlive one transaction (open-in-view)
+        entityManager.unwrap(Session.class).setCacheMode(definition.isReadOnly() ? CacheMode.GET : CacheMode.NORMAL);
+        return transactionData;
+    }
+}
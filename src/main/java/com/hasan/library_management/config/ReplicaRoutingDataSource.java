@@ -0,0 +1,39 @@
+package com.hasan.library_management.config;
+
+import com.hasan.library_management.service.ReplicaStickiness;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy: the transaction manager asks for a connection before the transaction is marked
+ * read-only, the proxy defers the real lookup to the first statement.
+ **/
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReplicaStickiness stickiness;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor, ReplicaStickiness stickiness) {
+        this.lagMonitor = lagMonitor;
+        this.stickiness = stickiness;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean useReplica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && lagMonitor.isUsable()
+                && !stickiness.isSticky();
+        return useReplica ? Target.REPLICA : Target.PRIMARY;
+    }
+}
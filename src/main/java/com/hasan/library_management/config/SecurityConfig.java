@@ -1,8 +1,12 @@
 package com.hasan.library_management.config;
 
+import com.hasan.library_management.security.BoundedPasswordEncoder;
 import com.hasan.library_management.security.JwtAuthenticationFilter;
+import com.hasan.library_management.security.RateLimitFilter;
 import com.hasan.library_management.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -17,6 +21,8 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -29,8 +35,25 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final CustomUserDetailsService userDetailsService;
 
+    @Value("${auth.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${auth.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${auth.hashing.max-wait-ms:2000}")
+    private long hashingMaxWaitMillis;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    // -1 when the actuator shares the public port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -40,10 +63,15 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         // Open endpoints
+                        // Mono/Flux results complete in an async dispatch; the request was authorized on the way in
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/books/availability-stream").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui.html", "/swagger-ui/**").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers(prometheusScrapeOnManagementPort()).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("LIBRARIAN")
                         .requestMatchers(HttpMethod.GET, "/books/**").permitAll()
 
 
@@ -67,14 +95,37 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/borrow-records/overdue/report").hasRole("LIBRARIAN")
                         .requestMatchers(HttpMethod.GET, "/borrow-records").hasRole("LIBRARIAN")
 
+                        // Reactive borrowing, same rules as above
+                        .requestMatchers(HttpMethod.GET, "/reactive/borrow-records/me").hasAnyRole("PATRON", "LIBRARIAN")
+                        .requestMatchers(HttpMethod.POST, "/reactive/borrow-records/**").hasAnyRole("PATRON", "LIBRARIAN")
+                        .requestMatchers(HttpMethod.PUT, "/reactive/borrow-records/return/**").hasAnyRole("PATRON", "LIBRARIAN")
+                        .requestMatchers(HttpMethod.GET, "/reactive/borrow-records/**").hasRole("LIBRARIAN")
+                        .requestMatchers(HttpMethod.GET, "/reactive/borrow-records").hasRole("LIBRARIAN")
+
+                        // Reservations
+                        .requestMatchers(HttpMethod.GET, "/reservations/me").hasAnyRole("PATRON", "LIBRARIAN")
+                        .requestMatchers(HttpMethod.GET, "/reservations/book/**").hasRole("LIBRARIAN")
+                        .requestMatchers(HttpMethod.POST, "/reservations/**").hasAnyRole("PATRON", "LIBRARIAN")
+                        .requestMatchers(HttpMethod.DELETE, "/reservations/**").hasAnyRole("PATRON", "LIBRARIAN")
+
                         // All others
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // After the JWT filter so limits apply per user instead of per IP where possible
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
+    // The scrape is anonymous only on the separate management port, which is not published outside the host network;
+    // anywhere else the metrics need a librarian like the rest of the actuator
+    private RequestMatcher prometheusScrapeOnManagementPort() {
+        RequestMatcher path = AntPathRequestMatcher.antMatcher("/actuator/prometheus");
+        return request -> managementPort > 0 && managementPort != serverPort
+                && request.getLocalPort() == managementPort && path.matches(request);
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
@@ -88,9 +139,11 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    // BCrypt on its own bounded pool; 0 threads means half the available processors
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, hashingQueueCapacity, hashingMaxWaitMillis);
     }
 
     @Bean
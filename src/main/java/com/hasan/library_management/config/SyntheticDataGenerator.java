@@ -0,0 +1,216 @@
+package com.hasan.library_management.config;
+
+import com.hasan.library_management.entity.CopyStatus;
+import com.hasan.library_management.entity.Role;
+import com.hasan.library_management.repository.UserRepository;
+import com.hasan.library_management.util.IsbnUtils;
+import com.hasan.library_management.util.UuidV7;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Seeds a synthetic library of configurable size for load testing. Content is derived from a fixed seed,
+ * so two runs with the same settings produce the same titles, loans and overdue mix.
+ * Enabled with synthetic-data.enabled=true; skipped when the data already exists.
+ **/
+@Component
+@ConditionalOnProperty(name = "synthetic-data.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    public static final String EMAIL_DOMAIN = "@synthetic.local";
+
+    private static final String INSERT_USER = "INSERT INTO users (id, name, email, password, phone_number, role) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_BOOK = "INSERT INTO books (id, title, author, isbn, isbn_canonical, publication_date, " +
+            "genre, available, total_copies, available_copies) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_COPY = "INSERT INTO book_copies (id, book_id, copy_number, status) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_LOAN = "INSERT INTO borrow_records (id, user_id, book_id, copy_id, borrow_date, due_date, " +
+            "return_date, returned) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] FIRST_NAMES = {"Ada", "Alan", "Grace", "Linus", "Hedy", "Dennis", "Barbara", "Ken", "Edsger", "Frances"};
+    private static final String[] LAST_NAMES = {"Lovelace", "Turing", "Hopper", "Torvalds", "Lamarr", "Ritchie", "Liskov", "Thompson", "Dijkstra", "Allen"};
+    private static final String[] TITLE_WORDS = {"Silent", "River", "Shadow", "Garden", "Empire", "Winter", "Glass", "Memory",
+            "Ocean", "Fire", "Road", "Crown", "Letters", "Night", "Machine", "Island", "Storm", "Mirror", "Stone", "Song"};
+    private static final String[] GENRES = {"Classic", "Dystopian", "Fantasy", "Romance", "Science Fiction", "Biography",
+            "History", "Mystery", "Poetry", "Thriller"};
+
+    // Room is left below the borrow limit of 5 so generated users can still borrow during a load test
+    private static final int MAX_OPEN_LOANS_PER_USER = 3;
+    private static final int LOAN_DAYS = 14;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${synthetic-data.seed:42}")
+    private long seed;
+
+    @Value("${synthetic-data.users:1000}")
+    private int users;
+
+    @Value("${synthetic-data.books:10000}")
+    private int books;
+
+    @Value("${synthetic-data.loans:50000}")
+    private int loans;
+
+    @Value("${synthetic-data.max-copies:3}")
+    private int maxCopies;
+
+    // Share of loans that are still open, and share of open loans that are overdue
+    @Value("${synthetic-data.open-loan-ratio:0.1}")
+    private double openLoanRatio;
+
+    @Value("${synthetic-data.overdue-ratio:0.2}")
+    private double overdueRatio;
+
+    @Value("${synthetic-data.password:123456}")
+    private String password;
+
+    @Value("${synthetic-data.batch-size:1000}")
+    private int batchSize;
+
+    public static String emailOf(int userIndex) {
+        return "patron" + userIndex + EMAIL_DOMAIN;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (userRepository.findByEmail(emailOf(0)).isPresent()) {
+            log.info("Synthetic data already present, skipping generation");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        Random random = new Random(seed);
+
+        UUID[] userIds = generateUsers(random);
+        long loanCount = generateBooksCopiesAndLoans(random, userIds);
+
+        log.info("Generated {} users, {} books and {} loans in {} ms",
+                users, books, loanCount, System.currentTimeMillis() - started);
+    }
+
+    private UUID[] generateUsers(Random random) {
+        // Hashing once keeps generation fast, every synthetic user shares the same password
+        String encodedPassword = passwordEncoder.encode(password);
+        UUID[] userIds = new UUID[users];
+        List<Object[]> rows = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < users; i++) {
+            userIds[i] = UuidV7.randomUuid();
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            rows.add(new Object[]{userIds[i], name, emailOf(i), encodedPassword,
+                    String.format("555%07d", i), Role.PATRON.name()});
+
+            if (rows.size() == batchSize || i == users - 1) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER, rows));
+                rows.clear();
+            }
+        }
+        return userIds;
+    }
+
+    private long generateBooksCopiesAndLoans(Random random, UUID[] userIds) {
+        LocalDate today = LocalDate.now();
+        double loansPerBook = books == 0 ? 0 : (double) loans / books;
+        byte[] openLoansPerUser = new byte[users];
+        long loanCount = 0;
+
+        List<Object[]> bookRows = new ArrayList<>(batchSize);
+        List<Object[]> copyRows = new ArrayList<>(batchSize * maxCopies);
+        List<Object[]> loanRows = new ArrayList<>();
+
+        for (int i = 0; i < books; i++) {
+            UUID bookId = UuidV7.randomUuid();
+            int copies = 1 + random.nextInt(maxCopies);
+            UUID[] copyIds = new UUID[copies];
+            CopyStatus[] statuses = new CopyStatus[copies];
+            for (int c = 0; c < copies; c++) {
+                copyIds[c] = UuidV7.randomUuid();
+                statuses[c] = CopyStatus.AVAILABLE;
+            }
+
+            int bookLoans = (int) loansPerBook + (random.nextDouble() < loansPerBook % 1 ? 1 : 0);
+            int onLoan = 0;
+            for (int l = 0; l < bookLoans && users > 0; l++) {
+                int user = random.nextInt(users);
+                boolean open = random.nextDouble() < openLoanRatio
+                        && onLoan < copies
+                        && openLoansPerUser[user] < MAX_OPEN_LOANS_PER_USER;
+
+                LocalDate borrowDate;
+                LocalDate returnDate = null;
+                int copy;
+
+                if (open) {
+                    copy = onLoan++;
+                    statuses[copy] = CopyStatus.ON_LOAN;
+                    openLoansPerUser[user]++;
+                    borrowDate = random.nextDouble() < overdueRatio
+                            ? today.minusDays(LOAN_DAYS + 1 + random.nextInt(60))
+                            : today.minusDays(random.nextInt(LOAN_DAYS));
+                } else {
+                    copy = random.nextInt(copies);
+                    borrowDate = today.minusDays(LOAN_DAYS + random.nextInt(365));
+                    returnDate = borrowDate.plusDays(1 + random.nextInt(LOAN_DAYS + 7));
+                }
+
+                loanRows.add(new Object[]{UuidV7.randomUuid(), userIds[user], bookId, copyIds[copy], borrowDate,
+                        borrowDate.plusDays(LOAN_DAYS), returnDate, !open});
+                loanCount++;
+            }
+
+            for (int c = 0; c < copies; c++) {
+                copyRows.add(new Object[]{copyIds[c], bookId, c + 1, statuses[c].name()});
+            }
+
+            String body = String.format("979%09d", i);
+            String isbn = body + IsbnUtils.ean13CheckDigit(body);
+            bookRows.add(new Object[]{bookId, title(random), author(random), isbn, isbn,
+                    LocalDate.of(1850 + random.nextInt(175), 1 + random.nextInt(12), 1),
+                    GENRES[random.nextInt(GENRES.length)], onLoan < copies, copies, copies - onLoan});
+
+            if (bookRows.size() == batchSize || i == books - 1) {
+                flush(bookRows, copyRows, loanRows);
+            }
+        }
+        return loanCount;
+    }
+
+    private void flush(List<Object[]> bookRows, List<Object[]> copyRows, List<Object[]> loanRows) {
+        // Parents first, each chunk in its own transaction so memory stays bounded by the batch size
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_BOOK, bookRows);
+            jdbcTemplate.batchUpdate(INSERT_COPY, copyRows);
+            jdbcTemplate.batchUpdate(INSERT_LOAN, loanRows);
+        });
+
+        bookRows.clear();
+        copyRows.clear();
+        loanRows.clear();
+    }
+
+    private String title(Random random) {
+        return "The " + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+    }
+
+    private String author(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+}
@@ -1,14 +1,17 @@
 package com.hasan.library_management.controller;
 
 import com.hasan.library_management.dto.request.AuthRequest;
+import com.hasan.library_management.dto.request.RefreshTokenRequest;
 import com.hasan.library_management.dto.request.RegisterRequest;
 import com.hasan.library_management.dto.response.AuthResponse;
 import com.hasan.library_management.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,7 +28,8 @@ public class AuthController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User registered successfully, JWT token returned"),
-            @ApiResponse(responseCode = "400", description = "Bad Request - Email is already registered")
+            @ApiResponse(responseCode = "400", description = "Bad Request - Email is already registered"),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests - Password hashing capacity is exhausted")
     })
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody @Valid RegisterRequest request) {
@@ -38,10 +42,41 @@ public class AuthController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Login successful, JWT token returned"),
-            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid email or password")
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid email or password"),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests - Too many failed attempts or password hashing capacity is exhausted")
     })
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(authService.login(request, httpRequest.getRemoteAddr()));
+    }
+
+    @Operation(
+            summary = "Refresh tokens",
+            description = "Exchanges a refresh token for a new access token and refresh token. Each refresh token can be used once."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "New JWT and refresh token returned"),
+            @ApiResponse(responseCode = "400", description = "Bad Request - Refresh token is missing"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Refresh token is invalid, expired, revoked or already used")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    @Operation(
+            summary = "Logout",
+            description = "Revokes the refresh token and, when sent in the Authorization header, the access token."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Tokens revoked"),
+            @ApiResponse(responseCode = "400", description = "Bad Request - Refresh token is missing")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody @Valid RefreshTokenRequest request,
+                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(request, accessToken);
+        return ResponseEntity.noContent().build();
     }
 }
@@ -1,10 +1,24 @@
 package com.hasan.library_management.controller;
 
 
+import com.hasan.library_management.dto.request.BookImportFormat;
 import com.hasan.library_management.dto.request.BookRequestDto;
+import com.hasan.library_management.dto.request.BookSearchCriteria;
+import com.hasan.library_management.dto.request.SearchTotal;
+import com.hasan.library_management.dto.response.BookImportResultDto;
 import com.hasan.library_management.dto.response.BookResponseDto;
+import com.hasan.library_management.dto.response.BookSearchPageDto;
+import com.hasan.library_management.dto.response.BookSuggestionDto;
+import com.hasan.library_management.dto.response.FacetedSearchResultDto;
+import com.hasan.library_management.service.BookImportService;
 import com.hasan.library_management.service.BookService;
+import com.hasan.library_management.service.CatalogVersion;
+import com.hasan.library_management.service.SerializedResponseCache;
+import com.hasan.library_management.util.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
@@ -12,11 +26,19 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/books")
@@ -24,18 +46,29 @@ import java.util.UUID;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final SerializedResponseCache serializedResponseCache;
+    private final CatalogVersion catalogVersion;
+
     @Operation(
             summary = "Get all books",
             description = "Retrieves a list of all books in the library. Accessible by librarians and patrons."
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Books retrieved successfully"),
+            @ApiResponse(responseCode = "200", description = "Books retrieved successfully", content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BookResponseDto.class)))),
+            @ApiResponse(responseCode = "304", description = "Not modified - The catalog still matches the If-None-Match ETag"),
             @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token")
     })
     @GetMapping
-    public ResponseEntity<List<BookResponseDto>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<byte[]> getAllBooks(WebRequest request) {
+        ResourceVersion version = catalogVersion.current();
+        if (version.isNotModified(request)) {
+            return null;
+        }
+        return serializedResponseCache.respond("books", version, request, bookService::getAllBooks);
     }
 
 
@@ -45,13 +78,18 @@ public class BookController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Book retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified - The book still matches the If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "Book not found"),
             @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<BookResponseDto> getBookById(@PathVariable UUID id) {
-        return ResponseEntity.ok(bookService.getBookById(id));
+    public ResponseEntity<BookResponseDto> getBookById(@PathVariable UUID id, WebRequest request) {
+        ResourceVersion version = bookService.getBookVersion(id);
+        if (version.isNotModified(request)) {
+            return null;
+        }
+        return version.ok(bookService.getBookById(id));
     }
 
 
@@ -105,11 +143,63 @@ public class BookController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+            summary = "Add copies of a book",
+            description = "Adds physical copies to an existing title and makes them available for borrowing. Only librarians are allowed to add copies."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Copies added successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid copy count"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to perform this action"),
+            @ApiResponse(responseCode = "404", description = "Book not found")
+    })
+    @PostMapping("/{id}/copies")
+    public ResponseEntity<BookResponseDto> addCopies(@PathVariable UUID id,
+                                                     @RequestParam(defaultValue = "1") int count) {
+        return ResponseEntity.ok(bookService.addCopies(id, count));
+    }
+
+    @Operation(
+            summary = "Bulk import books",
+            description = "Streams a CSV file (columns: title, author, isbn, publication_date, genre, optional copies) " +
+                    "or a binary MARC 21 file into the catalog. Rows are validated like a single book, books whose ISBN " +
+                    "already exists are skipped and the rest are inserted in batches. The format is taken from the file " +
+                    "extension (.mrc/.marc for MARC) unless given explicitly. Only librarians can perform this action."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, per-row errors are listed in the response"),
+            @ApiResponse(responseCode = "400", description = "File is empty or the CSV header is missing a required column"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to perform this action")
+    })
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BookImportResultDto> importBooks(@RequestParam("file") MultipartFile file,
+                                                           @RequestParam(required = false) BookImportFormat format) {
+        return ResponseEntity.ok(bookImportService.importBooks(file, format));
+    }
+
     // Search endpoints
 
+    @Operation(
+            summary = "Suggest titles and authors",
+            description = "Returns up to limit (max 20) titles and author names with a word starting with the prefix, " +
+                    "most borrowed first. Served from memory, intended for search-as-you-type."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestionDto>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookService.suggest(prefix, limit));
+    }
+
     @Operation(
             summary = "Search books by title",
-            description = "Returns a paginated list of books that match the specified title. Accessible by both librarians and patrons."
+            description = "Returns a paginated list of books that match the specified title. " +
+                    "total=NONE skips the count (hasNext only), total=APPROXIMATE uses a cached count. Accessible by both librarians and patrons."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Books retrieved successfully"),
@@ -117,18 +207,22 @@ public class BookController {
             @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource")
     })
     @GetMapping("/search/title")
-    public ResponseEntity<Page<BookResponseDto>> searchByTitle(
+    public ResponseEntity<?> searchByTitle(
             @RequestParam String title,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "EXACT") SearchTotal total,
+            WebRequest request) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(bookService.searchByTitle(title, pageable));
+        return firstPageCached("title", title, pageable, total, request,
+                () -> bookService.searchByTitle(title, pageable, total));
     }
 
     @Operation(
             summary = "Search books by author",
-            description = "Returns a paginated list of books written by the specified author. Accessible by both librarians and patrons."
+            description = "Returns a paginated list of books written by the specified author. " +
+                    "total=NONE skips the count (hasNext only), total=APPROXIMATE uses a cached count. Accessible by both librarians and patrons."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Books retrieved successfully"),
@@ -136,18 +230,22 @@ public class BookController {
             @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource")
     })
     @GetMapping("/search/author")
-    public ResponseEntity<Page<BookResponseDto>> searchByAuthor(
+    public ResponseEntity<?> searchByAuthor(
             @RequestParam String author,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "EXACT") SearchTotal total,
+            WebRequest request) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(bookService.searchByAuthor(author, pageable));
+        return firstPageCached("author", author, pageable, total, request,
+                () -> bookService.searchByAuthor(author, pageable, total));
     }
 
     @Operation(
             summary = "Search books by ISBN",
-            description = "Returns a paginated list of books matching the specified ISBN. Accessible by both librarians and patrons."
+            description = "Returns a paginated list of books matching the specified ISBN. " +
+                    "total=NONE skips the count (hasNext only), total=APPROXIMATE uses a cached count. Accessible by both librarians and patrons."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Books retrieved successfully"),
@@ -155,18 +253,59 @@ public class BookController {
             @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource")
     })
     @GetMapping("/search/isbn")
-    public ResponseEntity<Page<BookResponseDto>> searchByIsbn(
+    public ResponseEntity<?> searchByIsbn(
             @RequestParam String isbn,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "EXACT") SearchTotal total,
+            WebRequest request) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(bookService.searchByIsbn(isbn, pageable));
+        return firstPageCached("isbn", isbn, pageable, total, request,
+                () -> bookService.searchByIsbn(isbn, pageable, total));
+    }
+
+    @Operation(
+            summary = "Search books by several criteria",
+            description = "Combines any of title and author (substring), genre (exact), ISBN, availability and a publication " +
+                    "date range in one query. Sort by title, author or publicationDate; pages are fetched with the " +
+                    "nextCursor of the previous page instead of a page number. Accessible by both librarians and patrons."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Bad Request - Unsupported sort, invalid ISBN or cursor"),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests - Search rate limit exceeded")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<BookSearchPageDto> search(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String isbn,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishedTo,
+            @RequestParam(defaultValue = "title") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        BookSearchCriteria criteria = BookSearchCriteria.builder()
+                .title(title)
+                .author(author)
+                .genre(genre)
+                .isbn(isbn)
+                .available(available)
+                .publishedFrom(publishedFrom)
+                .publishedTo(publishedTo)
+                .build();
+        return ResponseEntity.ok(bookService.search(criteria, sort, direction, cursor, size));
     }
 
     @Operation(
             summary = "Search books by genre",
-            description = "Returns a paginated list of books matching the specified genre. Accessible by both librarians and patrons."
+            description = "Returns a paginated list of books matching the specified genre. " +
+                    "total=NONE skips the count (hasNext only), total=APPROXIMATE uses a cached count. Accessible by both librarians and patrons."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Books retrieved successfully"),
@@ -174,12 +313,73 @@ public class BookController {
             @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource")
     })
     @GetMapping("/search/genre")
-    public ResponseEntity<Page<BookResponseDto>> searchByGenre(
+    public ResponseEntity<?> searchByGenre(
             @RequestParam String genre,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "EXACT") SearchTotal total,
+            WebRequest request) {
+
+        Pageable pageable = PageRequest.of(page, size);
+        return firstPageCached("genre", genre, pageable, total, request,
+                () -> bookService.searchByGenre(genre, pageable, total));
+    }
+
+    @Operation(
+            summary = "Fuzzy search books",
+            description = "Searches title, author and genre, tolerating typos (e.g. \"Tolkein\", \"Hunger Game\"). " +
+                    "Results are ordered by relevance, title matches first. Accessible by both librarians and patrons."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books retrieved successfully"),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests - Search rate limit exceeded")
+    })
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<Page<BookResponseDto>> searchFuzzy(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(bookService.searchFuzzy(query, pageable));
+    }
+
+    @Operation(
+            summary = "Faceted search books",
+            description = "Filters books by genre, author, decade (e.g. 1960s) and availability, optionally narrowed by a " +
+                    "typo-tolerant query, and returns the page together with the value counts of each facet. " +
+                    "Several values of one facet match any of them. Accessible by both librarians and patrons."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books and facet counts retrieved successfully"),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests - Search rate limit exceeded")
+    })
+    @GetMapping("/search/faceted")
+    public ResponseEntity<FacetedSearchResultDto> searchFaceted(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) List<String> genre,
+            @RequestParam(required = false) List<String> author,
+            @RequestParam(required = false) List<String> decade,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(bookService.searchByGenre(genre, pageable));
+        return ResponseEntity.ok(bookService.searchFaceted(query, genre, author, decade, available, pageable));
+    }
+
+    // First pages are the popular ones: they are served pre-serialised until the in-memory catalog version changes,
+    // so a cached hit runs no query at all. Later pages go through Jackson as usual
+    private ResponseEntity<?> firstPageCached(String field, String term, Pageable pageable, SearchTotal total,
+                                              WebRequest request, Supplier<Slice<BookResponseDto>> search) {
+        if (pageable.getPageNumber() != 0) {
+            return ResponseEntity.ok(search.get());
+        }
+        ResourceVersion version = catalogVersion.current();
+        if (version.isNotModified(request)) {
+            return null;
+        }
+        String key = "search:" + field + ":" + term.toLowerCase(Locale.ROOT) + ":" + pageable.getPageSize() + ":" + total;
+        return serializedResponseCache.respond(key, version, request, search);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.hasan.library_management.controller;
+
+import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
+import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import com.hasan.library_management.service.ReactiveBorrowRecordService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+// Lists stream element by element as NDJSON when requested, otherwise they are collected into a JSON array
+@RestController
+@RequestMapping("/reactive/borrow-records")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveBorrowRecordController {
+
+    private final ReactiveBorrowRecordService borrowRecordService;
+
+    @Operation(
+            summary = "Stream all borrow records",
+            description = "Streams all borrow records from R2DBC. Accessible only by librarians."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Borrow records streamed successfully"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token")
+    })
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BorrowRecordResponseDto> getAllBorrowRecords() {
+        return borrowRecordService.getAll();
+    }
+
+    @Operation(
+            summary = "Borrow a book (reactive)",
+            description = "Borrows a book without blocking a request thread. Same rules as POST /borrow-records."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book borrowed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
+            @ApiResponse(responseCode = "404", description = "Book or user not found")
+    })
+    @PostMapping
+    public Mono<ResponseEntity<BorrowRecordResponseDto>> borrowBook(@RequestBody @Valid BorrowRecordRequestDto requestDto) {
+        return borrowRecordService.borrowBook(requestDto).map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Return a borrowed book (reactive)",
+            description = "Returns a borrowed book without blocking a request thread. Same rules as PUT /borrow-records/return/{id}."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid return request"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
+            @ApiResponse(responseCode = "404", description = "Borrow record not found")
+    })
+    @PutMapping("/return/{id}")
+    public Mono<ResponseEntity<BorrowRecordResponseDto>> returnBook(@PathVariable UUID id) {
+        return borrowRecordService.returnBook(id).map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Stream borrow records by user ID",
+            description = "Streams all borrow records of a specific user. Only librarians can access this endpoint."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Borrow records streamed successfully"),
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource")
+    })
+    @GetMapping(value = "/user/{userId}", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BorrowRecordResponseDto> getRecordsByUserId(@PathVariable UUID userId) {
+        return borrowRecordService.getBorrowRecordsByUserId(userId);
+    }
+
+    @Operation(
+            summary = "Stream borrow records of the authenticated user",
+            description = "Streams the borrow records of the currently authenticated user."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Borrow records streamed successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token")
+    })
+    @GetMapping(value = "/me", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BorrowRecordResponseDto> getOwnRecords(Authentication authentication) {
+        return borrowRecordService.getOwnBorrowRecords(authentication.getName());
+    }
+
+    @Operation(
+            summary = "Stream overdue borrow records",
+            description = "Streams borrow records for books that are overdue. Only librarians can access this endpoint."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Overdue borrow records streamed successfully"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token")
+    })
+    @GetMapping(value = "/overdue", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BorrowRecordResponseDto> getOverdueRecords() {
+        return borrowRecordService.getOverdueRecords();
+    }
+}
@@ -0,0 +1,91 @@
+package com.hasan.library_management.controller;
+
+import com.hasan.library_management.dto.request.ReservationRequestDto;
+import com.hasan.library_management.dto.response.ReservationResponseDto;
+import com.hasan.library_management.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @Operation(
+            summary = "Reserve a book",
+            description = "Places the authenticated user in the FIFO queue of a book that is currently not available. " +
+                    "When a copy is returned it is held for the head of the queue for a limited pickup window."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation created successfully"),
+            @ApiResponse(responseCode = "400", description = "Book is available or already borrowed by the user"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
+            @ApiResponse(responseCode = "404", description = "Book not found"),
+            @ApiResponse(responseCode = "409", description = "User already has an active reservation for this book")
+    })
+    @PostMapping
+    public ResponseEntity<ReservationResponseDto> reserveBook(@RequestBody @Valid ReservationRequestDto requestDto,
+                                                              Authentication authentication) {
+        return ResponseEntity.ok(reservationService.reserveBook(requestDto.getBookId(), authentication.getName()));
+    }
+
+
+    @Operation(
+            summary = "Cancel a reservation",
+            description = "Cancels a waiting or ready reservation. Patrons can only cancel their own reservations, librarians can cancel any."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Reservation cancelled successfully"),
+            @ApiResponse(responseCode = "400", description = "Reservation is no longer active"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelReservation(@PathVariable UUID id, Authentication authentication) {
+        reservationService.cancelReservation(id, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+
+
+    @Operation(
+            summary = "Get reservations of the authenticated user",
+            description = "Returns the reservations of the currently authenticated user, including queue positions of waiting ones."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservations retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token")
+    })
+    @GetMapping("/me")
+    public ResponseEntity<List<ReservationResponseDto>> getOwnReservations(Authentication authentication) {
+        return ResponseEntity.ok(reservationService.getOwnReservations(authentication.getName()));
+    }
+
+
+    @Operation(
+            summary = "Get the reservation queue of a book",
+            description = "Returns the waiting reservations of a book in FIFO order. Only librarians can access this endpoint."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation queue retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - You do not have permission to access this resource"),
+            @ApiResponse(responseCode = "404", description = "Book not found")
+    })
+    @GetMapping("/book/{bookId}")
+    public ResponseEntity<List<ReservationResponseDto>> getQueueForBook(@PathVariable UUID bookId) {
+        return ResponseEntity.ok(reservationService.getQueueForBook(bookId));
+    }
+}
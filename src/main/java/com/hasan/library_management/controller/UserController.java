@@ -4,6 +4,7 @@ import com.hasan.library_management.dto.request.AdminUserUpdateRequestDto;
 import com.hasan.library_management.dto.request.UserRequestDto;
 import com.hasan.library_management.dto.response.UserResponseDto;
 import com.hasan.library_management.service.UserService;
+import com.hasan.library_management.util.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -12,6 +13,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -39,12 +41,17 @@ public class UserController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User found successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified - The user still matches the If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "User not found"),
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponseDto> getUserById(@PathVariable UUID id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<UserResponseDto> getUserById(@PathVariable UUID id, WebRequest request) {
+        ResourceVersion version = userService.getUserVersion(id);
+        if (version.isNotModified(request)) {
+            return null;
+        }
+        return version.ok(userService.getUserById(id));
     }
 
     @Operation(
@@ -53,12 +60,17 @@ public class UserController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User details retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified - The details still match the If-None-Match ETag"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
     })
     @GetMapping("/me")
-    public ResponseEntity<UserResponseDto> getOwnDetails(Authentication authentication) {
+    public ResponseEntity<UserResponseDto> getOwnDetails(Authentication authentication, WebRequest request) {
         String email = authentication.getName();
-        return ResponseEntity.ok(userService.getOwnUserDetails(email));
+        ResourceVersion version = userService.getOwnUserVersion(email);
+        if (version.isNotModified(request)) {
+            return null;
+        }
+        return version.ok(userService.getOwnUserDetails(email));
     }
 
 
@@ -0,0 +1,6 @@
+package com.hasan.library_management.dto.request;
+
+public enum BookImportFormat {
+    CSV,
+    MARC
+}
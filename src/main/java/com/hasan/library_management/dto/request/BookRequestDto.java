@@ -1,5 +1,6 @@
 package com.hasan.library_management.dto.request;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -22,7 +23,7 @@ public class BookRequestDto {
     private String author;
 
     @NotBlank(message = "ISBN is required")
-    @Pattern(regexp = "^\\d{13}$", message = "ISBN must be exactly 13 digits")
+    @Pattern(regexp = "^\\d[\\d\\- ]{8,15}[\\dXx]$", message = "ISBN must be a valid ISBN-10 or ISBN-13")
     private String isbn;
 
     @NotNull(message = "Publication date is required")
@@ -30,4 +31,8 @@ public class BookRequestDto {
 
     @NotBlank(message = "Genre is required")
     private String genre;
+
+    // Number of physical copies to create, defaults to 1
+    @Min(value = 1, message = "Copies must be at least 1")
+    private Integer copies;
 }
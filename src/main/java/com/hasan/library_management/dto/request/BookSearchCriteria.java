@@ -0,0 +1,22 @@
+package com.hasan.library_management.dto.request;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Filters of the combined book search; unset fields do not restrict the result
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSearchCriteria {
+
+    private String title;
+    private String author;
+    private String genre;
+    private String isbn;
+    private Boolean available;
+    private LocalDate publishedFrom;
+    private LocalDate publishedTo;
+}
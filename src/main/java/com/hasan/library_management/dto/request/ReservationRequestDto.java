@@ -0,0 +1,17 @@
+package com.hasan.library_management.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationRequestDto {
+
+    @NotNull(message = "Book ID is required")
+    private UUID bookId;
+}
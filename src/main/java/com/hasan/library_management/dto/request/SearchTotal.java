@@ -0,0 +1,11 @@
+package com.hasan.library_management.dto.request;
+
+// How a search page reports the number of matching books
+public enum SearchTotal {
+    // Page with an exact total, at the cost of a COUNT query per request
+    EXACT,
+    // Page whose total comes from a recently cached count
+    APPROXIMATE,
+    // Slice without a total, only whether another page follows
+    NONE
+}
@@ -7,4 +7,5 @@ import lombok.Data;
 @AllArgsConstructor
 public class AuthResponse {
     private String token;
-}
\ No newline at end of file
+    private String refreshToken;
+}
@@ -3,11 +3,20 @@ package com.hasan.library_management.dto.response;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Schema(hidden = true)
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class BookAvailabilityEvent {
     private String bookId;
     private boolean available;
-}
\ No newline at end of file
+
+    // Set when a returned copy is handed to the head of the reservation queue
+    private String heldForUserId;
+
+    public BookAvailabilityEvent(String bookId, boolean available) {
+        this(bookId, available, null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.hasan.library_management.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportErrorDto {
+
+    // CSV line of the record (header is line 1) or 1-based MARC record number
+    private long row;
+    private String isbn;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.hasan.library_management.dto.response;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportResultDto {
+
+    private long totalRows;
+    private long imported;
+    private long duplicates;
+    private long failed;
+
+    // Capped so that a file full of bad rows cannot grow the response without bound
+    @Builder.Default
+    private List<BookImportErrorDto> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+}
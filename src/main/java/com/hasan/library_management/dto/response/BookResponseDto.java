@@ -19,4 +19,6 @@ public class BookResponseDto {
     private LocalDate publicationDate;
     private String genre;
     private boolean available;
+    private int totalCopies;
+    private int availableCopies;
 }
\ No newline at end of file
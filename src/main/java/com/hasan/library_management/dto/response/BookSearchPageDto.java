@@ -0,0 +1,19 @@
+package com.hasan.library_management.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSearchPageDto {
+
+    private List<BookResponseDto> content;
+    private int size;
+    private boolean hasNext;
+    // Passed back as cursor to fetch the following page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.hasan.library_management.dto.response;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSuggestionDto {
+
+    // TITLE or AUTHOR
+    private String type;
+    private String text;
+    // Set for title suggestions only
+    private UUID bookId;
+    private long borrowCount;
+}
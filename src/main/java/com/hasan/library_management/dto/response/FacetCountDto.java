@@ -0,0 +1,14 @@
+package com.hasan.library_management.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountDto {
+
+    private String value;
+    private int count;
+}
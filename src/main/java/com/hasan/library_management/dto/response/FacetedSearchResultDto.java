@@ -0,0 +1,19 @@
+package com.hasan.library_management.dto.response;
+
+import lombok.*;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetedSearchResultDto {
+
+    private Page<BookResponseDto> books;
+    // genre, decade, available and author, most frequent values first
+    private Map<String, List<FacetCountDto>> facets;
+}
@@ -0,0 +1,27 @@
+package com.hasan.library_management.dto.response;
+
+import com.hasan.library_management.entity.ReservationStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationResponseDto {
+
+    private UUID id;
+    private UUID bookId;
+    private String bookTitle;
+    private UUID userId;
+    private String userName;
+    private ReservationStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime readyUntil;
+
+    // 1-based position in the queue, only set while the reservation is waiting
+    private Long queuePosition;
+}
@@ -0,0 +1,48 @@
+package com.hasan.library_management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Returned loan moved out of borrow_records once it is older than borrow-records.archive.after-months,
+ * so the active-loan queries only scan open and recent records. Keeps the id and dates of the original record.
+ **/
+@Entity
+@Table(name = "borrow_records_archive", indexes = {
+        @Index(name = "idx_borrow_records_archive_user_id", columnList = "user_id"),
+        @Index(name = "idx_borrow_records_archive_book_id", columnList = "book_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedBorrowRecord {
+
+    @Id
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    // Plain column rather than a foreign key, a copy may be withdrawn long after its loans were archived
+    @Column(name = "copy_id")
+    private UUID copyId;
+
+    @Column(nullable = false)
+    private LocalDate borrowDate;
+
+    @Column(nullable = false)
+    private LocalDate dueDate;
+
+    @Column(nullable = false)
+    private LocalDate returnDate;
+}
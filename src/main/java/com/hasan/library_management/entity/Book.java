@@ -2,22 +2,35 @@ package com.hasan.library_management.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "books")
+// Sort keys of the combined search, with the id as tie-breaker for keyset paging
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_title_id", columnList = "title, id"),
+        @Index(name = "idx_books_author_id", columnList = "author, id"),
+        @Index(name = "idx_books_publication_date_id", columnList = "publication_date, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Copy counters are maintained with bulk updates, so only columns that actually changed may be written back
+@DynamicUpdate
+// Not second-level cached: every borrow and return changes the counters with bulk statements (JPA and R2DBC),
+// which would keep the region cold or stale, and the catalog reads go through projections anyway
 public class Book {
 
     @Id
-    @GeneratedValue
+    @GeneratedUuidV7
     private UUID id;
 
     @Column(nullable = false)
@@ -29,14 +42,47 @@ public class Book {
     @Column(nullable = false, unique = true)
     private String isbn;
 
+    // ISBN-13 without separators; the unique index makes duplicate checks exact and O(log n)
+    @Column(unique = true, length = 13)
+    private String isbnCanonical;
+
     private LocalDate publicationDate;
 
     private String genre;
 
+    // Kept in sync with availableCopies > 0
     @Column(nullable = false)
     @Builder.Default
     private boolean available = true;
 
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    @Builder.Default
+    private int totalCopies = 1;
+
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    @Builder.Default
+    private int availableCopies = 1;
+
+    // Feed the ETag and Last-Modified headers; the bulk counter updates bump both as well
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant updatedAt;
+
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
+    private List<BookCopy> copies;
+
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
     private List<BorrowRecord> borrowRecords;
+
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
+    private List<ArchivedBorrowRecord> archivedBorrowRecords;
+
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
+    private List<Reservation> reservations;
 }
@@ -0,0 +1,35 @@
+package com.hasan.library_management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "book_copies",
+        uniqueConstraints = @UniqueConstraint(name = "uk_book_copies_book_copy_number", columnNames = {"book_id", "copy_number"}),
+        indexes = @Index(name = "idx_book_copies_book_status", columnList = "book_id, status"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookCopy {
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    // Shelf number of the copy within its title, starting at 1
+    @Column(nullable = false)
+    private int copyNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private CopyStatus status = CopyStatus.AVAILABLE;
+}
@@ -7,7 +7,12 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "borrow_records")
+// Indexes serve the active-loan checks and overdue scans, and pick the archival batches
+@Table(name = "borrow_records", indexes = {
+        @Index(name = "idx_borrow_records_user_returned", columnList = "user_id, returned"),
+        @Index(name = "idx_borrow_records_returned_due_date", columnList = "returned, due_date"),
+        @Index(name = "idx_borrow_records_returned_return_date", columnList = "returned, return_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,7 +21,7 @@ import java.util.UUID;
 public class BorrowRecord {
 
     @Id
-    @GeneratedValue
+    @GeneratedUuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +32,11 @@ public class BorrowRecord {
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
+    // Physical copy handed out, empty for records created before copies were tracked
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
     @Column(nullable = false)
     private LocalDate borrowDate;
 
@@ -0,0 +1,7 @@
+package com.hasan.library_management.entity;
+
+public enum CopyStatus {
+    AVAILABLE,
+    ON_LOAN,
+    ON_HOLD
+}
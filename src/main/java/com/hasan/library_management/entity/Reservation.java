@@ -0,0 +1,44 @@
+package com.hasan.library_management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_book_status_created", columnList = "book_id, status, created_at"),
+        @Index(name = "idx_reservations_status_ready_until", columnList = "status, ready_until")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Reservation {
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ReservationStatus status = ReservationStatus.WAITING;
+
+    // Position in the FIFO queue is derived from this timestamp
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set when the returned copy is handed to this reservation
+    private LocalDateTime readyUntil;
+}
@@ -0,0 +1,9 @@
+package com.hasan.library_management.entity;
+
+public enum ReservationStatus {
+    WAITING,
+    READY,
+    FULFILLED,
+    EXPIRED,
+    CANCELLED
+}
@@ -0,0 +1,42 @@
+package com.hasan.library_management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A revoked token (by jti) or all tokens of a subject issued up to revokedAt (jti empty).
+ * Each node loads new rows into its in-memory revocation list; rows are deleted once expiresAt has passed.
+ **/
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    // Unique, so a refresh token can be rotated only once even when two nodes see it concurrently
+    @Column(unique = true)
+    private UUID jti;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    // After this instant every token covered by the row has expired on its own
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
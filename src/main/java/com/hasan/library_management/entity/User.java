@@ -2,12 +2,24 @@ package com.hasan.library_management.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
 @Table(name = "users")
+// Second-level cached, including email lookups (see UserNaturalIdRepository); regions are sized in ehcache.xml.
+// Only written through JPA, a writer that bypasses Hibernate must evict the users regions
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,12 +28,14 @@ import java.util.UUID;
 public class User {
 
     @Id
-    @GeneratedValue
+    @GeneratedUuidV7
     private UUID id;
 
     @Column(nullable = false)
     private String name;
 
+    // Librarians can change it, so the cached email to id mapping is updated along with the row
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
 
@@ -34,6 +48,21 @@ public class User {
     @Column(nullable = false)
     private Role role;
 
+    // Feed the ETag and Last-Modified headers of the user endpoints
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Instant updatedAt;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private List<BorrowRecord> borrowRecords;
+
+    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
+    private List<ArchivedBorrowRecord> archivedBorrowRecords;
+
+    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
+    private List<Reservation> reservations;
 }
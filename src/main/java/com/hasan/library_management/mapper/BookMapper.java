@@ -3,6 +3,7 @@ package com.hasan.library_management.mapper;
 import com.hasan.library_management.dto.request.BookRequestDto;
 import com.hasan.library_management.dto.response.BookResponseDto;
 import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.repository.BookRepository;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -16,6 +17,8 @@ public class BookMapper {
                 .publicationDate(dto.getPublicationDate())
                 .genre(dto.getGenre())
                 .available(true)
+                .totalCopies(copiesOf(dto))
+                .availableCopies(copiesOf(dto))
                 .build();
     }
 
@@ -28,6 +31,22 @@ public class BookMapper {
                 .publicationDate(book.getPublicationDate())
                 .genre(book.getGenre())
                 .available(book.isAvailable())
+                .totalCopies(book.getTotalCopies())
+                .availableCopies(book.getAvailableCopies())
+                .build();
+    }
+
+    public BookResponseDto toResponseDto(BookRepository.BookSummary book) {
+        return BookResponseDto.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .publicationDate(book.getPublicationDate())
+                .genre(book.getGenre())
+                .available(book.isAvailable())
+                .totalCopies(book.getTotalCopies())
+                .availableCopies(book.getAvailableCopies())
                 .build();
     }
 
@@ -38,4 +57,8 @@ public class BookMapper {
         book.setPublicationDate(dto.getPublicationDate());
         book.setGenre(dto.getGenre());
     }
+
+    public int copiesOf(BookRequestDto dto) {
+        return dto.getCopies() != null ? dto.getCopies() : 1;
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.hasan.library_management.mapper;
 
 import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
 import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import com.hasan.library_management.entity.ArchivedBorrowRecord;
 import com.hasan.library_management.entity.Book;
 import com.hasan.library_management.entity.BorrowRecord;
 import com.hasan.library_management.entity.User;
@@ -33,4 +34,18 @@ public class BorrowRecordMapper {
                 .returned(record.isReturned())
                 .build();
     }
-}
\ No newline at end of file
+
+    public BorrowRecordResponseDto toResponseDto(ArchivedBorrowRecord record) {
+        return BorrowRecordResponseDto.builder()
+                .userName(record.getUser().getName())
+                .bookTitle(record.getBook().getTitle())
+                .id(record.getId())
+                .userId(record.getUser().getId())
+                .bookId(record.getBook().getId())
+                .borrowDate(record.getBorrowDate())
+                .dueDate(record.getDueDate())
+                .returnDate(record.getReturnDate())
+                .returned(true)
+                .build();
+    }
+}
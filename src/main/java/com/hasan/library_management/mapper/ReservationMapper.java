@@ -0,0 +1,23 @@
+package com.hasan.library_management.mapper;
+
+import com.hasan.library_management.dto.response.ReservationResponseDto;
+import com.hasan.library_management.entity.Reservation;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReservationMapper {
+
+    public ReservationResponseDto toResponseDto(Reservation reservation, Long queuePosition) {
+        return ReservationResponseDto.builder()
+                .id(reservation.getId())
+                .bookId(reservation.getBook().getId())
+                .bookTitle(reservation.getBook().getTitle())
+                .userId(reservation.getUser().getId())
+                .userName(reservation.getUser().getName())
+                .status(reservation.getStatus())
+                .createdAt(reservation.getCreatedAt())
+                .readyUntil(reservation.getReadyUntil())
+                .queuePosition(queuePosition)
+                .build();
+    }
+}
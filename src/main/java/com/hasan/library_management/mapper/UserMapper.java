@@ -4,6 +4,7 @@ import com.hasan.library_management.dto.request.AdminUserUpdateRequestDto;
 import com.hasan.library_management.dto.request.UserRequestDto;
 import com.hasan.library_management.dto.response.UserResponseDto;
 import com.hasan.library_management.entity.User;
+import com.hasan.library_management.repository.UserRepository;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -30,6 +31,16 @@ public class UserMapper {
                 .role(user.getRole())
                 .build();
     }
+    public UserResponseDto toResponseDto(UserRepository.UserSummary user) {
+        return UserResponseDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .phoneNumber(user.getPhoneNumber())
+                .role(user.getRole())
+                .build();
+    }
+
     public User updateEntityFromAdminDto(User user, AdminUserUpdateRequestDto dto) {
         user.setName(dto.getName());
         user.setEmail(dto.getEmail());
@@ -0,0 +1,13 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.ArchivedBorrowRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ArchivedBorrowRecordRepository extends JpaRepository<ArchivedBorrowRecord, UUID> {
+
+    // Archived borrowing history of a specific user
+    List<ArchivedBorrowRecord> findByUserId(UUID userId);
+}
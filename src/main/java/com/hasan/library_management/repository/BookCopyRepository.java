@@ -0,0 +1,31 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.BookCopy;
+import com.hasan.library_management.entity.CopyStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface BookCopyRepository extends JpaRepository<BookCopy, UUID> {
+
+    // A handful of candidate copies in the given status, used to spread concurrent claims over several rows
+    @Query("SELECT c.id FROM BookCopy c WHERE c.book.id = :bookId AND c.status = :status")
+    List<UUID> findIdsByBookIdAndStatus(@Param("bookId") UUID bookId,
+                                        @Param("status") CopyStatus status,
+                                        Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.copyNumber), 0) FROM BookCopy c WHERE c.book.id = :bookId")
+    int findMaxCopyNumberByBookId(@Param("bookId") UUID bookId);
+
+    // Compare-and-set status transition, returns 0 when another request claimed the copy first
+    @Modifying
+    @Query("UPDATE BookCopy c SET c.status = :next WHERE c.id = :id AND c.status = :expected")
+    int compareAndSetStatus(@Param("id") UUID id,
+                            @Param("expected") CopyStatus expected,
+                            @Param("next") CopyStatus next);
+}
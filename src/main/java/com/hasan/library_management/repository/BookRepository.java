@@ -3,17 +3,138 @@ package com.hasan.library_management.repository;
 import com.hasan.library_management.entity.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
-public interface BookRepository extends JpaRepository<Book, UUID> {
+public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificationExecutor<Book>, BookSearchRepository {
 
-    Page<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable);
-    Page<Book> findByAuthorContainingIgnoreCase(String author, Pageable pageable);
-    Page<Book> findByIsbnContainingIgnoreCase(String isbn, Pageable pageable);
-    Page<Book> findByGenreContainingIgnoreCase(String genre, Pageable pageable);
+    // Columns of a book response; read as a projection, no managed entity or collection proxies are created
+    interface BookSummary {
+        UUID getId();
+        String getTitle();
+        String getAuthor();
+        String getIsbn();
+        LocalDate getPublicationDate();
+        String getGenre();
+        boolean isAvailable();
+        int getTotalCopies();
+        int getAvailableCopies();
+    }
+
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author, b.isbn AS isbn, b.publicationDate AS publicationDate, " +
+            "b.genre AS genre, b.available AS available, b.totalCopies AS totalCopies, b.availableCopies AS availableCopies FROM Book b")
+    List<BookSummary> findAllSummaries();
+
+    Optional<BookSummary> findSummaryById(UUID id);
+
+    Optional<EntityVersion> findVersionById(UUID id);
+
+    // Aggregate scanned by the periodic catalog version sync, never per request
+    interface CatalogState {
+        long getCount();
+        Long getVersionSum();
+        Instant getUpdatedAt();
+    }
+
+    @Query("SELECT COUNT(b) AS count, SUM(b.version) AS versionSum, MAX(b.updatedAt) AS updatedAt FROM Book b")
+    CatalogState findCatalogState();
+
+    List<BookSummary> findSummariesByIdIn(Collection<UUID> ids);
+
+    // The type argument selects the projection, e.g. BookSummary.class
+    <T> Page<T> findByTitleContainingIgnoreCase(String title, Pageable pageable, Class<T> type);
+    <T> Page<T> findByAuthorContainingIgnoreCase(String author, Pageable pageable, Class<T> type);
+    <T> Page<T> findByIsbnContainingIgnoreCase(String isbn, Pageable pageable, Class<T> type);
+    <T> Page<T> findByGenreContainingIgnoreCase(String genre, Pageable pageable, Class<T> type);
+
+    // Same searches without the COUNT query: one row beyond the page tells whether more follow
+    <T> Slice<T> findSliceByTitleContainingIgnoreCase(String title, Pageable pageable, Class<T> type);
+    <T> Slice<T> findSliceByAuthorContainingIgnoreCase(String author, Pageable pageable, Class<T> type);
+    <T> Slice<T> findSliceByIsbnContainingIgnoreCase(String isbn, Pageable pageable, Class<T> type);
+    <T> Slice<T> findSliceByGenreContainingIgnoreCase(String genre, Pageable pageable, Class<T> type);
+
+    long countByTitleContainingIgnoreCase(String title);
+    long countByAuthorContainingIgnoreCase(String author);
+    long countByIsbnContainingIgnoreCase(String isbn);
+    long countByGenreContainingIgnoreCase(String genre);
 
     Optional<Book> findByIsbn(String isbn);
+
+    interface BookPopularity {
+        UUID getId();
+        String getTitle();
+        String getAuthor();
+        long getBorrowCount();
+    }
+
+    // Titles and authors with their all-time borrow counts (active and archived loans), the input of the suggestion index
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author, " +
+            "(SELECT COUNT(r) FROM BorrowRecord r WHERE r.book = b) + " +
+            "(SELECT COUNT(a) FROM ArchivedBorrowRecord a WHERE a.book = b) AS borrowCount FROM Book b")
+    List<BookPopularity> findBookPopularity();
+
+    interface BookText {
+        UUID getId();
+        String getTitle();
+        String getAuthor();
+        String getGenre();
+        LocalDate getPublicationDate();
+        boolean isAvailable();
+    }
+
+    // Searchable text and facet values of every book, the input of the search index
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author, b.genre AS genre, " +
+            "b.publicationDate AS publicationDate, b.available AS available FROM Book b")
+    List<BookText> findAllBookText();
+
+    // Exact lookups on the indexed canonical ISBN
+    Optional<Book> findByIsbnCanonical(String isbnCanonical);
+    boolean existsByIsbnCanonical(String isbnCanonical);
+    boolean existsByIsbnCanonicalAndIdNot(String isbnCanonical, UUID id);
+
+    @Query("SELECT b.isbnCanonical FROM Book b WHERE b.isbnCanonical IN :isbns")
+    Set<String> findExistingCanonicalIsbns(@Param("isbns") Collection<String> isbns);
+
+    // Books created before the canonical ISBN column existed
+    List<Book> findByIsbnCanonicalIsNull();
+
+    @Query("SELECT b.availableCopies FROM Book b WHERE b.id = :id")
+    int findAvailableCopiesById(@Param("id") UUID id);
+
+    // Books created before copies were tracked
+    @Query("SELECT b FROM Book b WHERE NOT EXISTS (SELECT c.id FROM BookCopy c WHERE c.book = b)")
+    List<Book> findBooksWithoutCopies();
+
+    // Bulk updates bypass @Version and @UpdateTimestamp, so they change both themselves
+    String VERSION_BUMP = "b.version = b.version + 1, b.updatedAt = instant ";
+
+    // Atomic per-title counters; the available flag mirrors availableCopies > 0
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, " +
+            "b.available = CASE WHEN b.availableCopies > 1 THEN true ELSE false END, " + VERSION_BUMP +
+            "WHERE b.id = :id AND b.availableCopies > 0")
+    int decrementAvailableCopies(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1, b.available = true, " + VERSION_BUMP +
+            "WHERE b.id = :id")
+    int incrementAvailableCopies(@Param("id") UUID id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.totalCopies = b.totalCopies + :count, " +
+            "b.availableCopies = b.availableCopies + :count, b.available = true, " + VERSION_BUMP +
+            "WHERE b.id = :id")
+    int addCopies(@Param("id") UUID id, @Param("count") int count);
 }
@@ -0,0 +1,37 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.Book;
+import lombok.Value;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface BookSearchRepository {
+
+    // Sort value and id of the last book of the previous page
+    record Keyset(Comparable<?> value, UUID id) {
+    }
+
+    // Built by the search query's constructor expression, so no entity is loaded or tracked
+    @Value
+    class SearchRow implements BookRepository.BookSummary {
+        UUID id;
+        String title;
+        String author;
+        String isbn;
+        LocalDate publicationDate;
+        String genre;
+        boolean available;
+        int totalCopies;
+        int availableCopies;
+    }
+
+    /**
+     * Books matching filter ordered by sortField then id, starting after the given keyset (null for the
+     * first page), at most limit rows. Books without a value for a nullable sort field come last.
+     **/
+    List<BookRepository.BookSummary> search(Specification<Book> filter, BookSortField sortField, boolean ascending,
+                                            Keyset after, int limit);
+}
@@ -0,0 +1,92 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Picked up by Spring Data as the implementation of the BookSearchRepository fragment of BookRepository
+class BookSearchRepositoryImpl implements BookSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Nulls last as two seeks instead of one ORDER BY over an expression: books with a value in (value, id)
+     * order, then the books without one in id order. Each is a plain range over the (value, id) index,
+     * so neither sorts, and the second only runs when the first leaves the page short.
+     **/
+    @Override
+    public List<BookRepository.BookSummary> search(Specification<Book> filter, BookSortField sortField, boolean ascending,
+                                                   Keyset after, int limit) {
+        List<BookRepository.BookSummary> rows = new ArrayList<>(limit);
+        boolean inNullTail = after != null && after.value() == null;
+        if (!inNullTail) {
+            rows.addAll(seek(filter, sortField, ascending, after, false, limit));
+        }
+        if (sortField.isNullable() && rows.size() < limit) {
+            rows.addAll(seek(filter, sortField, ascending, inNullTail ? after : null, true, limit - rows.size()));
+        }
+        return rows;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<SearchRow> seek(Specification<Book> filter, BookSortField sortField, boolean ascending,
+                                 Keyset after, boolean nullValues, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SearchRow> query = cb.createQuery(SearchRow.class);
+        Root<Book> book = query.from(Book.class);
+        Path<Comparable> value = book.get(sortField.getProperty());
+        Path<UUID> id = book.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filterPredicate = filter == null ? null : filter.toPredicate(book, query, cb);
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+
+        List<Order> order = new ArrayList<>();
+        if (nullValues) {
+            predicates.add(cb.isNull(value));
+        } else {
+            if (sortField.isNullable()) {
+                predicates.add(cb.isNotNull(value));
+            }
+            order.add(ascending ? cb.asc(value) : cb.desc(value));
+        }
+        order.add(ascending ? cb.asc(id) : cb.desc(id));
+
+        // Seek past the previous page: (value, id) after the keyset in sort order. Written as a range on value
+        // narrowed by the tie-break, so the database starts the index scan at the keyset
+        if (after != null) {
+            Predicate idAfter = ascending ? cb.greaterThan(id, after.id()) : cb.lessThan(id, after.id());
+            if (nullValues) {
+                predicates.add(idAfter);
+            } else {
+                Comparable afterValue = after.value();
+                Predicate valueFrom = ascending ? cb.greaterThanOrEqualTo(value, afterValue) : cb.lessThanOrEqualTo(value, afterValue);
+                Predicate valueAfter = ascending ? cb.greaterThan(value, afterValue) : cb.lessThan(value, afterValue);
+                predicates.add(cb.and(valueFrom, cb.or(valueAfter, idAfter)));
+            }
+        }
+
+        query.select(cb.construct(SearchRow.class,
+                        id, book.get("title"), book.get("author"), book.get("isbn"), book.get("publicationDate"),
+                        book.get("genre"), book.get("available"), book.get("totalCopies"), book.get("availableCopies")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(order);
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,50 @@
+package com.hasan.library_management.repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Sort keys accepted by the combined book search. Each is an indexed column and the book id breaks ties,
+ * so pages can be fetched with a keyset seek instead of an offset.
+ **/
+public enum BookSortField {
+    TITLE("title", false),
+    AUTHOR("author", false),
+    PUBLICATION_DATE("publicationDate", true);
+
+    private final String property;
+    private final boolean nullable;
+
+    BookSortField(String property, boolean nullable) {
+        this.property = property;
+        this.nullable = nullable;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    // Matches the request parameter against the property name, e.g. "publicationDate"
+    public static Optional<BookSortField> fromParameter(String parameter) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equalsIgnoreCase(parameter))
+                .findFirst();
+    }
+
+    public Comparable<?> valueOf(BookRepository.BookSummary book) {
+        return switch (this) {
+            case TITLE -> book.getTitle();
+            case AUTHOR -> book.getAuthor();
+            case PUBLICATION_DATE -> book.getPublicationDate();
+        };
+    }
+
+    public Comparable<?> parse(String value) {
+        return this == PUBLICATION_DATE ? LocalDate.parse(value) : value;
+    }
+}
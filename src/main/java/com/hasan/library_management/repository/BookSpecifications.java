@@ -0,0 +1,75 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.dto.request.BookSearchCriteria;
+import com.hasan.library_management.entity.Book;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Predicates of the combined book search; each returns null when its criterion is not set,
+ * which Specification composition skips. ISBN, genre, availability and dates are plain comparisons
+ * the database can serve from an index; title and author keep the substring match of the single-field searches.
+ **/
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> matching(BookSearchCriteria criteria) {
+        return Specification.allOf(
+                isbnCanonical(criteria.getIsbn()),
+                genre(criteria.getGenre()),
+                available(criteria.getAvailable()),
+                publishedFrom(criteria.getPublishedFrom()),
+                publishedTo(criteria.getPublishedTo()),
+                titleContains(criteria.getTitle()),
+                authorContains(criteria.getAuthor()));
+    }
+
+    // Expects the canonical ISBN-13, served by the unique index
+    public static Specification<Book> isbnCanonical(String isbnCanonical) {
+        return isBlank(isbnCanonical) ? null : (book, query, cb) -> cb.equal(book.get("isbnCanonical"), isbnCanonical);
+    }
+
+    public static Specification<Book> genre(String genre) {
+        return isBlank(genre) ? null : (book, query, cb) ->
+                cb.equal(cb.lower(book.<String>get("genre")), genre.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public static Specification<Book> available(Boolean available) {
+        return available == null ? null : (book, query, cb) -> cb.equal(book.get("available"), available);
+    }
+
+    public static Specification<Book> publishedFrom(LocalDate from) {
+        return from == null ? null : (book, query, cb) -> cb.greaterThanOrEqualTo(book.<LocalDate>get("publicationDate"), from);
+    }
+
+    public static Specification<Book> publishedTo(LocalDate to) {
+        return to == null ? null : (book, query, cb) -> cb.lessThanOrEqualTo(book.<LocalDate>get("publicationDate"), to);
+    }
+
+    public static Specification<Book> titleContains(String title) {
+        return isBlank(title) ? null : (book, query, cb) ->
+                cb.like(cb.lower(book.<String>get("title")), containsPattern(title), '\\');
+    }
+
+    public static Specification<Book> authorContains(String author) {
+        return isBlank(author) ? null : (book, query, cb) ->
+                cb.like(cb.lower(book.<String>get("author")), containsPattern(author), '\\');
+    }
+
+    // User input is matched literally, % and _ included
+    private static String containsPattern(String value) {
+        String escaped = value.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
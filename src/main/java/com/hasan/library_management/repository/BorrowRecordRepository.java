@@ -1,7 +1,11 @@
 package com.hasan.library_management.repository;
 
 import com.hasan.library_management.entity.BorrowRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -25,6 +29,24 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, UUID
     // Returns the number of active (unreturned) books
     int countByUserIdAndReturnedFalse(UUID userId);
 
+    // Is the user currently holding a copy of this book
+    boolean existsByUserIdAndBookIdAndReturnedFalse(UUID userId, UUID bookId);
+
     // Are there any overdue books (dueDate < today and not returned)
     boolean existsByUserIdAndReturnedFalseAndDueDateBefore(UUID userId, LocalDate today);
-}
\ No newline at end of file
+
+    // *** Archival, see BorrowRecordService.archiveReturnedRecords ***
+
+    // Next batch of returned records older than the cutoff, oldest first
+    @Query("SELECT r.id FROM BorrowRecord r WHERE r.returned = true AND r.returnDate < :cutoff ORDER BY r.returnDate")
+    List<UUID> findArchivableIds(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("INSERT INTO ArchivedBorrowRecord (id, user, book, copyId, borrowDate, dueDate, returnDate) " +
+            "SELECT r.id, r.user, r.book, r.copy.id, r.borrowDate, r.dueDate, r.returnDate FROM BorrowRecord r WHERE r.id IN :ids")
+    int copyToArchive(@Param("ids") List<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM BorrowRecord r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<UUID> ids);
+}
@@ -0,0 +1,11 @@
+package com.hasan.library_management.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Version columns of a book or user, read on their own to answer conditional GETs without loading the row
+public interface EntityVersion {
+    UUID getId();
+    long getVersion();
+    Instant getUpdatedAt();
+}
@@ -0,0 +1,249 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
+import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import com.hasan.library_management.entity.CopyStatus;
+import com.hasan.library_management.entity.ReservationStatus;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Non-blocking access to the borrow, copy and reservation tables for the reactive borrow/return path.
+ * Works on the schema managed by the JPA entities; status transitions are the same conditional UPDATEs
+ * as in the JPA repositories, returning the number of rows changed.
+ **/
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveBorrowRecordRepository {
+
+    private static final String SELECT_RECORD = "SELECT r.id, r.user_id, r.book_id, r.borrow_date, r.due_date, " +
+            "r.return_date, r.returned, u.name AS user_name, b.title AS book_title FROM borrow_records r " +
+            "JOIN users u ON u.id = r.user_id JOIN books b ON b.id = r.book_id";
+
+    // Returned loans moved out by the archival job, listed together with the active table
+    private static final String SELECT_ARCHIVED = "SELECT a.id, a.user_id, a.book_id, a.borrow_date, a.due_date, " +
+            "a.return_date, true AS returned, u.name AS user_name, b.title AS book_title FROM borrow_records_archive a " +
+            "JOIN users u ON u.id = a.user_id JOIN books b ON b.id = a.book_id";
+
+    // Counter updates change the book's ETag, see BookRepository.VERSION_BUMP
+    private static final String BOOK_VERSION_BUMP = "version = version + 1, updated_at = CURRENT_TIMESTAMP ";
+
+    public record Loan(UUID id, UUID bookId, UUID copyId) {
+    }
+
+    public record QueueEntry(UUID reservationId, UUID userId) {
+    }
+
+    private final DatabaseClient databaseClient;
+
+    // *** Borrow records ***
+
+    public Flux<BorrowRecordResponseDto> findAll() {
+        return databaseClient.sql(SELECT_RECORD + " UNION ALL " + SELECT_ARCHIVED)
+                .map(ReactiveBorrowRecordRepository::toResponseDto)
+                .all();
+    }
+
+    public Mono<BorrowRecordResponseDto> findById(UUID id) {
+        return databaseClient.sql(SELECT_RECORD + " WHERE r.id = :id")
+                .bind("id", id)
+                .map(ReactiveBorrowRecordRepository::toResponseDto)
+                .one();
+    }
+
+    public Flux<BorrowRecordResponseDto> findByUserId(UUID userId) {
+        return databaseClient.sql(SELECT_RECORD + " WHERE r.user_id = :userId UNION ALL " + SELECT_ARCHIVED + " WHERE a.user_id = :userId")
+                .bind("userId", userId)
+                .map(ReactiveBorrowRecordRepository::toResponseDto)
+                .all();
+    }
+
+    public Flux<BorrowRecordResponseDto> findOverdue(LocalDate today) {
+        return databaseClient.sql(SELECT_RECORD + " WHERE r.returned = false AND r.due_date < :today")
+                .bind("today", today)
+                .map(ReactiveBorrowRecordRepository::toResponseDto)
+                .all();
+    }
+
+    public Mono<Loan> findLoan(UUID id) {
+        return databaseClient.sql("SELECT id, book_id, copy_id FROM borrow_records WHERE id = :id")
+                .bind("id", id)
+                .map(row -> new Loan(row.get("id", UUID.class), row.get("book_id", UUID.class), row.get("copy_id", UUID.class)))
+                .one();
+    }
+
+    public Mono<Long> insert(UUID id, BorrowRecordRequestDto dto, UUID copyId) {
+        return databaseClient.sql("INSERT INTO borrow_records (id, user_id, book_id, copy_id, borrow_date, due_date, returned) " +
+                        "VALUES (:id, :userId, :bookId, :copyId, :borrowDate, :dueDate, false)")
+                .bind("id", id)
+                .bind("userId", dto.getUserId())
+                .bind("bookId", dto.getBookId())
+                .bind("copyId", copyId)
+                .bind("borrowDate", dto.getBorrowDate())
+                .bind("dueDate", dto.getDueDate())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Returns 0 when the record was already returned, so concurrent returns cannot both succeed
+    public Mono<Long> markReturned(UUID id, LocalDate returnDate) {
+        return databaseClient.sql("UPDATE borrow_records SET returned = true, return_date = :returnDate " +
+                        "WHERE id = :id AND returned = false")
+                .bind("id", id)
+                .bind("returnDate", returnDate)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> countOpenLoans(UUID userId) {
+        return databaseClient.sql("SELECT COUNT(*) FROM borrow_records WHERE user_id = :userId AND returned = false")
+                .bind("userId", userId)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Boolean> hasOverdueLoans(UUID userId, LocalDate today) {
+        return databaseClient.sql("SELECT id FROM borrow_records WHERE user_id = :userId AND returned = false " +
+                        "AND due_date < :today LIMIT 1")
+                .bind("userId", userId)
+                .bind("today", today)
+                .map(row -> row.get(0))
+                .first()
+                .hasElement();
+    }
+
+    // *** Users and books ***
+
+    public Mono<Boolean> existsUser(UUID userId) {
+        return databaseClient.sql("SELECT id FROM users WHERE id = :id")
+                .bind("id", userId)
+                .map(row -> row.get(0))
+                .first()
+                .hasElement();
+    }
+
+    public Mono<UUID> findUserIdByEmail(String email) {
+        return databaseClient.sql("SELECT id FROM users WHERE email = :email")
+                .bind("email", email)
+                .map(row -> row.get("id", UUID.class))
+                .one();
+    }
+
+    public Mono<Boolean> findBookAvailability(UUID bookId) {
+        return databaseClient.sql("SELECT available FROM books WHERE id = :id")
+                .bind("id", bookId)
+                .map(row -> row.get("available", Boolean.class))
+                .one();
+    }
+
+    public Mono<Integer> findAvailableCopies(UUID bookId) {
+        return databaseClient.sql("SELECT available_copies FROM books WHERE id = :id")
+                .bind("id", bookId)
+                .map(row -> row.get("available_copies", Integer.class))
+                .one();
+    }
+
+    public Mono<Long> decrementAvailableCopies(UUID bookId) {
+        return databaseClient.sql("UPDATE books SET available_copies = available_copies - 1, " +
+                        "available = CASE WHEN available_copies > 1 THEN true ELSE false END, " + BOOK_VERSION_BUMP +
+                        "WHERE id = :id AND available_copies > 0")
+                .bind("id", bookId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> incrementAvailableCopies(UUID bookId) {
+        return databaseClient.sql("UPDATE books SET available_copies = available_copies + 1, available = true, " +
+                        BOOK_VERSION_BUMP + "WHERE id = :id")
+                .bind("id", bookId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // *** Copies ***
+
+    public Flux<UUID> findCopyIds(UUID bookId, CopyStatus status, int limit) {
+        return databaseClient.sql("SELECT id FROM book_copies WHERE book_id = :bookId AND status = :status LIMIT :limit")
+                .bind("bookId", bookId)
+                .bind("status", status.name())
+                .bind("limit", limit)
+                .map(row -> row.get("id", UUID.class))
+                .all();
+    }
+
+    public Mono<Long> compareAndSetCopyStatus(UUID copyId, CopyStatus expected, CopyStatus next) {
+        return databaseClient.sql("UPDATE book_copies SET status = :next WHERE id = :id AND status = :expected")
+                .bind("id", copyId)
+                .bind("expected", expected.name())
+                .bind("next", next.name())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // *** Reservations ***
+
+    public Mono<UUID> findReadyHold(UUID bookId, UUID userId, LocalDateTime now) {
+        return databaseClient.sql("SELECT id FROM reservations WHERE book_id = :bookId AND user_id = :userId " +
+                        "AND status = :status AND (ready_until IS NULL OR ready_until >= :now) LIMIT 1")
+                .bind("bookId", bookId)
+                .bind("userId", userId)
+                .bind("status", ReservationStatus.READY.name())
+                .bind("now", now)
+                .map(row -> row.get("id", UUID.class))
+                .first();
+    }
+
+    public Mono<QueueEntry> findQueueHead(UUID bookId) {
+        return databaseClient.sql("SELECT id, user_id FROM reservations WHERE book_id = :bookId AND status = :status " +
+                        "ORDER BY created_at LIMIT 1")
+                .bind("bookId", bookId)
+                .bind("status", ReservationStatus.WAITING.name())
+                .map(row -> new QueueEntry(row.get("id", UUID.class), row.get("user_id", UUID.class)))
+                .first();
+    }
+
+    public Mono<Long> promoteToReady(UUID reservationId, LocalDateTime readyUntil) {
+        return databaseClient.sql("UPDATE reservations SET status = :next, ready_until = :readyUntil " +
+                        "WHERE id = :id AND status = :expected")
+                .bind("id", reservationId)
+                .bind("expected", ReservationStatus.WAITING.name())
+                .bind("next", ReservationStatus.READY.name())
+                .bind("readyUntil", readyUntil)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> compareAndSetReservationStatus(UUID reservationId, ReservationStatus expected, ReservationStatus next) {
+        return databaseClient.sql("UPDATE reservations SET status = :next WHERE id = :id AND status = :expected")
+                .bind("id", reservationId)
+                .bind("expected", expected.name())
+                .bind("next", next.name())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Same shape as BorrowRecordMapper#toResponseDto, read straight from the joined row
+    private static BorrowRecordResponseDto toResponseDto(Readable row) {
+        return BorrowRecordResponseDto.builder()
+                .id(row.get("id", UUID.class))
+                .userId(row.get("user_id", UUID.class))
+                .bookId(row.get("book_id", UUID.class))
+                .userName(row.get("user_name", String.class))
+                .bookTitle(row.get("book_title", String.class))
+                .borrowDate(row.get("borrow_date", LocalDate.class))
+                .dueDate(row.get("due_date", LocalDate.class))
+                .returnDate(row.get("return_date", LocalDate.class))
+                .returned(Boolean.TRUE.equals(row.get("returned", Boolean.class)))
+                .build();
+    }
+}
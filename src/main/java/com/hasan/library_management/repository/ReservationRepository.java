@@ -0,0 +1,49 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.Reservation;
+import com.hasan.library_management.entity.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
+
+    // Head of the FIFO queue for a book
+    Optional<Reservation> findFirstByBookIdAndStatusOrderByCreatedAtAsc(UUID bookId, ReservationStatus status);
+
+    // Whole queue of a book in FIFO order
+    List<Reservation> findByBookIdAndStatusOrderByCreatedAtAsc(UUID bookId, ReservationStatus status);
+
+    Optional<Reservation> findFirstByBookIdAndUserIdAndStatus(UUID bookId, UUID userId, ReservationStatus status);
+
+    boolean existsByBookIdAndUserIdAndStatusIn(UUID bookId, UUID userId, Collection<ReservationStatus> statuses);
+
+    List<Reservation> findByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    // Holds whose pickup window has passed
+    List<Reservation> findByStatusAndReadyUntilBefore(ReservationStatus status, LocalDateTime now);
+
+    // Number of reservations ahead of a given one in the queue
+    long countByBookIdAndStatusAndCreatedAtBefore(UUID bookId, ReservationStatus status, LocalDateTime createdAt);
+
+    // Compare-and-set handoff: only succeeds if the reservation is still waiting
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = com.hasan.library_management.entity.ReservationStatus.READY, " +
+            "r.readyUntil = :readyUntil " +
+            "WHERE r.id = :id AND r.status = com.hasan.library_management.entity.ReservationStatus.WAITING")
+    int promoteToReady(@Param("id") UUID id, @Param("readyUntil") LocalDateTime readyUntil);
+
+    // Compare-and-set status transition, returns 0 when another request changed the status first
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :next WHERE r.id = :id AND r.status = :expected")
+    int compareAndSetStatus(@Param("id") UUID id,
+                            @Param("expected") ReservationStatus expected,
+                            @Param("next") ReservationStatus next);
+}
@@ -0,0 +1,12 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    // Resolves the email through the natural-id cache, then the user through the entity cache. Login and the
+    // borrow and reservation endpoints look the caller up by email, a hit skips the database entirely
+    Optional<User> findByEmail(String email);
+}
@@ -1,11 +1,34 @@
 package com.hasan.library_management.repository;
 
+import com.hasan.library_management.entity.Role;
 import com.hasan.library_management.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
-    Optional<User> findByEmail(String email);
+// findByEmail comes from UserNaturalIdRepository
+public interface UserRepository extends JpaRepository<User, UUID>, UserNaturalIdRepository {
+
+    // Columns of a user response; the password hash and the user's loans are never loaded
+    interface UserSummary {
+        UUID getId();
+        String getName();
+        String getEmail();
+        String getPhoneNumber();
+        Role getRole();
+    }
+
+    @Query("SELECT u.id AS id, u.name AS name, u.email AS email, u.phoneNumber AS phoneNumber, u.role AS role FROM User u")
+    List<UserSummary> findAllSummaries();
+
+    Optional<UserSummary> findSummaryById(UUID id);
+
+    Optional<UserSummary> findSummaryByEmail(String email);
+
+    Optional<EntityVersion> findVersionById(UUID id);
+
+    Optional<EntityVersion> findVersionByEmail(String email);
 }
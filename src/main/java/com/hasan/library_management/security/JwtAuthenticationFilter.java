@@ -1,6 +1,9 @@
 package com.hasan.library_management.security;
 
-import com.hasan.library_management.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,20 +11,22 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,7 +38,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 1. Get Authorization header
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
         final String token;
-        final String userId;
 
         // 2. If header is missing or does not start with "Bearer", skip filter
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -43,28 +47,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // 3. Extract token from header
         token = authHeader.substring(7); // Remove "Bearer "
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "invalid";
         try {
-            // 4. Validate token
-            if (!jwtUtil.validateToken(token)) {
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            // 5. Extract user email and load user details
-            String userEmail = jwtUtil.getEmailFromToken(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-
-            // 6. Set authentication in the security context
-            UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // 4. Validate token once; refresh tokens are only accepted by /auth/refresh
+            Claims claims = jwtUtil.parseClaims(token);
+            if (jwtUtil.isRefreshToken(claims)) {
+                outcome = "invalid";
+            } else if (tokenRevocationList.isRevoked(claims)) {
+                // 5. Deleted users and logged-out tokens are rejected from memory, without a user lookup
+                outcome = "revoked";
+            } else {
+                // 6. Set authentication in the security context from the signed claims
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        claims.getSubject(), null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + claims.get("role", String.class))));
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-            SecurityContextHolder.getContext().setAuthentication(authToken);
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                outcome = "authenticated";
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            outcome = "invalid";
         } catch (Exception e) {
-
+            outcome = "error";
             logger.warn("JWT processing failed", e);
+        } finally {
+            // Time spent on token validation and the revocation check, the per-request cost of stateless auth
+            sample.stop(meterRegistry.timer("library.jwt.authentication", "outcome", outcome));
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
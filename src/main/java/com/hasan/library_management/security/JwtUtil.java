@@ -1,5 +1,6 @@
 package com.hasan.library_management.security;
 
+import com.hasan.library_management.util.UuidV7;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,36 +8,73 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long expirationMs;
 
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
     private Key getSigningKey() {
         return Keys.hmacShaKeyFor(secretKey.getBytes());
     }
 
     public String generateToken(String email, String role) {
+        return buildToken(email, role, TYPE_ACCESS, expirationMs);
+    }
+
+    public String generateRefreshToken(String email, String role) {
+        return buildToken(email, role, TYPE_REFRESH, refreshExpirationMs);
+    }
+
+    // Every token carries a UUIDv7 jti, so it can be revoked individually and its issue time read back in ms
+    private String buildToken(String email, String role, String type, long validityMs) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UuidV7.randomUuid().toString())
                 .setSubject(email)
                 .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
+                .claim("type", type)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + validityMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies signature and expiry and returns the claims.
+     * Throws JwtException (or IllegalArgumentException for an empty token) when the token is not valid.
+     **/
+    public Claims parseClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    // Tokens issued before refresh tokens existed have no type and are access tokens
+    public boolean isRefreshToken(Claims claims) {
+        return TYPE_REFRESH.equals(claims.get("type", String.class));
+    }
+
+    public UUID getTokenId(Claims claims) {
+        return claims.getId() == null ? null : UUID.fromString(claims.getId());
+    }
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (JwtException e) {
             return false;
@@ -44,21 +82,11 @@ public class JwtUtil {
     }
 
     public String getEmailFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     @SuppressWarnings("unused")
     public String getRoleFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role", String.class);
+        return parseClaims(token).get("role", String.class);
     }
 }
@@ -0,0 +1,171 @@
+package com.hasan.library_management.security;
+
+import com.hasan.library_management.exceptions.ApiException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts login attempts per email and per client IP in a fixed window. Once either limit is reached,
+ * further attempts are rejected with 429 before any password is hashed.
+ * An attempt is counted when it starts and handed back if it succeeds, so concurrent guesses cannot all pass
+ * the check before the first failure lands. Windows are split over lock stripes holding at most
+ * maxTrackedKeys / stripes entries each, dropping the least recently used beyond that, like TokenBucketTable.
+ **/
+@Component
+@Slf4j
+public class LoginAttemptThrottle {
+
+    private static final int STRIPES = 64;
+
+    private static final String EMAIL_KEY = "email:";
+    private static final String IP_KEY = "ip:";
+
+    @Value("${auth.throttle.window-minutes:15}")
+    private long windowMinutes;
+
+    @Value("${auth.throttle.max-failures-per-email:5}")
+    private int maxFailuresPerEmail;
+
+    @Value("${auth.throttle.max-failures-per-ip:50}")
+    private int maxFailuresPerIp;
+
+    @Value("${auth.throttle.max-tracked-keys:100000}")
+    private int maxTrackedKeys;
+
+    private Stripe[] stripes;
+
+    // Guarded by the lock of its stripe
+    private static final class Window {
+        private final long startedAt;
+        private int attempts;
+
+        private Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private static final class Stripe {
+        private final LinkedHashMap<String, Window> windows;
+
+        private Stripe(int maxWindows) {
+            this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                    return size() > maxWindows;
+                }
+            };
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        stripes = new Stripe[STRIPES];
+        int perStripe = Math.max(1, maxTrackedKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    // Counts the attempt against both windows, or throws 429 without counting it when either is full
+    public void checkAllowed(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        String emailKey = emailKey(email);
+        String ipKey = ipKey(clientIp);
+
+        boolean allowed = tryAcquire(emailKey, maxFailuresPerEmail, now);
+        if (allowed && !tryAcquire(ipKey, maxFailuresPerIp, now)) {
+            release(emailKey);
+            allowed = false;
+        }
+        if (!allowed) {
+            log.warn("Login throttled for email {} from {}", email, clientIp);
+            throw new ApiException("Too many failed login attempts, please try again later", HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    // A successful login clears the email window and hands back its IP attempt; failed ones elsewhere stay counted
+    public void recordSuccess(String email, String clientIp) {
+        String emailKey = emailKey(email);
+        Stripe stripe = stripeOf(emailKey);
+        synchronized (stripe) {
+            stripe.windows.remove(emailKey);
+        }
+        release(ipKey(clientIp));
+    }
+
+    // For attempts that ended without a verdict on the password, e.g. a rejected hashing task
+    public void recordAborted(String email, String clientIp) {
+        release(emailKey(email));
+        release(ipKey(clientIp));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.throttle.cleanup-interval-ms:60000}")
+    public void evictExpiredWindows() {
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.windows.values().removeIf(window -> isExpired(window, now));
+            }
+        }
+    }
+
+    public int getTrackedKeyCount() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.windows.size();
+            }
+        }
+        return size;
+    }
+
+    private boolean tryAcquire(String key, int limit, long now) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Window window = stripe.windows.compute(key,
+                    (k, current) -> current == null || isExpired(current, now) ? new Window(now) : current);
+            if (window.attempts >= limit) {
+                return false;
+            }
+            window.attempts++;
+            return true;
+        }
+    }
+
+    private void release(String key) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.windows.computeIfPresent(key, (k, window) -> {
+                window.attempts--;
+                return window.attempts > 0 ? window : null;
+            });
+        }
+    }
+
+    private boolean isExpired(Window window, long now) {
+        return now - window.startedAt >= TimeUnit.MINUTES.toMillis(windowMinutes);
+    }
+
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private String emailKey(String email) {
+        return EMAIL_KEY + (email == null ? "" : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private String ipKey(String clientIp) {
+        return IP_KEY + (clientIp == null ? "unknown" : clientIp);
+    }
+}
@@ -0,0 +1,162 @@
+package com.hasan.library_management.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token bucket limits on the expensive routes. Runs right after JwtAuthenticationFilter, so
+ * authenticated clients are limited by email and anonymous ones by IP. Requests over the limit get 429
+ * with Retry-After before reaching the database.
+ **/
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int STRIPES = 64;
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    private TokenBucketTable buckets;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Upper bound on tracked clients; the least recently seen are dropped beyond it
+    @Value("${rate-limit.max-clients:100000}")
+    private int maxClients;
+
+    // LIKE scans on title/author/isbn/genre
+    @Value("${rate-limit.search.capacity:60}")
+    private long searchCapacity;
+
+    @Value("${rate-limit.search.refill-per-second:20}")
+    private double searchRefillPerSecond;
+
+    // Borrowing locks copies and runs several queries
+    @Value("${rate-limit.borrow.capacity:10}")
+    private long borrowCapacity;
+
+    @Value("${rate-limit.borrow.refill-per-second:0.5}")
+    private double borrowRefillPerSecond;
+
+    private record RouteGroup(String name, HttpMethod method, List<String> paths, boolean prefix,
+                              long capacity, double refillPerSecond) {
+
+        private boolean matches(String method, String path) {
+            if (!this.method.matches(method)) {
+                return false;
+            }
+            return paths.stream().anyMatch(p -> prefix ? path.startsWith(p) : path.equals(p));
+        }
+    }
+
+    private List<RouteGroup> groups;
+
+    @PostConstruct
+    public void init() {
+        buckets = new TokenBucketTable(STRIPES, maxClients);
+        groups = List.of(
+                new RouteGroup("search", HttpMethod.GET, List.of("/books/search"), true,
+                        searchCapacity, searchRefillPerSecond),
+                new RouteGroup("borrow", HttpMethod.POST, List.of("/borrow-records", "/reactive/borrow-records"), false,
+                        borrowCapacity, borrowRefillPerSecond)
+        );
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RouteGroup group = groupOf(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = buckets.tryConsume(group.name() + ":" + clientKey(request),
+                group.capacity(), group.refillPerSecond(), System.nanoTime());
+
+        if (waitNanos == 0) {
+            meterRegistry.counter("library.ratelimit.requests", "group", group.name(), "outcome", "allowed").increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        meterRegistry.counter("library.ratelimit.requests", "group", group.name(), "outcome", "rejected").increment();
+        log.debug("Rate limit exceeded on {} for {}", group.name(), clientKey(request));
+        reject(response, waitNanos);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleClients() {
+        int evicted = buckets.evictIdle(System.nanoTime());
+        log.debug("Evicted {} idle rate limit buckets, {} remaining", evicted, buckets.size());
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    private RouteGroup groupOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RouteGroup group : groups) {
+            if (group.matches(request.getMethod(), path)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Same body as GlobalExceptionHandler, which a filter cannot reach
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "timestamp", LocalDateTime.now(),
+                "status", HttpStatus.TOO_MANY_REQUESTS.value(),
+                "errors", List.of(Map.of("field", "internal", "message", "Too many requests, please slow down"))
+        ));
+    }
+}
@@ -0,0 +1,116 @@
+package com.hasan.library_management.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets keyed by client, split over lock stripes so concurrent requests of different clients rarely
+ * contend. Each stripe holds at most maxBuckets / stripes entries and drops its least recently used bucket
+ * beyond that, which bounds memory regardless of how many clients show up.
+ **/
+public final class TokenBucketTable {
+
+    private static final class Bucket {
+        private final long capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(long capacity, double refillPerSecond, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerNano);
+            updatedAt = now;
+        }
+
+        // A bucket that has refilled completely behaves exactly like a new one, so it can be dropped
+        private boolean isFull(long now) {
+            return tokens + (now - updatedAt) * tokensPerNano >= capacity;
+        }
+    }
+
+    private static final class Stripe {
+        private final LinkedHashMap<String, Bucket> buckets;
+
+        private Stripe(int maxBuckets) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxBuckets;
+                }
+            };
+        }
+    }
+
+    private final Stripe[] stripes;
+
+    public TokenBucketTable(int stripeCount, int maxBuckets) {
+        this.stripes = new Stripe[stripeCount];
+        int perStripe = Math.max(1, maxBuckets / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Takes one token from the bucket of the given key, creating a full one on first use.
+     * Returns 0 when the token was taken, otherwise the nanoseconds until the next token is available.
+     **/
+    public long tryConsume(String key, long capacity, double refillPerSecond, long now) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, refillPerSecond, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.refill(now);
+            }
+
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / bucket.tokensPerNano);
+        }
+    }
+
+    // Removes buckets that have refilled since their last use; returns how many were removed
+    public int evictIdle(long now) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Bucket> iterator = stripe.buckets.values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().isFull(now)) {
+                        iterator.remove();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+}
@@ -0,0 +1,167 @@
+package com.hasan.library_management.security;
+
+import com.hasan.library_management.entity.RevokedToken;
+import com.hasan.library_management.repository.RevokedTokenRepository;
+import com.hasan.library_management.util.BloomFilter;
+import com.hasan.library_management.util.UuidV7;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the revoked tokens, checked on every authenticated request without a database query.
+ * A Bloom filter answers the common "not revoked" case; its rare positives are confirmed against the exact jti set.
+ * Revoking a subject (deleted or changed user) invalidates every token issued to it up to that moment.
+ * Revocations are written to revoked_tokens and each node polls that table, so all nodes converge within one sync interval.
+ **/
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationList {
+
+    // Rows are re-read for this long after the last sync, so revocations committed late are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    // jti -> expiry in epoch millis; the entry is useless once the token has expired on its own
+    private final ConcurrentHashMap<UUID, Long> revokedIds = new ConcurrentHashMap<>();
+
+    // Subject -> revocation time in epoch millis; tokens issued up to then are rejected
+    private final ConcurrentHashMap<String, Long> revokedSubjects = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    // Longest token lifetime, after which a subject revocation no longer matters
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    @PostConstruct
+    public void init() {
+        filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        sync();
+    }
+
+    public boolean isRevoked(Claims claims) {
+        UUID jti = claims.getId() == null ? null : UUID.fromString(claims.getId());
+        if (jti != null && filter.mightContain(jti) && revokedIds.containsKey(jti)) {
+            return true;
+        }
+
+        Long subjectRevokedAt = revokedSubjects.get(subjectKey(claims.getSubject()));
+        if (subjectRevokedAt == null) {
+            return false;
+        }
+        // The UUIDv7 jti gives the issue time in ms; tokens without one fall back to the second-precision iat
+        long issuedAt = jti != null ? UuidV7.timestampOf(jti) : claims.getIssuedAt().getTime();
+        return issuedAt <= subjectRevokedAt;
+    }
+
+    /**
+     * Revokes a single token. Returns false when it was already revoked, which for a refresh token
+     * means it is being replayed; the unique jti column makes this hold across nodes.
+     **/
+    public boolean revokeToken(UUID jti, String subject, Instant expiresAt) {
+        if (revokedIds.containsKey(jti)) {
+            return false;
+        }
+
+        try {
+            revokedTokenRepository.saveAndFlush(RevokedToken.builder()
+                    .jti(jti)
+                    .subject(subject)
+                    .revokedAt(Instant.now())
+                    .expiresAt(expiresAt)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            rememberToken(jti, expiresAt.toEpochMilli());
+            return false;
+        }
+
+        rememberToken(jti, expiresAt.toEpochMilli());
+        return true;
+    }
+
+    public void revokeSubject(String subject) {
+        Instant now = Instant.now();
+        revokedTokenRepository.save(RevokedToken.builder()
+                .subject(subject)
+                .revokedAt(now)
+                .expiresAt(now.plusMillis(refreshExpirationMs))
+                .build());
+
+        rememberSubject(subject, now.toEpochMilli());
+        log.info("Revoked all tokens of {}", subject);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        Instant now = Instant.now();
+        List<RevokedToken> revoked = revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(lastSync.minus(SYNC_OVERLAP), now);
+
+        for (RevokedToken token : revoked) {
+            if (token.getJti() != null) {
+                rememberToken(token.getJti(), token.getExpiresAt().toEpochMilli());
+            } else {
+                rememberSubject(token.getSubject(), token.getRevokedAt().toEpochMilli());
+            }
+        }
+        lastSync = now;
+    }
+
+    /**
+     * Drops expired entries and rebuilds the Bloom filter, which cannot remove ids on its own.
+     **/
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedIds.values().removeIf(expiresAt -> expiresAt < now);
+        revokedSubjects.values().removeIf(revokedAt -> revokedAt + refreshExpirationMs < now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revokedIds.size()), falsePositiveRate);
+        revokedIds.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        // Ids added while rebuilding may have gone into the old filter only; they are already in the map, so re-add them
+        revokedIds.keySet().forEach(rebuilt::put);
+
+        int deleted = revokedTokenRepository.deleteExpired(Instant.ofEpochMilli(now));
+        log.debug("Purged revocation list, {} ids kept, {} rows deleted", revokedIds.size(), deleted);
+    }
+
+    public int size() {
+        return revokedIds.size() + revokedSubjects.size();
+    }
+
+    // The map entry is written before the filter bit, so a concurrent rebuild always sees it
+    private void rememberToken(UUID jti, long expiresAt) {
+        revokedIds.put(jti, expiresAt);
+        filter.put(jti);
+    }
+
+    private void rememberSubject(String subject, long revokedAt) {
+        revokedSubjects.merge(subjectKey(subject), revokedAt, Math::max);
+    }
+
+    private String subjectKey(String subject) {
+        return subject == null ? "" : subject.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,10 +1,13 @@
 package com.hasan.library_management.service;
 
 import com.hasan.library_management.dto.request.AuthRequest;
+import com.hasan.library_management.dto.request.RefreshTokenRequest;
 import com.hasan.library_management.dto.request.RegisterRequest;
 import com.hasan.library_management.dto.response.AuthResponse;
 
 public interface AuthService {
     AuthResponse register(RegisterRequest request);
-    AuthResponse login(AuthRequest request);
-}
\ No newline at end of file
+    AuthResponse login(AuthRequest request, String clientIp);
+    AuthResponse refresh(RefreshTokenRequest request);
+    void logout(RefreshTokenRequest request, String accessToken);
+}
@@ -4,20 +4,80 @@ package com.hasan.library_management.service;
 import com.hasan.library_management.dto.response.BookAvailabilityEvent;
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
 @Hidden
 @Service
+@Slf4j
 public class BookAvailabilityService {
 
     private final Sinks.Many<BookAvailabilityEvent> sink = Sinks.many().multicast().onBackpressureBuffer();
 
+    // Open stream subscriptions, exported as a gauge
+    private final AtomicInteger subscribers = new AtomicInteger();
+
     @Getter
-    private final Flux<BookAvailabilityEvent> stream = sink.asFlux();
+    private final Flux<BookAvailabilityEvent> stream = sink.asFlux()
+            .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+            .doFinally(signal -> subscribers.decrementAndGet());
+
+    // Internal listeners such as the search index, kept off the client stream
+    private final List<Consumer<BookAvailabilityEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(Consumer<BookAvailabilityEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<BookAvailabilityEvent> listener) {
+        listeners.remove(listener);
+    }
 
     public void publishAvailabilityChange(String bookId, boolean available) {
-        sink.tryEmitNext(new BookAvailabilityEvent(bookId, available));
+        publish(new BookAvailabilityEvent(bookId, available));
+    }
+
+    // The book stays unavailable to everyone else while it is held for the given user
+    public void publishHandoff(String bookId, String userId) {
+        publish(new BookAvailabilityEvent(bookId, false, userId));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    // Inside a transaction the event waits for the commit, a rolled back borrow or return must not be announced
+    private void publish(BookAvailabilityEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(event);
+                }
+            });
+        } else {
+            deliver(event);
+        }
+    }
+
+    private void deliver(BookAvailabilityEvent event) {
+        for (Consumer<BookAvailabilityEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                // A failing listener must not fail the borrow or return that published the event
+                log.warn("Availability listener failed for book {}", event.getBookId(), e);
+            }
+        }
+        sink.tryEmitNext(event);
     }
-}
\ No newline at end of file
+}
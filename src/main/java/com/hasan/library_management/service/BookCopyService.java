@@ -0,0 +1,25 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.BookCopy;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BookCopyService {
+
+    // Builds copies for a new or existing title, persisted by cascading from the book
+    List<BookCopy> newCopies(Book book, int firstCopyNumber, int count);
+    void addCopies(UUID bookId, int count);
+
+    Optional<BookCopy> claimFreeCopy(UUID bookId);
+    void decrementAvailableCopies(UUID bookId);
+    Optional<BookCopy> claimHeldCopy(UUID bookId);
+    void returnCopy(UUID bookId, BookCopy copy);
+    void holdCopy(BookCopy copy);
+    void releaseHeldCopy(UUID bookId);
+    boolean hasAvailableCopies(UUID bookId);
+
+    void backfillMissingCopies();
+}
@@ -0,0 +1,9 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.dto.request.BookImportFormat;
+import com.hasan.library_management.dto.response.BookImportResultDto;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface BookImportService {
+    BookImportResultDto importBooks(MultipartFile file, BookImportFormat format);
+}
@@ -1,9 +1,16 @@
 package com.hasan.library_management.service;
 
 import com.hasan.library_management.dto.request.BookRequestDto;
+import com.hasan.library_management.dto.request.BookSearchCriteria;
+import com.hasan.library_management.dto.request.SearchTotal;
 import com.hasan.library_management.dto.response.BookResponseDto;
+import com.hasan.library_management.dto.response.BookSearchPageDto;
+import com.hasan.library_management.dto.response.BookSuggestionDto;
+import com.hasan.library_management.dto.response.FacetedSearchResultDto;
+import com.hasan.library_management.util.ResourceVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.UUID;
@@ -11,12 +18,20 @@ import java.util.UUID;
 public interface BookService {
     List<BookResponseDto> getAllBooks();
     BookResponseDto getBookById(UUID id);
+    ResourceVersion getBookVersion(UUID id);
     BookResponseDto createBook(BookRequestDto bookRequestDto);
     BookResponseDto updateBook(UUID id, BookRequestDto bookRequestDto);
     void deleteBook(UUID id);
+    BookResponseDto addCopies(UUID id, int count);
 
-    Page<BookResponseDto> searchByTitle(String title, Pageable pageable);
-    Page<BookResponseDto> searchByAuthor(String author, Pageable pageable);
-    Page<BookResponseDto> searchByIsbn(String isbn, Pageable pageable);
-    Page<BookResponseDto> searchByGenre(String genre, Pageable pageable);
+    List<BookSuggestionDto> suggest(String prefix, int limit);
+
+    BookSearchPageDto search(BookSearchCriteria criteria, String sort, String direction, String cursor, int size);
+    Slice<BookResponseDto> searchByTitle(String title, Pageable pageable, SearchTotal total);
+    Slice<BookResponseDto> searchByAuthor(String author, Pageable pageable, SearchTotal total);
+    Slice<BookResponseDto> searchByIsbn(String isbn, Pageable pageable, SearchTotal total);
+    Slice<BookResponseDto> searchByGenre(String genre, Pageable pageable, SearchTotal total);
+    Page<BookResponseDto> searchFuzzy(String query, Pageable pageable);
+    FacetedSearchResultDto searchFaceted(String query, List<String> genres, List<String> authors,
+                                         List<String> decades, Boolean available, Pageable pageable);
 }
\ No newline at end of file
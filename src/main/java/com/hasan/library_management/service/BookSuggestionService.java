@@ -0,0 +1,168 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.dto.response.BookSuggestionDto;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.util.PrefixTrie;
+import com.hasan.library_management.util.RebuildableIndex;
+import com.hasan.library_management.util.TextNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Autocomplete over book titles and author names, served from an in-memory prefix trie instead of a LIKE query
+ * per keystroke. Every word of a title or name is a starting point, so "river" finds "The Silent River".
+ * Suggestions are ranked by borrow count (an author by the total of their books).
+ * Book changes made through BookService or the bulk import are applied right away; a periodic rebuild picks up
+ * borrow counts and books written by other paths.
+ **/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookSuggestionService {
+
+    public static final int MAX_LIMIT = 20;
+
+    private static final String TITLE = "TITLE";
+    private static final String AUTHOR = "AUTHOR";
+
+    private final BookRepository bookRepository;
+
+    private final RebuildableIndex<Index> index = new RebuildableIndex<>(new Index());
+
+    private static final class Suggestion {
+        private final String type;
+        private final String text;
+        private final UUID bookId;
+        private String authorKey;
+        private long borrowCount;
+        private int books;
+
+        private Suggestion(String type, String text, UUID bookId) {
+            this.type = type;
+            this.text = text;
+            this.bookId = bookId;
+        }
+    }
+
+    private static final class Index {
+        private final PrefixTrie<Suggestion> trie = new PrefixTrie<>();
+        private final Map<UUID, Suggestion> titles = new HashMap<>();
+        private final Map<String, Suggestion> authors = new HashMap<>();
+
+        private void addBook(UUID id, String title, String author, long borrowCount) {
+            Suggestion titleSuggestion = new Suggestion(TITLE, title.trim(), id);
+            titleSuggestion.borrowCount = borrowCount;
+            titleSuggestion.authorKey = TextNormalizer.normalize(author);
+            titles.put(id, titleSuggestion);
+            putAll(titleSuggestion);
+
+            if (!titleSuggestion.authorKey.isEmpty()) {
+                Suggestion authorSuggestion = authors.computeIfAbsent(titleSuggestion.authorKey,
+                        key -> new Suggestion(AUTHOR, author.trim(), null));
+                authorSuggestion.books++;
+                authorSuggestion.borrowCount += borrowCount;
+                putAll(authorSuggestion);
+            }
+        }
+
+        // Returns the borrow count the book had, so an update can carry it over
+        private long removeBook(UUID id) {
+            Suggestion titleSuggestion = titles.remove(id);
+            if (titleSuggestion == null) {
+                return 0;
+            }
+            removeAll(titleSuggestion);
+
+            Suggestion authorSuggestion = authors.get(titleSuggestion.authorKey);
+            if (authorSuggestion != null) {
+                authorSuggestion.books--;
+                authorSuggestion.borrowCount -= titleSuggestion.borrowCount;
+                if (authorSuggestion.books == 0) {
+                    authors.remove(titleSuggestion.authorKey);
+                    removeAll(authorSuggestion);
+                } else {
+                    putAll(authorSuggestion);
+                }
+            }
+            return titleSuggestion.borrowCount;
+        }
+
+        private void putAll(Suggestion suggestion) {
+            for (String key : wordStarts(TextNormalizer.normalize(suggestion.text))) {
+                trie.put(key, suggestion, suggestion.borrowCount);
+            }
+        }
+
+        private void removeAll(Suggestion suggestion) {
+            for (String key : wordStarts(TextNormalizer.normalize(suggestion.text))) {
+                trie.remove(key, suggestion);
+            }
+        }
+    }
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        String key = TextNormalizer.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        return index.read(current -> {
+            List<BookSuggestionDto> suggestions = new ArrayList<>();
+            for (Suggestion suggestion : current.trie.top(key, Math.max(1, Math.min(limit, MAX_LIMIT)))) {
+                suggestions.add(new BookSuggestionDto(suggestion.type, suggestion.text, suggestion.bookId, suggestion.borrowCount));
+            }
+            return suggestions;
+        });
+    }
+
+    public void bookSaved(Book book) {
+        UUID id = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        index.apply(current -> current.addBook(id, title, author, current.removeBook(id)));
+    }
+
+    public void bookDeleted(UUID id) {
+        index.apply(current -> current.removeBook(id));
+    }
+
+    // Builds a fresh index from the database and swaps it in, see RebuildableIndex
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${suggest.rebuild-interval-ms:3600000}", initialDelayString = "${suggest.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Index rebuilt = index.rebuild(() -> {
+            Index fresh = new Index();
+            for (BookRepository.BookPopularity book : bookRepository.findBookPopularity()) {
+                fresh.addBook(book.getId(), book.getTitle(), book.getAuthor(), book.getBorrowCount());
+            }
+            return fresh;
+        });
+        log.info("Suggestion index rebuilt with {} titles and {} authors in {} ms",
+                rebuilt.titles.size(), rebuilt.authors.size(), System.currentTimeMillis() - started);
+    }
+
+    // "the silent river" -> "the silent river", "silent river", "river"
+    private static List<String> wordStarts(String normalized) {
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+}
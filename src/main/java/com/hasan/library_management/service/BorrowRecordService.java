@@ -15,4 +15,5 @@ public interface BorrowRecordService {
     List<BorrowRecordResponseDto> getOwnBorrowRecords(String emailFromToken);
     List<BorrowRecordResponseDto> getOverdueRecords();
     String generateOverdueReport();
+    void archiveReturnedRecords();
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.util.ResourceVersion;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version of the whole book catalog, read in O(1) by the list and first search page ETags.
+ * Book mutations bump it after their commit and availability events (borrow, return, hand-off) bump it as they are
+ * delivered. Writers that go around the services, and other nodes, are picked up by a periodic scan of the books
+ * table, so all nodes converge within one sync interval.
+ * The ETag starts with the boot time, a restarted node never reuses a tag served for different content.
+ **/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final BookRepository bookRepository;
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final AtomicReference<State> state = new AtomicReference<>(new State(0, Instant.now()));
+
+    // Aggregate seen by the last sync; local changes show up here as well and cost one redundant bump
+    private volatile Observed lastObserved;
+
+    private record State(long counter, Instant lastModified) {
+    }
+
+    private record Observed(long count, long versionSum, Instant updatedAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        // Events are delivered after the commit, so the version can move right away
+        bookAvailabilityService.addListener(event -> advance());
+        sync();
+    }
+
+    public ResourceVersion current() {
+        State current = state.get();
+        return new ResourceVersion("books-" + epoch + "-" + current.counter(), current.lastModified());
+    }
+
+    // Inside a transaction the bump waits for the commit, a rolled back change must not invalidate clients
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance();
+                }
+            });
+        } else {
+            advance();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.sync-interval-ms:10000}")
+    public void sync() {
+        BookRepository.CatalogState catalog = bookRepository.findCatalogState();
+        Observed observed = new Observed(catalog.getCount(),
+                catalog.getVersionSum() == null ? 0 : catalog.getVersionSum(), catalog.getUpdatedAt());
+        if (lastObserved != null && !Objects.equals(lastObserved, observed)) {
+            log.debug("Catalog changed outside this node, bumping its version");
+            advance();
+        }
+        lastObserved = observed;
+    }
+
+    private void advance() {
+        state.updateAndGet(current -> new State(current.counter() + 1, Instant.now()));
+    }
+}
@@ -0,0 +1,172 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.dto.response.BookAvailabilityEvent;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.util.FacetIndex;
+import com.hasan.library_management.util.FuzzyIndex;
+import com.hasan.library_management.util.RebuildableIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Typo-tolerant search over title, author and genre ("Tolkein", "Hunger Game"), kept in memory and ranked
+ * with BM25; title matches weigh most. Next to the text index it keeps genre, author, decade and availability
+ * facets as bitsets, so filtered results and their facet counts come from one pass without SQL.
+ * Book changes made through BookService or the bulk import and availability events are applied right away;
+ * a periodic rebuild picks up anything written by other paths.
+ **/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FuzzyBookSearchService {
+
+    public static final String GENRE = "genre";
+    public static final String DECADE = "decade";
+    public static final String AVAILABLE = "available";
+    public static final String AUTHOR = "author";
+
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final double AUTHOR_WEIGHT = 2.0;
+    private static final double GENRE_WEIGHT = 1.0;
+
+    // Per facet; genres and decades stay well below it, authors are cut to the most frequent
+    private static final int MAX_FACET_VALUES = 20;
+
+    private final BookRepository bookRepository;
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final RebuildableIndex<Index> index = new RebuildableIndex<>(new Index());
+
+    private final Consumer<BookAvailabilityEvent> availabilityListener = this::availabilityChanged;
+
+    private static final class Index {
+        private final FuzzyIndex<UUID> text = new FuzzyIndex<>(TITLE_WEIGHT, AUTHOR_WEIGHT, GENRE_WEIGHT);
+        private final FacetIndex<UUID> facets = new FacetIndex<>(GENRE, DECADE, AVAILABLE, AUTHOR);
+
+        private void put(UUID id, String title, String author, String genre, LocalDate publicationDate, boolean available) {
+            text.put(id, title, author, genre);
+            facets.put(id, genre, decadeOf(publicationDate), String.valueOf(available), author);
+        }
+
+        private void remove(UUID id) {
+            text.remove(id);
+            facets.remove(id);
+        }
+    }
+
+    // Ids of one page of matching books with the number of matches and the facet counts around them
+    public record FacetedResult(int total, List<UUID> ids, Map<String, List<FacetIndex.Count>> facets) {
+    }
+
+    private record Ranked(UUID id, double score) {
+    }
+
+    @PostConstruct
+    public void init() {
+        bookAvailabilityService.addListener(availabilityListener);
+    }
+
+    @PreDestroy
+    public void close() {
+        bookAvailabilityService.removeListener(availabilityListener);
+    }
+
+    // Ids of the best matches up to limit, best first, with the total number of matching books
+    public FuzzyIndex.Result<UUID> search(String query, int limit) {
+        return index.read(current -> current.text.search(query, limit));
+    }
+
+    /**
+     * Books matching the optional query and the selected facet values (any value within a facet, every facet),
+     * best first with a query and oldest first without. Each facet is counted with the other facets' filters
+     * applied but not its own, so selecting one genre still shows how many books the other genres have.
+     **/
+    public FacetedResult searchFaceted(String query, Map<String, ? extends Collection<String>> filters, int offset, int limit) {
+        return index.read(current -> {
+            Map<UUID, Double> scores = query == null || query.isBlank() ? null : current.text.scores(query);
+            BitSet base = scores == null ? current.facets.all() : current.facets.ordinalsOf(scores.keySet());
+            BitSet matches = current.facets.filter(base, filters);
+
+            // Scores descending, ties and unranked listings by id, which follows creation order
+            Comparator<Ranked> order = Comparator.comparingDouble(Ranked::score).reversed().thenComparing(Ranked::id);
+            PriorityQueue<Ranked> top = new PriorityQueue<>(order.reversed());
+            int wanted = offset + limit;
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0 && wanted > 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                UUID id = current.facets.key(ordinal);
+                top.add(new Ranked(id, scores == null ? 0 : scores.get(id)));
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+
+            List<Ranked> ranked = new ArrayList<>(top);
+            ranked.sort(order);
+            List<UUID> ids = ranked.stream().skip(offset).map(Ranked::id).toList();
+
+            return new FacetedResult(matches.cardinality(), ids, current.facets.counts(base, filters, MAX_FACET_VALUES));
+        });
+    }
+
+    public void bookSaved(Book book) {
+        UUID id = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        String genre = book.getGenre();
+        LocalDate publicationDate = book.getPublicationDate();
+        boolean available = book.isAvailable();
+        index.apply(current -> current.put(id, title, author, genre, publicationDate, available));
+    }
+
+    public void bookDeleted(UUID id) {
+        index.apply(current -> current.remove(id));
+    }
+
+    // Builds a fresh index from the database and swaps it in, see RebuildableIndex
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.fuzzy.rebuild-interval-ms:3600000}", initialDelayString = "${search.fuzzy.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Index rebuilt = index.rebuild(() -> {
+            Index fresh = new Index();
+            for (BookRepository.BookText book : bookRepository.findAllBookText()) {
+                fresh.put(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre(),
+                        book.getPublicationDate(), book.isAvailable());
+            }
+            return fresh;
+        });
+        log.info("Search index rebuilt with {} books in {} ms", rebuilt.text.size(), System.currentTimeMillis() - started);
+    }
+
+    private void availabilityChanged(BookAvailabilityEvent event) {
+        try {
+            UUID id = UUID.fromString(event.getBookId());
+            String available = String.valueOf(event.isAvailable());
+            index.apply(current -> current.facets.set(id, AVAILABLE, available));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring availability event for invalid book id: {}", event.getBookId());
+        }
+    }
+
+    // "1960s"
+    private static String decadeOf(LocalDate publicationDate) {
+        return publicationDate == null ? null : (publicationDate.getYear() / 10 * 10) + "s";
+    }
+}
@@ -0,0 +1,18 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
+import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface ReactiveBorrowRecordService {
+
+    Flux<BorrowRecordResponseDto> getAll();
+    Mono<BorrowRecordResponseDto> borrowBook(BorrowRecordRequestDto requestDto);
+    Mono<BorrowRecordResponseDto> returnBook(UUID borrowRecordId);
+    Flux<BorrowRecordResponseDto> getBorrowRecordsByUserId(UUID userId);
+    Flux<BorrowRecordResponseDto> getOwnBorrowRecords(String emailFromToken);
+    Flux<BorrowRecordResponseDto> getOverdueRecords();
+}
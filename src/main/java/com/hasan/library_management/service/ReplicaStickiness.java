@@ -0,0 +1,65 @@
+package com.hasan.library_management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes for replica routing: after a user's borrow or return commits, their read-only transactions
+ * stay on the primary for datasource.replica.sticky-ms, long enough for the replica to replay the change.
+ * Tracked per authenticated user; has no effect unless a replica is configured (see ReadReplicaConfig).
+ **/
+@Component
+public class ReplicaStickiness {
+
+    // Authenticated user name -> time until which their reads go to the primary
+    private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    @Value("${datasource.replica.sticky-ms:5000}")
+    private long stickyMs;
+
+    // Marks the current user once the surrounding transaction commits, right away outside a transaction
+    public void recordWrite() {
+        String user = currentUser();
+        if (user == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stickyUntil.put(user, System.currentTimeMillis() + stickyMs);
+                }
+            });
+        } else {
+            stickyUntil.put(user, System.currentTimeMillis() + stickyMs);
+        }
+    }
+
+    public boolean isSticky() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(user);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.sticky-cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+}
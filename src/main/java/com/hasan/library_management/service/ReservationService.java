@@ -0,0 +1,21 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.dto.response.ReservationResponseDto;
+import com.hasan.library_management.entity.Book;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ReservationService {
+
+    ReservationResponseDto reserveBook(UUID bookId, String emailFromToken);
+    void cancelReservation(UUID reservationId, String emailFromToken);
+    List<ReservationResponseDto> getOwnReservations(String emailFromToken);
+    List<ReservationResponseDto> getQueueForBook(UUID bookId);
+
+    // Used by the borrow/return flow
+    boolean claimHold(UUID bookId, UUID userId);
+    boolean handOffToNextInQueue(Book book);
+
+    void expireStaleHolds();
+}
@@ -0,0 +1,58 @@
+package com.hasan.library_management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Match counts of search terms, kept for a short time so paging through results does not repeat the COUNT
+ * query on every page. Counts may lag behind books added or removed within the time to live.
+ **/
+@Service
+@Slf4j
+public class SearchCountCache {
+
+    @Value("${search.count-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${search.count-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private record Entry(long count, long expiresAtNanos) {
+    }
+
+    // Least recently used terms are dropped first
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Cached count for key, or the result of counter, which runs outside the lock on a miss
+    public long count(String key, LongSupplier counter) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.expiresAtNanos() < 0) {
+                return entry.count();
+            }
+        }
+
+        long count = counter.getAsLong();
+        synchronized (entries) {
+            entries.put(key, new Entry(count, now + ttlMillis * 1_000_000));
+        }
+        return count;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.hasan.library_management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hasan.library_management.util.ResourceVersion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Hot JSON responses kept as bytes, serialised and gzip-compressed once, so repeated requests skip Jackson and the
+ * compressor. Each entry remembers the ETag of the data it was built from; a request that sees a newer ETag (any book
+ * mutation changes the catalog version) rebuilds the entry, so no explicit invalidation is needed.
+ **/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SerializedResponseCache {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${response-cache.max-entries:256}")
+    private int maxEntries;
+
+    // Same threshold as server compression, smaller bodies are not worth a gzip frame
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minCompressSize;
+
+    private record Entry(String eTag, byte[] json, byte[] gzip) {
+    }
+
+    // Least recently used responses are dropped first
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Response for key at version, built from body (outside the lock) when missing or stale
+    public ResponseEntity<byte[]> respond(String key, ResourceVersion version, WebRequest request, Supplier<?> body) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry == null || !entry.eTag().equals(version.eTag())) {
+            entry = serialize(version.eTag(), body.get());
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        }
+
+        ResponseEntity.BodyBuilder response = version.validators()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (entry.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            // A strong ETag must identify the exact bytes, so the compressed variant carries a weak one
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .eTag("W/\"" + version.eTag() + "\"")
+                    .body(entry.gzip());
+        }
+        return response.body(entry.json());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Entry serialize(String eTag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new Entry(eTag, json, json.length >= minCompressSize.toBytes() ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // gzip or * listed without q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].replace(" ", "");
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,6 +3,7 @@ package com.hasan.library_management.service;
 import com.hasan.library_management.dto.request.AdminUserUpdateRequestDto;
 import com.hasan.library_management.dto.request.UserRequestDto;
 import com.hasan.library_management.dto.response.UserResponseDto;
+import com.hasan.library_management.util.ResourceVersion;
 
 import java.util.List;
 import java.util.UUID;
@@ -11,6 +12,8 @@ public interface UserService {
     List<UserResponseDto> getAllUsers();
     UserResponseDto getUserById(UUID id);
     UserResponseDto getOwnUserDetails(String email);
+    ResourceVersion getUserVersion(UUID id);
+    ResourceVersion getOwnUserVersion(String email);
 
     UserResponseDto updateUser(UUID id, AdminUserUpdateRequestDto dto);
     void deleteUser(UUID id);
@@ -1,40 +1,52 @@
 package com.hasan.library_management.service.impl;
 
 import com.hasan.library_management.dto.request.AuthRequest;
+import com.hasan.library_management.dto.request.RefreshTokenRequest;
 import com.hasan.library_management.dto.request.RegisterRequest;
 import com.hasan.library_management.dto.response.AuthResponse;
 import com.hasan.library_management.entity.User;
 import com.hasan.library_management.exceptions.ApiException;
 import com.hasan.library_management.repository.UserRepository;
 import com.hasan.library_management.security.JwtUtil;
+import com.hasan.library_management.security.LoginAttemptThrottle;
+import com.hasan.library_management.security.TokenRevocationList;
 import com.hasan.library_management.service.AuthService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed("library.service")
 public class AuthServiceImpl implements AuthService {
 
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
 
+    // Failed-attempt limits per email and client IP, checked before any password is hashed
+    private final LoginAttemptThrottle loginAttemptThrottle;
+
+    private final TokenRevocationList tokenRevocationList;
+
     @Override
     public AuthResponse register(RegisterRequest request) {
         log.info("Registering user with email: {}", request.getEmail());
 
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            log.warn("Registration failed. Email already registered: {}", request.getEmail());
-            throw new ApiException("Email is already registered", HttpStatus.BAD_REQUEST);
-        }
-
         User user = User.builder()
                 .name(request.getName())
                 .email(request.getEmail())
@@ -43,28 +55,89 @@ public class AuthServiceImpl implements AuthService {
                 .role(request.getRole())
                 .build();
 
-        userRepository.save(user);
+        // The unique index on email decides, instead of a lookup that a concurrent registration could race past
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Registration failed. Email already registered: {}", request.getEmail());
+            throw new ApiException("Email is already registered", HttpStatus.BAD_REQUEST);
+        }
+
         log.info("User registered successfully: {}", user.getEmail());
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
-        return new AuthResponse(token);
+        return issueTokens(user.getEmail(), user.getRole().name());
     }
 
     @Override
-    public AuthResponse login(AuthRequest request) {
+    public AuthResponse login(AuthRequest request, String clientIp) {
         log.info("User attempting to login with email: {}", request.getEmail());
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        // Counts the attempt up front; a rejected password keeps it counted
+        loginAttemptThrottle.checkAllowed(request.getEmail(), clientIp);
+
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+            );
+        } catch (AuthenticationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            loginAttemptThrottle.recordAborted(request.getEmail(), clientIp);
+            throw e;
+        }
+        loginAttemptThrottle.recordSuccess(request.getEmail(), clientIp);
+
+        // The authenticated principal already carries email and role, no second user lookup needed
+        String role = authentication.getAuthorities().iterator().next().getAuthority().substring(ROLE_PREFIX.length());
+
+        log.info("Login successful for user: {}", authentication.getName());
+        return issueTokens(authentication.getName(), role);
+    }
+
+    @Override
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        Claims claims = parseQuietly(request.getRefreshToken());
+        if (claims == null || !jwtUtil.isRefreshToken(claims) || tokenRevocationList.isRevoked(claims)) {
+            log.warn("Refresh rejected, token is invalid, expired or revoked");
+            throw new ApiException("Invalid refresh token", HttpStatus.UNAUTHORIZED);
+        }
+
+        // Rotation: each refresh token is accepted once, a replayed one loses the race on the unique jti
+        if (!tokenRevocationList.revokeToken(jwtUtil.getTokenId(claims), claims.getSubject(), claims.getExpiration().toInstant())) {
+            log.warn("Refresh token reused for user: {}", claims.getSubject());
+            throw new ApiException("Invalid refresh token", HttpStatus.UNAUTHORIZED);
+        }
+
+        log.info("Tokens refreshed for user: {}", claims.getSubject());
+        return issueTokens(claims.getSubject(), claims.get("role", String.class));
+    }
+
+    @Override
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        // Logout is idempotent: tokens that are already invalid are simply skipped
+        revokeQuietly(request.getRefreshToken());
+        if (accessToken != null) {
+            revokeQuietly(accessToken);
+        }
+    }
+
+    private AuthResponse issueTokens(String email, String role) {
+        return new AuthResponse(jwtUtil.generateToken(email, role), jwtUtil.generateRefreshToken(email, role));
+    }
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> {
-                    log.warn("Login failed. User not found: {}", request.getEmail());
-                    return new ApiException("User not found", HttpStatus.UNAUTHORIZED);
-                });
+    private void revokeQuietly(String token) {
+        Claims claims = parseQuietly(token);
+        if (claims != null && claims.getId() != null) {
+            tokenRevocationList.revokeToken(jwtUtil.getTokenId(claims), claims.getSubject(), claims.getExpiration().toInstant());
+            log.info("Token revoked for user: {}", claims.getSubject());
+        }
+    }
 
-        log.info("Login successful for user: {}", user.getEmail());
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
-        return new AuthResponse(token);
+    private Claims parseQuietly(String token) {
+        try {
+            return jwtUtil.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,189 @@
+package com.hasan.library_management.service.impl;
+
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.BookCopy;
+import com.hasan.library_management.entity.BorrowRecord;
+import com.hasan.library_management.entity.CopyStatus;
+import com.hasan.library_management.exceptions.ApiException;
+import com.hasan.library_management.repository.BookCopyRepository;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.repository.BorrowRecordRepository;
+import com.hasan.library_management.service.BookCopyService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed("library.service")
+public class BookCopyServiceImpl implements BookCopyService {
+
+    // Concurrent borrowers pick randomly among this many free copies instead of all racing for the first one
+    private static final int CLAIM_CANDIDATES = 8;
+    private static final int MAX_CLAIM_ROUNDS = 3;
+
+    private final BookCopyRepository bookCopyRepository;
+    private final BookRepository bookRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+
+    @Override
+    public List<BookCopy> newCopies(Book book, int firstCopyNumber, int count) {
+        List<BookCopy> copies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            copies.add(BookCopy.builder()
+                    .book(book)
+                    .copyNumber(firstCopyNumber + i)
+                    .status(CopyStatus.AVAILABLE)
+                    .build());
+        }
+        return copies;
+    }
+
+    @Override
+    @Transactional
+    public void addCopies(UUID bookId, int count) {
+        log.info("Adding {} copies to book ID: {}", count, bookId);
+
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> {
+                    log.warn("Book not found with ID: {}", bookId);
+                    return new ApiException("Book not found with id: " + bookId, HttpStatus.NOT_FOUND);
+                });
+
+        int firstCopyNumber = bookCopyRepository.findMaxCopyNumberByBookId(bookId) + 1;
+        bookCopyRepository.saveAll(newCopies(book, firstCopyNumber, count));
+        bookRepository.addCopies(bookId, count);
+    }
+
+    @Override
+    @Transactional
+    public Optional<BookCopy> claimFreeCopy(UUID bookId) {
+        // Writes the copy row only, the caller takes the copy off the title counter with decrementAvailableCopies
+        return claim(bookId, CopyStatus.AVAILABLE);
+    }
+
+    /**
+     * The counter UPDATE locks the title row until the transaction ends, so callers run it as their last statement:
+     * concurrent borrows of the same title then wait on each other only for the commit.
+     **/
+    @Override
+    @Transactional
+    public void decrementAvailableCopies(UUID bookId) {
+        if (bookRepository.decrementAvailableCopies(bookId) == 0) {
+            log.error("Available copy counter of book {} is out of sync", bookId);
+            throw new ApiException("Book is currently not available for borrowing", HttpStatus.CONFLICT);
+        }
+    }
+
+    @Override
+    @Transactional
+    public Optional<BookCopy> claimHeldCopy(UUID bookId) {
+        // Held copies were never added back to the available counter
+        return claim(bookId, CopyStatus.ON_HOLD);
+    }
+
+    @Override
+    @Transactional
+    public void returnCopy(UUID bookId, BookCopy copy) {
+        if (copy == null) {
+            // Record from before copies were tracked, only the title counter knows about the loan
+            bookRepository.incrementAvailableCopies(bookId);
+            return;
+        }
+
+        // The counter follows the copy: a copy that was not on loan must not add stock
+        if (bookCopyRepository.compareAndSetStatus(copy.getId(), CopyStatus.ON_LOAN, CopyStatus.AVAILABLE) == 1) {
+            bookRepository.incrementAvailableCopies(bookId);
+        } else {
+            log.warn("Copy {} of book {} was not on loan, available counter left unchanged", copy.getId(), bookId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void holdCopy(BookCopy copy) {
+        if (copy != null) {
+            bookCopyRepository.compareAndSetStatus(copy.getId(), CopyStatus.ON_LOAN, CopyStatus.ON_HOLD);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void releaseHeldCopy(UUID bookId) {
+        if (claim(bookId, CopyStatus.ON_HOLD, CopyStatus.AVAILABLE).isEmpty()) {
+            log.warn("No held copy found for book {}", bookId);
+        }
+        bookRepository.incrementAvailableCopies(bookId);
+    }
+
+    @Override
+    public boolean hasAvailableCopies(UUID bookId) {
+        return bookRepository.findAvailableCopiesById(bookId) > 0;
+    }
+
+    @Override
+    @Transactional
+    public void backfillMissingCopies() {
+        for (Book book : bookRepository.findBooksWithoutCopies()) {
+            List<BorrowRecord> openRecords = borrowRecordRepository.findByBookId(book.getId()).stream()
+                    .filter(record -> !record.isReturned())
+                    .toList();
+
+            int total = Math.max(1, openRecords.size());
+            List<BookCopy> copies = newCopies(book, 1, total);
+
+            for (int i = 0; i < openRecords.size(); i++) {
+                copies.get(i).setStatus(CopyStatus.ON_LOAN);
+                openRecords.get(i).setCopy(copies.get(i));
+            }
+
+            bookCopyRepository.saveAll(copies);
+            borrowRecordRepository.saveAll(openRecords);
+
+            book.setTotalCopies(total);
+            book.setAvailableCopies(total - openRecords.size());
+            book.setAvailable(total > openRecords.size());
+            bookRepository.save(book);
+
+            log.info("Backfilled {} copies for book ID: {}", total, book.getId());
+        }
+    }
+
+    private Optional<BookCopy> claim(UUID bookId, CopyStatus from) {
+        return claim(bookId, from, CopyStatus.ON_LOAN);
+    }
+
+    // Lock-free claim: each attempt is a single conditional UPDATE on one copy row
+    private Optional<BookCopy> claim(UUID bookId, CopyStatus from, CopyStatus to) {
+        for (int round = 0; round < MAX_CLAIM_ROUNDS; round++) {
+            List<UUID> candidates = new ArrayList<>(
+                    bookCopyRepository.findIdsByBookIdAndStatus(bookId, from, PageRequest.of(0, CLAIM_CANDIDATES)));
+
+            if (candidates.isEmpty()) {
+                return Optional.empty();
+            }
+
+            Collections.shuffle(candidates, ThreadLocalRandom.current());
+            for (UUID candidate : candidates) {
+                if (bookCopyRepository.compareAndSetStatus(candidate, from, to) == 1) {
+                    return Optional.of(bookCopyRepository.getReferenceById(candidate));
+                }
+            }
+        }
+
+        log.warn("Could not claim a {} copy of book {} after {} rounds", from, bookId, MAX_CLAIM_ROUNDS);
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,437 @@
+package com.hasan.library_management.service.impl;
+
+import com.hasan.library_management.dto.request.BookImportFormat;
+import com.hasan.library_management.dto.request.BookRequestDto;
+import com.hasan.library_management.dto.response.BookImportErrorDto;
+import com.hasan.library_management.dto.response.BookImportResultDto;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.CopyStatus;
+import com.hasan.library_management.exceptions.ApiException;
+import com.hasan.library_management.mapper.BookMapper;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.service.BookImportService;
+import com.hasan.library_management.service.BookSuggestionService;
+import com.hasan.library_management.service.CatalogVersion;
+import com.hasan.library_management.service.FuzzyBookSearchService;
+import com.hasan.library_management.util.CsvReader;
+import com.hasan.library_management.util.IsbnUtils;
+import com.hasan.library_management.util.MarcReader;
+import com.hasan.library_management.util.UuidV7;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed("library.service")
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final String INSERT_BOOK = "INSERT INTO books (id, title, author, isbn, isbn_canonical, publication_date, " +
+            "genre, available, total_copies, available_copies) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_COPY = "INSERT INTO book_copies (id, book_id, copy_number, status) VALUES (?, ?, ?, ?)";
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("title", "author", "isbn", "publicationdate", "genre");
+    private static final Pattern YEAR = Pattern.compile("\\d{4}");
+
+    // MARC records often carry no subject heading, but genre is mandatory for a book
+    private static final String DEFAULT_MARC_GENRE = "Uncategorized";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final Validator validator;
+    private final BookSuggestionService bookSuggestionService;
+    private final FuzzyBookSearchService fuzzyBookSearchService;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Override
+    public BookImportResultDto importBooks(MultipartFile file, BookImportFormat format) {
+        BookImportFormat resolvedFormat = format != null ? format : detectFormat(file.getOriginalFilename());
+        log.info("Importing books from {} file: {}", resolvedFormat, file.getOriginalFilename());
+
+        BookImportResultDto result = new BookImportResultDto();
+        List<PendingBook> batch = new ArrayList<>(batchSize);
+        Set<String> batchIsbns = new HashSet<>();
+
+        try (RowSource source = openSource(file.getInputStream(), resolvedFormat)) {
+            ImportRow row;
+            while ((row = source.next()) != null) {
+                result.setTotalRows(result.getTotalRows() + 1);
+
+                PendingBook pending = validate(row, result);
+                if (pending == null) {
+                    continue;
+                }
+
+                // Earlier batches are already committed, so only the current one has to be checked in memory
+                if (!batchIsbns.add(pending.canonicalIsbn())) {
+                    duplicate(result, pending);
+                    continue;
+                }
+
+                batch.add(pending);
+                if (batch.size() >= batchSize) {
+                    flush(batch, result);
+                    batch.clear();
+                    batchIsbns.clear();
+                }
+            }
+        } catch (IOException e) {
+            // Rows read before the failure are still imported, the error marks where reading stopped
+            log.warn("Import file could not be read: {}", e.getMessage());
+            result.setFailed(result.getFailed() + 1);
+            reject(result, result.getTotalRows() + 1, null, "Could not read import file: " + e.getMessage());
+        }
+
+        flush(batch, result);
+
+        log.info("Book import finished: {} rows, {} imported, {} duplicates, {} failed",
+                result.getTotalRows(), result.getImported(), result.getDuplicates(), result.getFailed());
+        return result;
+    }
+
+    private BookImportFormat detectFormat(String filename) {
+        String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+        return name.endsWith(".mrc") || name.endsWith(".marc") ? BookImportFormat.MARC : BookImportFormat.CSV;
+    }
+
+    private PendingBook validate(ImportRow row, BookImportResultDto result) {
+        if (row.error() != null) {
+            result.setFailed(result.getFailed() + 1);
+            reject(result, row.row(), row.dto() != null ? row.dto().getIsbn() : null, row.error());
+            return null;
+        }
+
+        BookRequestDto dto = row.dto();
+        Set<ConstraintViolation<BookRequestDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            result.setFailed(result.getFailed() + 1);
+            reject(result, row.row(), dto.getIsbn(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+
+        return IsbnUtils.toIsbn13(dto.getIsbn())
+                .map(canonical -> new PendingBook(row.row(), canonical, dto))
+                .orElseGet(() -> {
+                    result.setFailed(result.getFailed() + 1);
+                    reject(result, row.row(), dto.getIsbn(), "ISBN must be a valid ISBN-10 or ISBN-13");
+                    return null;
+                });
+    }
+
+    private void flush(List<PendingBook> batch, BookImportResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Set<String> existing = bookRepository.findExistingCanonicalIsbns(
+                batch.stream().map(PendingBook::canonicalIsbn).toList());
+
+        List<PendingBook> fresh = new ArrayList<>(batch.size());
+        for (PendingBook pending : batch) {
+            if (existing.contains(pending.canonicalIsbn())) {
+                duplicate(result, pending);
+            } else {
+                fresh.add(pending);
+            }
+        }
+
+        try {
+            List<Book> inserted = transactionTemplate.execute(status -> insert(fresh));
+            result.setImported(result.getImported() + fresh.size());
+            committed(inserted);
+        } catch (DataIntegrityViolationException e) {
+            // A title was created concurrently after the lookup; insert one by one to isolate it
+            log.warn("Batch insert hit a duplicate ISBN, retrying {} rows individually", fresh.size());
+            for (PendingBook pending : fresh) {
+                try {
+                    List<Book> inserted = transactionTemplate.execute(status -> insert(List.of(pending)));
+                    result.setImported(result.getImported() + 1);
+                    committed(inserted);
+                } catch (DataIntegrityViolationException ex) {
+                    duplicate(result, pending);
+                }
+            }
+        }
+    }
+
+    // The rows bypass JPA, so the in-memory indexes and the catalog version are fed once they are committed
+    private void committed(List<Book> books) {
+        if (books == null || books.isEmpty()) {
+            return;
+        }
+        for (Book book : books) {
+            bookSuggestionService.bookSaved(book);
+            fuzzyBookSearchService.bookSaved(book);
+        }
+        catalogVersion.bump();
+    }
+
+    // Returns the inserted books, detached, with the fields the search indexes need
+    private List<Book> insert(List<PendingBook> books) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+
+        List<Book> inserted = new ArrayList<>(books.size());
+        List<Object[]> bookRows = new ArrayList<>(books.size());
+        List<Object[]> copyRows = new ArrayList<>(books.size());
+
+        for (PendingBook pending : books) {
+            BookRequestDto dto = pending.dto();
+            UUID bookId = UuidV7.randomUuid();
+            int copies = bookMapper.copiesOf(dto);
+
+            bookRows.add(new Object[]{bookId, dto.getTitle(), dto.getAuthor(), dto.getIsbn(), pending.canonicalIsbn(),
+                    dto.getPublicationDate(), dto.getGenre(), true, copies, copies});
+            for (int copyNumber = 1; copyNumber <= copies; copyNumber++) {
+                copyRows.add(new Object[]{UuidV7.randomUuid(), bookId, copyNumber, CopyStatus.AVAILABLE.name()});
+            }
+            inserted.add(Book.builder()
+                    .id(bookId)
+                    .title(dto.getTitle())
+                    .author(dto.getAuthor())
+                    .genre(dto.getGenre())
+                    .publicationDate(dto.getPublicationDate())
+                    .available(true)
+                    .build());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_BOOK, bookRows);
+        jdbcTemplate.batchUpdate(INSERT_COPY, copyRows);
+        return inserted;
+    }
+
+    private void duplicate(BookImportResultDto result, PendingBook pending) {
+        result.setDuplicates(result.getDuplicates() + 1);
+        reject(result, pending.row(), pending.dto().getIsbn(), "A book with this ISBN already exists: " + pending.dto().getIsbn());
+    }
+
+    private void reject(BookImportResultDto result, long row, String isbn, String message) {
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BookImportErrorDto(row, isbn, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private RowSource openSource(InputStream in, BookImportFormat format) throws IOException {
+        return format == BookImportFormat.MARC
+                ? new MarcRowSource(new MarcReader(new BufferedInputStream(in)))
+                : new CsvRowSource(new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), ','));
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() == 4 && YEAR.matcher(trimmed).matches()) {
+            return LocalDate.of(Integer.parseInt(trimmed), 1, 1);
+        }
+        return LocalDate.parse(trimmed);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private record ImportRow(long row, BookRequestDto dto, String error) {
+    }
+
+    private record PendingBook(long row, String canonicalIsbn, BookRequestDto dto) {
+    }
+
+    private interface RowSource extends Closeable {
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * Maps CSV records by header name, so column order does not matter.
+     * Expected columns: title, author, isbn, publication_date, genre and optionally copies.
+     **/
+    private static class CsvRowSource implements RowSource {
+
+        private final CsvReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        // Closes the reader when the header is rejected, the caller's try-with-resources does not own it yet
+        CsvRowSource(CsvReader reader) throws IOException {
+            this.reader = reader;
+            try {
+                readHeader();
+            } catch (IOException | RuntimeException e) {
+                try {
+                    reader.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new ApiException("Import file is empty", HttpStatus.BAD_REQUEST);
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(normalize(header.get(i)), i);
+            }
+            for (String column : REQUIRED_CSV_COLUMNS) {
+                if (!columns.containsKey(column)) {
+                    throw new ApiException("CSV header is missing column: " + column, HttpStatus.BAD_REQUEST);
+                }
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> fields = reader.next();
+            if (fields == null) {
+                return null;
+            }
+
+            long row = reader.getRecordLine();
+            BookRequestDto dto = BookRequestDto.builder()
+                    .title(value(fields, "title"))
+                    .author(value(fields, "author"))
+                    .isbn(value(fields, "isbn"))
+                    .genre(value(fields, "genre"))
+                    .build();
+
+            String date = value(fields, "publicationdate");
+            try {
+                dto.setPublicationDate(parseDate(date));
+            } catch (DateTimeParseException e) {
+                return new ImportRow(row, dto, "Invalid publication date: " + date);
+            }
+
+            String copies = value(fields, "copies");
+            try {
+                dto.setCopies(copies != null ? Integer.valueOf(copies) : null);
+            } catch (NumberFormatException e) {
+                return new ImportRow(row, dto, "Invalid number of copies: " + copies);
+            }
+
+            return new ImportRow(row, dto, null);
+        }
+
+        private String value(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index != null && index < fields.size() ? blankToNull(fields.get(index)) : null;
+        }
+
+        // Spreadsheet exports may prefix the first header with a byte order mark
+        private static String normalize(String header) {
+            return header.trim().toLowerCase(Locale.ROOT).replaceAll("[\\s_\\-]", "").replace("\uFEFF", "");
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Maps MARC 21 bibliographic fields: 020$a ISBN, 245$a title, 100$a/110$a author,
+     * 264$c/260$c or 008/07-10 publication year and 655$a/650$a genre.
+     **/
+    private static class MarcRowSource implements RowSource {
+
+        private final MarcReader reader;
+        private long recordNumber;
+
+        MarcRowSource(MarcReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            MarcReader.MarcRecord record = reader.next();
+            if (record == null) {
+                return null;
+            }
+
+            long row = ++recordNumber;
+            BookRequestDto dto = BookRequestDto.builder()
+                    // 020$a may carry a qualifier such as "0306406152 (pbk.)"
+                    .isbn(record.subfield("020", 'a').map(isbn -> isbn.split("\\s+")[0]).orElse(null))
+                    .title(record.subfield("245", 'a').map(MarcRowSource::trimPunctuation).orElse(null))
+                    .author(record.subfield("100", 'a')
+                            .or(() -> record.subfield("110", 'a'))
+                            .map(MarcRowSource::trimPunctuation)
+                            .orElse(null))
+                    .genre(record.subfield("655", 'a')
+                            .or(() -> record.subfield("650", 'a'))
+                            .map(MarcRowSource::trimPunctuation)
+                            .orElse(DEFAULT_MARC_GENRE))
+                    .build();
+
+            String year = record.subfield("264", 'c')
+                    .or(() -> record.subfield("260", 'c'))
+                    .or(() -> record.controlField("008").filter(field -> field.length() >= 11).map(field -> field.substring(7, 11)))
+                    .map(MarcRowSource::firstYear)
+                    .orElse(null);
+            dto.setPublicationDate(year != null ? LocalDate.of(Integer.parseInt(year), 1, 1) : null);
+
+            return new ImportRow(row, dto, null);
+        }
+
+        private static String firstYear(String value) {
+            Matcher matcher = YEAR.matcher(value);
+            return matcher.find() ? matcher.group() : null;
+        }
+
+        // ISBD punctuation ends most MARC subfields, e.g. "The road /" or "McCarthy, Cormac,"
+        private static String trimPunctuation(String value) {
+            return value.replaceAll("[\\s/:;,.=]+$", "");
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
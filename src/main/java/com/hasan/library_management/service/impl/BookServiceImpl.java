@@ -1,44 +1,89 @@
 package com.hasan.library_management.service.impl;
 
 import com.hasan.library_management.dto.request.BookRequestDto;
+import com.hasan.library_management.dto.request.BookSearchCriteria;
+import com.hasan.library_management.dto.request.SearchTotal;
 import com.hasan.library_management.dto.response.BookResponseDto;
+import com.hasan.library_management.dto.response.BookSearchPageDto;
+import com.hasan.library_management.dto.response.BookSuggestionDto;
+import com.hasan.library_management.dto.response.FacetCountDto;
+import com.hasan.library_management.dto.response.FacetedSearchResultDto;
 import com.hasan.library_management.entity.Book;
 import com.hasan.library_management.exceptions.ApiException;
 import com.hasan.library_management.mapper.BookMapper;
 import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.repository.BookSearchRepository;
+import com.hasan.library_management.repository.BookSortField;
+import com.hasan.library_management.repository.BookSpecifications;
+import com.hasan.library_management.repository.EntityVersion;
+import com.hasan.library_management.service.BookCopyService;
 import com.hasan.library_management.service.BookService;
+import com.hasan.library_management.service.BookSuggestionService;
+import com.hasan.library_management.service.CatalogVersion;
+import com.hasan.library_management.service.FuzzyBookSearchService;
+import com.hasan.library_management.service.SearchCountCache;
+import com.hasan.library_management.util.FuzzyIndex;
+import com.hasan.library_management.util.IsbnUtils;
+import com.hasan.library_management.util.ResourceVersion;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("library.service")
 public class BookServiceImpl implements BookService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
+    private final BookCopyService bookCopyService;
+    private final BookSuggestionService bookSuggestionService;
+    private final FuzzyBookSearchService fuzzyBookSearchService;
+    private final SearchCountCache searchCountCache;
+    private final CatalogVersion catalogVersion;
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookResponseDto> getAllBooks() {
         log.info("Fetching all books");
-        return bookRepository.findAll()
+        return bookRepository.findAllSummaries()
                 .stream()
                 .map(bookMapper::toResponseDto)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookResponseDto getBookById(UUID id) {
         log.info("Fetching book with ID: {}", id);
-        Book book = bookRepository.findById(id)
+        BookRepository.BookSummary book = bookRepository.findSummaryById(id)
                 .orElseThrow(() -> {
                     log.warn("Book not found with ID: {}", id);
                     return new ApiException("Book not found with id: " + id, HttpStatus.NOT_FOUND);
@@ -46,21 +91,44 @@ public class BookServiceImpl implements BookService {
         return bookMapper.toResponseDto(book);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getBookVersion(UUID id) {
+        EntityVersion version = bookRepository.findVersionById(id)
+                .orElseThrow(() -> {
+                    log.warn("Book not found with ID: {}", id);
+                    return new ApiException("Book not found with id: " + id, HttpStatus.NOT_FOUND);
+                });
+        return ResourceVersion.of(version.getId(), version.getVersion(), version.getUpdatedAt());
+    }
+
 
     @Override
     public BookResponseDto createBook(BookRequestDto bookRequestDto) {
         log.info("Creating book with ISBN: {}", bookRequestDto.getIsbn());
 
-        boolean exists = bookRepository.findByIsbnContainingIgnoreCase(bookRequestDto.getIsbn(), Pageable.ofSize(1))
-                .hasContent();
+        String canonicalIsbn = canonicalIsbn(bookRequestDto.getIsbn());
 
-        if (exists) {
+        if (bookRepository.existsByIsbnCanonical(canonicalIsbn)) {
             log.warn("Book with ISBN already exists: {}", bookRequestDto.getIsbn());
             throw new ApiException("A book with this ISBN already exists: " + bookRequestDto.getIsbn(), HttpStatus.CONFLICT);
         }
 
         Book book = bookMapper.toEntity(bookRequestDto);
-        book = bookRepository.save(book);
+        book.setIsbnCanonical(canonicalIsbn);
+        book.setCopies(bookCopyService.newCopies(book, 1, book.getTotalCopies()));
+
+        // The unique index settles concurrent creates that both passed the existence check
+        try {
+            book = bookRepository.save(book);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Book with ISBN already exists: {}", bookRequestDto.getIsbn());
+            throw new ApiException("A book with this ISBN already exists: " + bookRequestDto.getIsbn(), HttpStatus.CONFLICT);
+        }
+
+        bookSuggestionService.bookSaved(book);
+        fuzzyBookSearchService.bookSaved(book);
+        catalogVersion.bump();
         log.info("Book created successfully with ID: {}", book.getId());
         return bookMapper.toResponseDto(book);
     }
@@ -76,8 +144,28 @@ public class BookServiceImpl implements BookService {
                     return new ApiException("Book not found with id: " + id, HttpStatus.NOT_FOUND);
                 });
 
+        String canonicalIsbn = canonicalIsbn(bookRequestDto.getIsbn());
+
+        if (bookRepository.existsByIsbnCanonicalAndIdNot(canonicalIsbn, id)) {
+            log.warn("Another book already has ISBN: {}", bookRequestDto.getIsbn());
+            throw new ApiException("A book with this ISBN already exists: " + bookRequestDto.getIsbn(), HttpStatus.CONFLICT);
+        }
+
         bookMapper.updateEntity(existingBook, bookRequestDto);
-        existingBook = bookRepository.save(existingBook);
+        existingBook.setIsbnCanonical(canonicalIsbn);
+
+        try {
+            existingBook = bookRepository.save(existingBook);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Another book already has ISBN: {}", bookRequestDto.getIsbn());
+            throw new ApiException("A book with this ISBN already exists: " + bookRequestDto.getIsbn(), HttpStatus.CONFLICT);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.warn("Book was modified concurrently, ID: {}", id);
+            throw new ApiException("Book was modified concurrently, please retry: " + id, HttpStatus.CONFLICT);
+        }
+        bookSuggestionService.bookSaved(existingBook);
+        fuzzyBookSearchService.bookSaved(existingBook);
+        catalogVersion.bump();
         log.info("Book updated successfully with ID: {}", id);
         return bookMapper.toResponseDto(existingBook);
     }
@@ -91,34 +179,212 @@ public class BookServiceImpl implements BookService {
                     return new ApiException("Book not found with id: " + id, HttpStatus.NOT_FOUND);
                 });
         bookRepository.delete(book);
+        bookSuggestionService.bookDeleted(id);
+        fuzzyBookSearchService.bookDeleted(id);
+        catalogVersion.bump();
         log.info("Book deleted with ID: {}", id);
     }
 
     @Override
-    public Page<BookResponseDto> searchByTitle(String title, Pageable pageable) {
-        log.info("Searching books by title: {}", title);
-        return bookRepository.findByTitleContainingIgnoreCase(title, pageable)
-                .map(bookMapper::toResponseDto);
+    @Transactional
+    public BookResponseDto addCopies(UUID id, int count) {
+        if (count < 1) {
+            throw new ApiException("Copies must be at least 1", HttpStatus.BAD_REQUEST);
+        }
+
+        bookCopyService.addCopies(id, count);
+        catalogVersion.bump();
+
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new ApiException("Book not found with id: " + id, HttpStatus.NOT_FOUND));
+        log.info("Book {} now has {} copies", id, book.getTotalCopies());
+        return bookMapper.toResponseDto(book);
+    }
+
+    @Override
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        return bookSuggestionService.suggest(prefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookResponseDto> searchByTitle(String title, Pageable pageable, SearchTotal total) {
+        log.info("Searching books by title: {} ({} total)", title, total);
+        return searchWithTotal("title", title, pageable, total,
+                (term, page) -> bookRepository.findByTitleContainingIgnoreCase(term, page, BookRepository.BookSummary.class),
+                (term, page) -> bookRepository.findSliceByTitleContainingIgnoreCase(term, page, BookRepository.BookSummary.class),
+                bookRepository::countByTitleContainingIgnoreCase);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookResponseDto> searchByAuthor(String author, Pageable pageable, SearchTotal total) {
+        log.info("Searching books by author: {} ({} total)", author, total);
+        return searchWithTotal("author", author, pageable, total,
+                (term, page) -> bookRepository.findByAuthorContainingIgnoreCase(term, page, BookRepository.BookSummary.class),
+                (term, page) -> bookRepository.findSliceByAuthorContainingIgnoreCase(term, page, BookRepository.BookSummary.class),
+                bookRepository::countByAuthorContainingIgnoreCase);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookResponseDto> searchByIsbn(String isbn, Pageable pageable, SearchTotal total) {
+        log.info("Searching books by ISBN: {} ({} total)", isbn, total);
+        return searchWithTotal("isbn", isbn, pageable, total,
+                (term, page) -> bookRepository.findByIsbnContainingIgnoreCase(term, page, BookRepository.BookSummary.class),
+                (term, page) -> bookRepository.findSliceByIsbnContainingIgnoreCase(term, page, BookRepository.BookSummary.class),
+                bookRepository::countByIsbnContainingIgnoreCase);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookResponseDto> searchByGenre(String genre, Pageable pageable, SearchTotal total) {
+        log.info("Searching books by genre: {} ({} total)", genre, total);
+        return searchWithTotal("genre", genre, pageable, total,
+                (term, page) -> bookRepository.findByGenreContainingIgnoreCase(term, page, BookRepository.BookSummary.class),
+                (term, page) -> bookRepository.findSliceByGenreContainingIgnoreCase(term, page, BookRepository.BookSummary.class),
+                bookRepository::countByGenreContainingIgnoreCase);
+    }
+
+    /**
+     * Runs a single-field search with the requested kind of total. Without an exact total only the page query runs;
+     * an approximate total is taken from the count cache, or is exact for free when the slice reaches the last match.
+     **/
+    private Slice<BookResponseDto> searchWithTotal(String field, String term, Pageable pageable, SearchTotal total,
+                                                   BiFunction<String, Pageable, Page<BookRepository.BookSummary>> pageQuery,
+                                                   BiFunction<String, Pageable, Slice<BookRepository.BookSummary>> sliceQuery,
+                                                   ToLongFunction<String> countQuery) {
+        if (total == null || total == SearchTotal.EXACT) {
+            return pageQuery.apply(term, pageable).map(bookMapper::toResponseDto);
+        }
+
+        Slice<BookResponseDto> slice = sliceQuery.apply(term, pageable).map(bookMapper::toResponseDto);
+        if (total == SearchTotal.NONE) {
+            return slice;
+        }
+
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        long count;
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            count = seen;
+        } else {
+            String key = field + ":" + term.toLowerCase(Locale.ROOT);
+            count = Math.max(searchCountCache.count(key, () -> countQuery.applyAsLong(term)), seen + (slice.hasNext() ? 1 : 0));
+        }
+        return new PageImpl<>(slice.getContent(), pageable, count);
     }
 
     @Override
-    public Page<BookResponseDto> searchByAuthor(String author, Pageable pageable) {
-        log.info("Searching books by author: {}", author);
-        return bookRepository.findByAuthorContainingIgnoreCase(author, pageable)
-                .map(bookMapper::toResponseDto);
+    @Transactional(readOnly = true)
+    public Page<BookResponseDto> searchFuzzy(String query, Pageable pageable) {
+        log.info("Fuzzy searching books: {}", query);
+
+        // Ranked in memory, then only the books of the requested page are loaded
+        FuzzyIndex.Result<UUID> result = fuzzyBookSearchService.search(query, (int) pageable.getOffset() + pageable.getPageSize());
+        List<UUID> ids = result.hits().stream()
+                .skip(pageable.getOffset())
+                .map(FuzzyIndex.Hit::key)
+                .toList();
+        return new PageImpl<>(findAllInOrder(ids), pageable, result.total());
     }
 
     @Override
-    public Page<BookResponseDto> searchByIsbn(String isbn, Pageable pageable) {
-        log.info("Searching books by ISBN: {}", isbn);
-        return bookRepository.findByIsbnContainingIgnoreCase(isbn, pageable)
-                .map(bookMapper::toResponseDto);
+    @Transactional(readOnly = true)
+    public FacetedSearchResultDto searchFaceted(String query, List<String> genres, List<String> authors,
+                                                List<String> decades, Boolean available, Pageable pageable) {
+        log.info("Faceted searching books: {}", query);
+
+        Map<String, List<String>> filters = new HashMap<>();
+        filters.put(FuzzyBookSearchService.GENRE, genres);
+        filters.put(FuzzyBookSearchService.AUTHOR, authors);
+        filters.put(FuzzyBookSearchService.DECADE, decades);
+        filters.put(FuzzyBookSearchService.AVAILABLE, available == null ? null : List.of(available.toString()));
+
+        // Hits and facet counts come from the in-memory index in one pass, only the page's books are loaded
+        FuzzyBookSearchService.FacetedResult result = fuzzyBookSearchService.searchFaceted(
+                query, filters, (int) pageable.getOffset(), pageable.getPageSize());
+
+        Map<String, List<FacetCountDto>> facets = new LinkedHashMap<>();
+        result.facets().forEach((facet, counts) -> facets.put(facet, counts.stream()
+                .map(count -> new FacetCountDto(count.value(), count.count()))
+                .toList()));
+
+        return FacetedSearchResultDto.builder()
+                .books(new PageImpl<>(findAllInOrder(result.ids()), pageable, result.total()))
+                .facets(facets)
+                .build();
     }
 
     @Override
-    public Page<BookResponseDto> searchByGenre(String genre, Pageable pageable) {
-        log.info("Searching books by genre: {}", genre);
-        return bookRepository.findByGenreContainingIgnoreCase(genre, pageable)
-                .map(bookMapper::toResponseDto);
+    @Transactional(readOnly = true)
+    public BookSearchPageDto search(BookSearchCriteria criteria, String sort, String direction, String cursor, int size) {
+        log.info("Searching books by criteria, sorted by {} {}", sort, direction);
+
+        BookSortField sortField = BookSortField.fromParameter(sort)
+                .orElseThrow(() -> new ApiException("Unsupported sort field: " + sort, HttpStatus.BAD_REQUEST));
+        if (!"asc".equalsIgnoreCase(direction) && !"desc".equalsIgnoreCase(direction)) {
+            throw new ApiException("Sort direction must be asc or desc", HttpStatus.BAD_REQUEST);
+        }
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new ApiException("Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+        if (criteria.getIsbn() != null && !criteria.getIsbn().isBlank()) {
+            criteria.setIsbn(canonicalIsbn(criteria.getIsbn()));
+        }
+
+        // One row beyond the page tells whether another page follows, without a count query
+        List<BookRepository.BookSummary> books = bookRepository.search(BookSpecifications.matching(criteria), sortField,
+                "asc".equalsIgnoreCase(direction), decodeCursor(cursor, sortField), size + 1);
+        boolean hasNext = books.size() > size;
+        List<BookRepository.BookSummary> page = hasNext ? books.subList(0, size) : books;
+
+        return BookSearchPageDto.builder()
+                .content(page.stream().map(bookMapper::toResponseDto).toList())
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encodeCursor(sortField, page.get(page.size() - 1)) : null)
+                .build();
+    }
+
+    // Opaque to clients: "<id>|<sort field>|=<value>", or "-" instead of "=<value>" for a missing value
+    private static String encodeCursor(BookSortField sortField, BookRepository.BookSummary last) {
+        Object value = sortField.valueOf(last);
+        String cursor = last.getId() + "|" + sortField.name() + "|" + (value == null ? "-" : "=" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BookSearchRepository.Keyset decodeCursor(String cursor, BookSortField sortField) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            if (parts.length != 3 || !parts[1].equals(sortField.name())) {
+                throw new IllegalArgumentException("Cursor belongs to another sort order");
+            }
+            Comparable<?> value = parts[2].equals("-") ? null : sortField.parse(parts[2].substring(1));
+            return new BookSearchRepository.Keyset(value, UUID.fromString(parts[0]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ApiException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Books in the order of ids; ids deleted in the meantime are skipped
+    private List<BookResponseDto> findAllInOrder(List<UUID> ids) {
+        Map<UUID, BookRepository.BookSummary> books = bookRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookRepository.BookSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(bookMapper::toResponseDto)
+                .toList();
+    }
+
+    private String canonicalIsbn(String isbn) {
+        return IsbnUtils.toIsbn13(isbn)
+                .orElseThrow(() -> {
+                    log.warn("Invalid ISBN: {}", isbn);
+                    return new ApiException("ISBN must be a valid ISBN-10 or ISBN-13", HttpStatus.BAD_REQUEST);
+                });
     }
 }
@@ -3,50 +3,86 @@ package com.hasan.library_management.service.impl;
 import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
 import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
 import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.BookCopy;
 import com.hasan.library_management.entity.BorrowRecord;
 import com.hasan.library_management.entity.User;
 import com.hasan.library_management.exceptions.ApiException;
 import com.hasan.library_management.mapper.BorrowRecordMapper;
+import com.hasan.library_management.repository.ArchivedBorrowRecordRepository;
 import com.hasan.library_management.repository.BookRepository;
 import com.hasan.library_management.repository.BorrowRecordRepository;
 import com.hasan.library_management.repository.UserRepository;
 import com.hasan.library_management.service.BookAvailabilityService;
+import com.hasan.library_management.service.BookCopyService;
 import com.hasan.library_management.service.BorrowRecordService;
+import com.hasan.library_management.service.ReplicaStickiness;
+import com.hasan.library_management.service.ReservationService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("library.service")
 public class BorrowRecordServiceImpl implements BorrowRecordService {
 
     private final BorrowRecordRepository borrowRecordRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
 
+    // Returned loans older than borrow-records.archive.after-months, still part of the history lists
+    private final ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+
     private final BorrowRecordMapper borrowRecordMapper;
 
     // Used for emitting real-time book availability events (Reactive - WebFlux)
     private final BookAvailabilityService bookAvailabilityService;
 
+    // FIFO reservation queue for books that are currently out
+    private final ReservationService reservationService;
+
+    // Physical copies and per-title availability counters
+    private final BookCopyService bookCopyService;
+
+    // Keeps the borrower's reads on the primary until the replica has caught up with the loan
+    private final ReplicaStickiness replicaStickiness;
+
+    // Each archival batch commits on its own, so a long run never holds one large transaction
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${borrow-records.archive.after-months:12}")
+    private int archiveAfterMonths;
+
+    @Value("${borrow-records.archive.batch-size:1000}")
+    private int archiveBatchSize;
+
     @Override
+    @Transactional(readOnly = true)
     public List<BorrowRecordResponseDto> getAll() {
         log.info("Fetching all borrow records");
-        return borrowRecordRepository.findAll()
-                .stream()
-                .map(borrowRecordMapper::toResponseDto)
+        return Stream.concat(
+                        borrowRecordRepository.findAll().stream().map(borrowRecordMapper::toResponseDto),
+                        archivedBorrowRecordRepository.findAll().stream().map(borrowRecordMapper::toResponseDto))
                 .collect(Collectors.toList());
     }
 
 
     @Override
+    @Transactional
     public BorrowRecordResponseDto borrowBook(BorrowRecordRequestDto requestDto) {
         log.info("Processing borrow request: userId={}, bookId={}", requestDto.getUserId(), requestDto.getBookId());
 
@@ -56,7 +92,11 @@ public class BorrowRecordServiceImpl implements BorrowRecordService {
                     return new ApiException("Book not found with id: " + requestDto.getBookId(), HttpStatus.NOT_FOUND);
                 });
 
-        if (!book.isAvailable()) {
+        // A copy held for this user through a reservation is theirs, even when other copies are on the shelf;
+        // borrowing a free copy instead would leave the hold blocking stock until it expires
+        boolean holdClaimed = reservationService.claimHold(book.getId(), requestDto.getUserId());
+
+        if (!holdClaimed && !book.isAvailable()) {
             log.warn("Book with ID {} is not available for borrowing", requestDto.getBookId());
             throw new ApiException("Book is currently not available for borrowing", HttpStatus.BAD_REQUEST);
         }
@@ -70,19 +110,31 @@ public class BorrowRecordServiceImpl implements BorrowRecordService {
         // User eligibility check
         checkUserEligibility(user.getId());
 
+        // Claim a physical copy atomically; the availability check above may be stale under concurrent borrows
+        BookCopy copy = (holdClaimed ? bookCopyService.claimHeldCopy(book.getId()) : bookCopyService.claimFreeCopy(book.getId()))
+                .orElseThrow(() -> {
+                    log.warn("No copy of book {} left to borrow", requestDto.getBookId());
+                    return new ApiException("Book is currently not available for borrowing", HttpStatus.BAD_REQUEST);
+                });
+
         BorrowRecord record = borrowRecordMapper.toEntity(requestDto, user, book);
-        book.setAvailable(false);
+        record.setCopy(copy);
+        borrowRecordRepository.saveAndFlush(record);
 
-        bookAvailabilityService.publishAvailabilityChange(book.getId().toString(), false);
+        // Last write of the borrow, the title row stays locked from here until commit
+        if (!holdClaimed) {
+            bookCopyService.decrementAvailableCopies(book.getId());
+        }
 
-        bookRepository.save(book);
-        borrowRecordRepository.save(record);
+        bookAvailabilityService.publishAvailabilityChange(book.getId().toString(), bookCopyService.hasAvailableCopies(book.getId()));
+        replicaStickiness.recordWrite();
 
         log.info("Borrow record created successfully: recordId={}", record.getId());
         return borrowRecordMapper.toResponseDto(record);
     }
 
     @Override
+    @Transactional
     public BorrowRecordResponseDto returnBook(UUID borrowRecordId) {
         log.info("Processing return for borrow record ID: {}", borrowRecordId);
 
@@ -99,20 +151,28 @@ public class BorrowRecordServiceImpl implements BorrowRecordService {
 
         record.setReturned(true);
         record.setReturnDate(LocalDate.now());
+        borrowRecordRepository.saveAndFlush(record);
 
         Book book = record.getBook();
-        book.setAvailable(true);
-        // Emit event to notify subscribers that the book has been returned and is now available (Reactive - WebFlux)
-        bookAvailabilityService.publishAvailabilityChange(book.getId().toString(), true);
 
-        bookRepository.save(book);
-        borrowRecordRepository.save(record);
+        // Hand the copy to the head of the reservation queue; otherwise it goes back on the shelf.
+        // Shelving increments the title counter, so as in borrowBook it comes last
+        if (reservationService.handOffToNextInQueue(book)) {
+            bookCopyService.holdCopy(record.getCopy());
+        } else {
+            bookCopyService.returnCopy(book.getId(), record.getCopy());
+            // Emit event to notify subscribers that the book has been returned and is now available (Reactive - WebFlux)
+            bookAvailabilityService.publishAvailabilityChange(book.getId().toString(), true);
+        }
+
+        replicaStickiness.recordWrite();
 
         log.info("Book returned successfully for record ID: {}", borrowRecordId);
         return borrowRecordMapper.toResponseDto(record);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BorrowRecordResponseDto> getBorrowRecordsByUserId(UUID userId) {
         log.info("Fetching borrow records for user ID: {}", userId);
 
@@ -121,26 +181,22 @@ public class BorrowRecordServiceImpl implements BorrowRecordService {
             throw new ApiException("User not found with id: " + userId, HttpStatus.NOT_FOUND);
         }
 
-        return borrowRecordRepository.findByUserId(userId)
-                .stream()
-                .map(borrowRecordMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return historyOf(userId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BorrowRecordResponseDto> getOwnBorrowRecords(String emailFromToken) {
         User user = userRepository.findByEmail(emailFromToken)
                 .orElseThrow(() -> new ApiException("User not found with email: " + emailFromToken, HttpStatus.NOT_FOUND));
 
         log.info("Fetching borrow records for authenticated user ID: {}", user.getId());
 
-        return borrowRecordRepository.findByUserId(user.getId())
-                .stream()
-                .map(borrowRecordMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return historyOf(user.getId());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BorrowRecordResponseDto> getOverdueRecords() {
         log.info("Fetching overdue borrow records (not returned, due date before today)");
         return borrowRecordRepository.findByReturnedFalseAndDueDateBefore(LocalDate.now())
@@ -149,6 +205,14 @@ public class BorrowRecordServiceImpl implements BorrowRecordService {
                 .collect(Collectors.toList());
     }
 
+    // Active and recent records first, then the archived ones
+    private List<BorrowRecordResponseDto> historyOf(UUID userId) {
+        return Stream.concat(
+                        borrowRecordRepository.findByUserId(userId).stream().map(borrowRecordMapper::toResponseDto),
+                        archivedBorrowRecordRepository.findByUserId(userId).stream().map(borrowRecordMapper::toResponseDto))
+                .collect(Collectors.toList());
+    }
+
     private void checkUserEligibility(UUID userId) {
         int activeBookCount = borrowRecordRepository.countByUserIdAndReturnedFalse(userId);
         boolean hasOverdueBooks = borrowRecordRepository.existsByUserIdAndReturnedFalseAndDueDateBefore(userId, LocalDate.now());
@@ -165,6 +229,7 @@ public class BorrowRecordServiceImpl implements BorrowRecordService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public String generateOverdueReport() {
         List<BorrowRecord> overdueRecords = borrowRecordRepository.findByReturnedFalseAndDueDateBefore(LocalDate.now());
 
@@ -205,4 +270,31 @@ public class BorrowRecordServiceImpl implements BorrowRecordService {
         return reportText;
     }
 
-}
\ No newline at end of file
+    @Override
+    @Scheduled(cron = "${borrow-records.archive.cron:0 30 3 * * *}")
+    public void archiveReturnedRecords() {
+        LocalDate cutoff = LocalDate.now().minusMonths(archiveAfterMonths);
+        long started = System.currentTimeMillis();
+        int archived = 0;
+        int moved;
+
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            archived += moved;
+        } while (moved == archiveBatchSize);
+
+        if (archived > 0) {
+            log.info("Archived {} borrow records returned before {} in {} ms", archived, cutoff, System.currentTimeMillis() - started);
+        }
+    }
+
+    // Copies one batch into borrow_records_archive and removes it from borrow_records
+    private int archiveBatch(LocalDate cutoff) {
+        List<UUID> ids = borrowRecordRepository.findArchivableIds(cutoff, PageRequest.of(0, archiveBatchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        borrowRecordRepository.copyToArchive(ids);
+        return borrowRecordRepository.deleteByIdIn(ids);
+    }
+}
@@ -0,0 +1,220 @@
+package com.hasan.library_management.service.impl;
+
+import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
+import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import com.hasan.library_management.entity.CopyStatus;
+import com.hasan.library_management.entity.ReservationStatus;
+import com.hasan.library_management.exceptions.ApiException;
+import com.hasan.library_management.repository.ReactiveBorrowRecordRepository;
+import com.hasan.library_management.repository.ReactiveBorrowRecordRepository.Loan;
+import com.hasan.library_management.service.BookAvailabilityService;
+import com.hasan.library_management.service.ReactiveBorrowRecordService;
+import com.hasan.library_management.util.UuidV7;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Borrow/return on R2DBC, with the same rules as {@link BorrowRecordServiceImpl}: eligibility checks, lock-free
+ * copy claims and the reservation hand-off. Each operation runs in one R2DBC transaction and availability events
+ * are published only after it commits.
+ **/
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveBorrowRecordServiceImpl implements ReactiveBorrowRecordService {
+
+    private static final int MAX_ACTIVE_LOANS = 5;
+    private static final int CLAIM_CANDIDATES = 8;
+    private static final int MAX_CLAIM_ROUNDS = 3;
+
+    private final ReactiveBorrowRecordRepository borrowRecordRepository;
+    private final TransactionalOperator transactionalOperator;
+
+    // Same sink as the blocking path, so both feed /books/availability-stream
+    private final BookAvailabilityService bookAvailabilityService;
+
+    @Value("${reservation.pickup-window-hours:48}")
+    private long pickupWindowHours;
+
+    @Override
+    public Flux<BorrowRecordResponseDto> getAll() {
+        log.info("Streaming all borrow records");
+        return borrowRecordRepository.findAll();
+    }
+
+    @Override
+    public Mono<BorrowRecordResponseDto> borrowBook(BorrowRecordRequestDto requestDto) {
+        UUID bookId = requestDto.getBookId();
+        UUID userId = requestDto.getUserId();
+        UUID recordId = UuidV7.randomUuid();
+        log.info("Processing borrow request: userId={}, bookId={}", userId, bookId);
+
+        return borrowRecordRepository.findBookAvailability(bookId)
+                .switchIfEmpty(Mono.error(() -> new ApiException("Book not found with id: " + bookId, HttpStatus.NOT_FOUND)))
+                // A book held for this user through a reservation can only be borrowed by them
+                .flatMap(available -> available ? Mono.just(false) : claimHold(bookId, userId)
+                        .filter(Boolean::booleanValue)
+                        .switchIfEmpty(Mono.error(this::notAvailable)))
+                .flatMap(holdClaimed -> checkUserEligibility(userId)
+                        .then(Mono.defer(() -> claimCopy(bookId, holdClaimed ? CopyStatus.ON_HOLD : CopyStatus.AVAILABLE, 0)))
+                        .switchIfEmpty(Mono.error(this::notAvailable))
+                        .flatMap(copyId -> borrowRecordRepository.insert(recordId, requestDto, copyId))
+                        // Held copies were never counted as available
+                        .then(Mono.defer(() -> holdClaimed ? Mono.<Void>empty() : decrementAvailableCopies(bookId))))
+                .as(transactionalOperator::transactional)
+                .then(Mono.defer(() -> borrowRecordRepository.findAvailableCopies(bookId)))
+                .doOnNext(availableCopies -> bookAvailabilityService.publishAvailabilityChange(bookId.toString(), availableCopies > 0))
+                .then(Mono.defer(() -> borrowRecordRepository.findById(recordId)))
+                .doOnNext(record -> log.info("Borrow record created successfully: recordId={}", record.getId()));
+    }
+
+    @Override
+    public Mono<BorrowRecordResponseDto> returnBook(UUID borrowRecordId) {
+        log.info("Processing return for borrow record ID: {}", borrowRecordId);
+
+        return borrowRecordRepository.findLoan(borrowRecordId)
+                .switchIfEmpty(Mono.error(() -> new ApiException("Borrow record not found with id: " + borrowRecordId, HttpStatus.NOT_FOUND)))
+                .flatMap(loan -> borrowRecordRepository.markReturned(borrowRecordId, LocalDate.now())
+                        .flatMap(updated -> updated == 0
+                                ? Mono.error(new ApiException("This book has already been returned", HttpStatus.BAD_REQUEST))
+                                : handOffOrShelve(loan)))
+                .as(transactionalOperator::transactional)
+                .doOnNext(Runnable::run)
+                .then(Mono.defer(() -> borrowRecordRepository.findById(borrowRecordId)))
+                .doOnNext(record -> log.info("Book returned successfully for record ID: {}", borrowRecordId));
+    }
+
+    @Override
+    public Flux<BorrowRecordResponseDto> getBorrowRecordsByUserId(UUID userId) {
+        return borrowRecordRepository.existsUser(userId)
+                .flatMapMany(exists -> exists
+                        ? borrowRecordRepository.findByUserId(userId)
+                        : Flux.error(new ApiException("User not found with id: " + userId, HttpStatus.NOT_FOUND)));
+    }
+
+    @Override
+    public Flux<BorrowRecordResponseDto> getOwnBorrowRecords(String emailFromToken) {
+        return borrowRecordRepository.findUserIdByEmail(emailFromToken)
+                .switchIfEmpty(Mono.error(() -> new ApiException("User not found with email: " + emailFromToken, HttpStatus.NOT_FOUND)))
+                .flatMapMany(borrowRecordRepository::findByUserId);
+    }
+
+    @Override
+    public Flux<BorrowRecordResponseDto> getOverdueRecords() {
+        return borrowRecordRepository.findOverdue(LocalDate.now());
+    }
+
+    // Queries run one after another: statements on a transactional R2DBC connection must not overlap
+    private Mono<Void> checkUserEligibility(UUID userId) {
+        return borrowRecordRepository.existsUser(userId)
+                .flatMap(exists -> exists
+                        ? borrowRecordRepository.countOpenLoans(userId)
+                        : Mono.error(new ApiException("User not found with id: " + userId, HttpStatus.NOT_FOUND)))
+                .flatMap(activeBookCount -> activeBookCount >= MAX_ACTIVE_LOANS
+                        ? Mono.error(new ApiException("You have reached the maximum limit of 5 borrowed books.", HttpStatus.BAD_REQUEST))
+                        : borrowRecordRepository.hasOverdueLoans(userId, LocalDate.now()))
+                .flatMap(hasOverdueBooks -> hasOverdueBooks
+                        ? Mono.error(new ApiException("You have overdue books. Please return them before borrowing more.", HttpStatus.BAD_REQUEST))
+                        : Mono.empty());
+    }
+
+    private Mono<Boolean> claimHold(UUID bookId, UUID userId) {
+        return borrowRecordRepository.findReadyHold(bookId, userId, LocalDateTime.now())
+                .flatMap(holdId -> borrowRecordRepository.compareAndSetReservationStatus(holdId, ReservationStatus.READY, ReservationStatus.FULFILLED))
+                .map(updated -> updated == 1)
+                .defaultIfEmpty(false);
+    }
+
+    // Last statement of the borrow: the title row stays locked from this update until commit
+    private Mono<Void> decrementAvailableCopies(UUID bookId) {
+        return borrowRecordRepository.decrementAvailableCopies(bookId)
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new ApiException("Book is currently not available for borrowing", HttpStatus.CONFLICT))
+                        : Mono.empty());
+    }
+
+    // Lock-free claim, see BookCopyServiceImpl: a conditional UPDATE per candidate, retried with fresh candidates
+    private Mono<UUID> claimCopy(UUID bookId, CopyStatus from, int round) {
+        if (round == MAX_CLAIM_ROUNDS) {
+            log.warn("Could not claim a {} copy of book {} after {} rounds", from, bookId, MAX_CLAIM_ROUNDS);
+            return Mono.empty();
+        }
+
+        return borrowRecordRepository.findCopyIds(bookId, from, CLAIM_CANDIDATES)
+                .collectList()
+                .filter(candidates -> !candidates.isEmpty())
+                .flatMap(candidates -> {
+                    List<UUID> shuffled = new ArrayList<>(candidates);
+                    Collections.shuffle(shuffled, ThreadLocalRandom.current());
+
+                    return Flux.fromIterable(shuffled)
+                            .concatMap(candidate -> borrowRecordRepository.compareAndSetCopyStatus(candidate, from, CopyStatus.ON_LOAN)
+                                    .filter(updated -> updated == 1)
+                                    .map(updated -> candidate))
+                            .next()
+                            .switchIfEmpty(Mono.defer(() -> claimCopy(bookId, from, round + 1)));
+                });
+    }
+
+    // Returns the availability event to publish once the transaction has committed
+    private Mono<Runnable> handOffOrShelve(Loan loan) {
+        UUID bookId = loan.bookId();
+
+        Mono<Runnable> handOff = handOffToNextInQueue(bookId, LocalDateTime.now().plusHours(pickupWindowHours))
+                .flatMap(userId -> {
+                    Runnable handoffEvent = () -> bookAvailabilityService.publishHandoff(bookId.toString(), userId.toString());
+                    return setCopyStatus(loan, CopyStatus.ON_HOLD).thenReturn(handoffEvent);
+                });
+
+        Runnable availableEvent = () -> bookAvailabilityService.publishAvailabilityChange(bookId.toString(), true);
+        // The counter follows the copy: a copy that was not on loan must not add stock
+        Mono<Runnable> shelve = Mono.defer(() -> setCopyStatus(loan, CopyStatus.AVAILABLE)
+                .flatMap(moved -> {
+                    if (!moved) {
+                        log.warn("Copy {} of book {} was not on loan, available counter left unchanged", loan.copyId(), bookId);
+                        return Mono.just((Runnable) () -> { });
+                    }
+                    return borrowRecordRepository.incrementAvailableCopies(bookId).thenReturn(availableEvent);
+                }));
+
+        return handOff.switchIfEmpty(shelve);
+    }
+
+    // Retries with the new queue head whenever a concurrent cancel or hand-off wins the race
+    private Mono<UUID> handOffToNextInQueue(UUID bookId, LocalDateTime readyUntil) {
+        return borrowRecordRepository.findQueueHead(bookId)
+                .flatMap(head -> borrowRecordRepository.promoteToReady(head.reservationId(), readyUntil)
+                        .flatMap(updated -> updated == 1
+                                ? Mono.just(head.userId())
+                                : handOffToNextInQueue(bookId, readyUntil)));
+    }
+
+    // Records created before copies were tracked have no copy to update, only the title counter knows about the loan
+    private Mono<Boolean> setCopyStatus(Loan loan, CopyStatus next) {
+        if (loan.copyId() == null) {
+            return Mono.just(true);
+        }
+        return borrowRecordRepository.compareAndSetCopyStatus(loan.copyId(), CopyStatus.ON_LOAN, next)
+                .map(updated -> updated == 1);
+    }
+
+    private ApiException notAvailable() {
+        return new ApiException("Book is currently not available for borrowing", HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,237 @@
+package com.hasan.library_management.service.impl;
+
+import com.hasan.library_management.dto.response.ReservationResponseDto;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.Reservation;
+import com.hasan.library_management.entity.ReservationStatus;
+import com.hasan.library_management.entity.Role;
+import com.hasan.library_management.entity.User;
+import com.hasan.library_management.exceptions.ApiException;
+import com.hasan.library_management.mapper.ReservationMapper;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.repository.BorrowRecordRepository;
+import com.hasan.library_management.repository.ReservationRepository;
+import com.hasan.library_management.repository.UserRepository;
+import com.hasan.library_management.service.BookAvailabilityService;
+import com.hasan.library_management.service.BookCopyService;
+import com.hasan.library_management.service.ReservationService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed("library.service")
+public class ReservationServiceImpl implements ReservationService {
+
+    private final ReservationRepository reservationRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+
+    private final BookCopyService bookCopyService;
+
+    private final ReservationMapper reservationMapper;
+
+    // Used for signalling handoffs to subscribers of the availability stream
+    private final BookAvailabilityService bookAvailabilityService;
+
+    @Value("${reservation.pickup-window-hours:48}")
+    private long pickupWindowHours;
+
+    @Override
+    @Transactional
+    public ReservationResponseDto reserveBook(UUID bookId, String emailFromToken) {
+        User user = userRepository.findByEmail(emailFromToken)
+                .orElseThrow(() -> new ApiException("User not found with email: " + emailFromToken, HttpStatus.NOT_FOUND));
+
+        log.info("Processing reservation request: userId={}, bookId={}", user.getId(), bookId);
+
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> {
+                    log.warn("Book not found with ID: {}", bookId);
+                    return new ApiException("Book not found with id: " + bookId, HttpStatus.NOT_FOUND);
+                });
+
+        if (book.isAvailable()) {
+            log.warn("Book with ID {} is available, reservation rejected", bookId);
+            throw new ApiException("Book is available, please borrow it directly", HttpStatus.BAD_REQUEST);
+        }
+
+        if (reservationRepository.existsByBookIdAndUserIdAndStatusIn(bookId, user.getId(),
+                EnumSet.of(ReservationStatus.WAITING, ReservationStatus.READY))) {
+            log.warn("User {} already has an active reservation for book {}", user.getId(), bookId);
+            throw new ApiException("You already have an active reservation for this book", HttpStatus.CONFLICT);
+        }
+
+        if (borrowRecordRepository.existsByUserIdAndBookIdAndReturnedFalse(user.getId(), bookId)) {
+            log.warn("User {} currently borrows book {}", user.getId(), bookId);
+            throw new ApiException("You are currently borrowing this book", HttpStatus.BAD_REQUEST);
+        }
+
+        Reservation reservation = Reservation.builder()
+                .book(book)
+                .user(user)
+                .status(ReservationStatus.WAITING)
+                // Stored with microsecond precision; a finer in-memory value would count this reservation as ahead of itself
+                .createdAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .build();
+
+        reservation = reservationRepository.save(reservation);
+        log.info("Reservation created successfully: reservationId={}", reservation.getId());
+        return reservationMapper.toResponseDto(reservation, queuePosition(reservation));
+    }
+
+    @Override
+    @Transactional
+    public void cancelReservation(UUID reservationId, String emailFromToken) {
+        log.info("Cancelling reservation with ID: {}", reservationId);
+
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> {
+                    log.warn("Reservation not found with ID: {}", reservationId);
+                    return new ApiException("Reservation not found with id: " + reservationId, HttpStatus.NOT_FOUND);
+                });
+
+        User caller = userRepository.findByEmail(emailFromToken)
+                .orElseThrow(() -> new ApiException("User not found with email: " + emailFromToken, HttpStatus.NOT_FOUND));
+
+        if (!reservation.getUser().getId().equals(caller.getId()) && caller.getRole() != Role.LIBRARIAN) {
+            log.warn("User {} is not allowed to cancel reservation {}", caller.getId(), reservationId);
+            throw new ApiException("You can only cancel your own reservations", HttpStatus.FORBIDDEN);
+        }
+
+        ReservationStatus status = reservation.getStatus();
+        if ((status != ReservationStatus.WAITING && status != ReservationStatus.READY)
+                || reservationRepository.compareAndSetStatus(reservationId, status, ReservationStatus.CANCELLED) == 0) {
+            log.warn("Reservation with ID {} is no longer active", reservationId);
+            throw new ApiException("This reservation is no longer active", HttpStatus.BAD_REQUEST);
+        }
+
+        // A cancelled hold passes the copy on to the next patron in line
+        if (status == ReservationStatus.READY) {
+            releaseHold(reservation.getBook());
+        }
+
+        log.info("Reservation cancelled with ID: {}", reservationId);
+    }
+
+    @Override
+    public List<ReservationResponseDto> getOwnReservations(String emailFromToken) {
+        User user = userRepository.findByEmail(emailFromToken)
+                .orElseThrow(() -> new ApiException("User not found with email: " + emailFromToken, HttpStatus.NOT_FOUND));
+
+        log.info("Fetching reservations for authenticated user ID: {}", user.getId());
+
+        return reservationRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
+                .stream()
+                .map(reservation -> reservationMapper.toResponseDto(reservation, queuePosition(reservation)))
+                .toList();
+    }
+
+    @Override
+    public List<ReservationResponseDto> getQueueForBook(UUID bookId) {
+        log.info("Fetching reservation queue for book ID: {}", bookId);
+
+        if (!bookRepository.existsById(bookId)) {
+            log.warn("Book not found with ID: {}", bookId);
+            throw new ApiException("Book not found with id: " + bookId, HttpStatus.NOT_FOUND);
+        }
+
+        List<Reservation> queue = reservationRepository.findByBookIdAndStatusOrderByCreatedAtAsc(bookId, ReservationStatus.WAITING);
+        return IntStream.range(0, queue.size())
+                .mapToObj(i -> reservationMapper.toResponseDto(queue.get(i), (long) i + 1))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public boolean claimHold(UUID bookId, UUID userId) {
+        Optional<Reservation> hold = reservationRepository.findFirstByBookIdAndUserIdAndStatus(bookId, userId, ReservationStatus.READY);
+
+        if (hold.isEmpty()) {
+            return false;
+        }
+
+        Reservation reservation = hold.get();
+        if (reservation.getReadyUntil() != null && reservation.getReadyUntil().isBefore(LocalDateTime.now())) {
+            log.warn("Hold {} for user {} has expired", reservation.getId(), userId);
+            return false;
+        }
+
+        boolean claimed = reservationRepository.compareAndSetStatus(
+                reservation.getId(), ReservationStatus.READY, ReservationStatus.FULFILLED) == 1;
+
+        if (claimed) {
+            log.info("Hold {} fulfilled by user {}", reservation.getId(), userId);
+        }
+        return claimed;
+    }
+
+    @Override
+    @Transactional
+    public boolean handOffToNextInQueue(Book book) {
+        LocalDateTime readyUntil = LocalDateTime.now().plusHours(pickupWindowHours);
+
+        // Lock-free handoff: retry with the new head whenever a concurrent cancel or handoff wins the race
+        Optional<Reservation> head;
+        while ((head = reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(book.getId(), ReservationStatus.WAITING)).isPresent()) {
+            Reservation next = head.get();
+
+            if (reservationRepository.promoteToReady(next.getId(), readyUntil) == 1) {
+                log.info("Book {} handed to reservation {} until {}", book.getId(), next.getId(), readyUntil);
+                bookAvailabilityService.publishHandoff(book.getId().toString(), next.getUser().getId().toString());
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${reservation.expiry-check-interval-ms:60000}",
+            initialDelayString = "${reservation.expiry-check-interval-ms:60000}")
+    public void expireStaleHolds() {
+        List<Reservation> expired = reservationRepository.findByStatusAndReadyUntilBefore(ReservationStatus.READY, LocalDateTime.now());
+
+        for (Reservation reservation : expired) {
+            if (reservationRepository.compareAndSetStatus(reservation.getId(), ReservationStatus.READY, ReservationStatus.EXPIRED) == 1) {
+                log.info("Hold {} expired, passing book {} on", reservation.getId(), reservation.getBook().getId());
+                releaseHold(reservation.getBook());
+            }
+        }
+    }
+
+    // Hands the held copy to the next patron, or puts it back on the shelf when nobody is waiting
+    private void releaseHold(Book book) {
+        if (handOffToNextInQueue(book)) {
+            return;
+        }
+
+        bookCopyService.releaseHeldCopy(book.getId());
+        bookAvailabilityService.publishAvailabilityChange(book.getId().toString(), true);
+    }
+
+    private Long queuePosition(Reservation reservation) {
+        if (reservation.getStatus() != ReservationStatus.WAITING) {
+            return null;
+        }
+        return reservationRepository.countByBookIdAndStatusAndCreatedAtBefore(
+                reservation.getBook().getId(), ReservationStatus.WAITING, reservation.getCreatedAt()) + 1;
+    }
+}
@@ -7,12 +7,18 @@ import com.hasan.library_management.entity.Role;
 import com.hasan.library_management.entity.User;
 import com.hasan.library_management.exceptions.ApiException;
 import com.hasan.library_management.mapper.UserMapper;
+import com.hasan.library_management.repository.EntityVersion;
 import com.hasan.library_management.repository.UserRepository;
+import com.hasan.library_management.security.TokenRevocationList;
 import com.hasan.library_management.service.UserService;
+import com.hasan.library_management.util.ResourceVersion;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,23 +26,27 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("library.service")
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final TokenRevocationList tokenRevocationList;
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserResponseDto> getAllUsers() {
         log.info("Fetching all users");
-        return userRepository.findAll().stream()
+        return userRepository.findAllSummaries().stream()
                 .map(userMapper::toResponseDto)
                 .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponseDto getUserById(UUID id) {
         log.info("Fetching user with ID: {}", id);
-        User user = userRepository.findById(id)
+        UserRepository.UserSummary user = userRepository.findSummaryById(id)
                 .orElseThrow(() -> {
                     log.warn("User not found with ID: {}", id);
                     return new ApiException("User not found with id: " + id, HttpStatus.NOT_FOUND);
@@ -45,12 +55,32 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponseDto getOwnUserDetails(String emailFromToken) {
-        User user = userRepository.findByEmail(emailFromToken)
+        UserRepository.UserSummary user = userRepository.findSummaryByEmail(emailFromToken)
                 .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
         return userMapper.toResponseDto(user);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getUserVersion(UUID id) {
+        EntityVersion version = userRepository.findVersionById(id)
+                .orElseThrow(() -> {
+                    log.warn("User not found with ID: {}", id);
+                    return new ApiException("User not found with id: " + id, HttpStatus.NOT_FOUND);
+                });
+        return ResourceVersion.of(version.getId(), version.getVersion(), version.getUpdatedAt());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getOwnUserVersion(String emailFromToken) {
+        EntityVersion version = userRepository.findVersionByEmail(emailFromToken)
+                .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
+        return ResourceVersion.of(version.getId(), version.getVersion(), version.getUpdatedAt());
+    }
+
 
 
 
@@ -64,9 +94,20 @@ public class UserServiceImpl implements UserService {
                     return new ApiException("User not found with id: " + id, HttpStatus.NOT_FOUND);
                 });
 
+        String previousEmail = existingUser.getEmail();
+        Role previousRole = existingUser.getRole();
         userMapper.updateEntityFromAdminDto(existingUser, dto);
 
-        userRepository.save(existingUser);
+        try {
+            userRepository.save(existingUser);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.warn("User was modified concurrently, ID: {}", id);
+            throw new ApiException("User was modified concurrently, please retry: " + id, HttpStatus.CONFLICT);
+        }
+        // Issued tokens carry email and role, so they must not outlive a change to either
+        if (!previousEmail.equalsIgnoreCase(existingUser.getEmail()) || previousRole != existingUser.getRole()) {
+            tokenRevocationList.revokeSubject(previousEmail);
+        }
         log.info("User updated successfully with ID: {}", id);
 
         return userMapper.toResponseDto(existingUser);
@@ -84,6 +125,7 @@ public class UserServiceImpl implements UserService {
                 });
 
         userRepository.delete(user);
+        tokenRevocationList.revokeSubject(user.getEmail());
         log.info("User deleted with ID: {}", id);
     }
 }
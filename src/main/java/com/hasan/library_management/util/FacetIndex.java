@@ -0,0 +1,223 @@
+package com.hasan.library_management.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Facet values of in-memory documents as bitsets over dense document ordinals. Filtering is a bitwise AND
+ * across facets (OR within one facet) and counting is a cardinality of intersections, so a filtered,
+ * faceted result needs no query. Values match case-insensitively and keep their first-seen spelling as label.
+ * Not thread-safe; callers guard it with a lock.
+ **/
+public final class FacetIndex<K> {
+
+    private final String[] facetNames;
+    private final Map<K, Integer> ordinals = new HashMap<>();
+    private final List<K> keys = new ArrayList<>();
+    private final List<String[]> values = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    // facet -> normalised value -> documents having it
+    private final Map<String, Map<String, Value>> facets = new LinkedHashMap<>();
+
+    private static final class Value {
+        private final String label;
+        private final BitSet documents = new BitSet();
+
+        private Value(String label) {
+            this.label = label;
+        }
+    }
+
+    public record Count(String value, int count) {
+    }
+
+    public FacetIndex(String... facetNames) {
+        this.facetNames = facetNames.clone();
+        for (String facet : facetNames) {
+            facets.put(facet, new HashMap<>());
+        }
+    }
+
+    // One value per facet, in constructor order; null leaves the document out of that facet
+    public void put(K key, String... facetValues) {
+        Integer ordinal = ordinals.get(key);
+        if (ordinal == null) {
+            ordinal = freeOrdinals.isEmpty() ? keys.size() : freeOrdinals.pop();
+            ordinals.put(key, ordinal);
+            if (ordinal == keys.size()) {
+                keys.add(key);
+                values.add(new String[facetNames.length]);
+            } else {
+                keys.set(ordinal, key);
+            }
+            live.set(ordinal);
+        }
+
+        for (int facet = 0; facet < facetNames.length; facet++) {
+            set(ordinal, facet, facet < facetValues.length ? facetValues[facet] : null);
+        }
+    }
+
+    // Changes a single facet value, e.g. availability after a loan
+    public void set(K key, String facetName, String value) {
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            set(ordinal, facetIndex(facetName), value);
+        }
+    }
+
+    public void remove(K key) {
+        Integer ordinal = ordinals.remove(key);
+        if (ordinal == null) {
+            return;
+        }
+        for (int facet = 0; facet < facetNames.length; facet++) {
+            set(ordinal, facet, null);
+        }
+        live.clear(ordinal);
+        keys.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    public BitSet all() {
+        return (BitSet) live.clone();
+    }
+
+    public BitSet ordinalsOf(Collection<K> documentKeys) {
+        BitSet result = new BitSet(keys.size());
+        for (K key : documentKeys) {
+            Integer ordinal = ordinals.get(key);
+            if (ordinal != null) {
+                result.set(ordinal);
+            }
+        }
+        return result;
+    }
+
+    public K key(int ordinal) {
+        return keys.get(ordinal);
+    }
+
+    /**
+     * Documents of base that match the selected values of every facet in filters.
+     **/
+    public BitSet filter(BitSet base, Map<String, ? extends Collection<String>> filters) {
+        return filterExcept(base, filters, null);
+    }
+
+    /**
+     * Value counts per facet, highest first and at most maxValues each. A facet is counted over base filtered
+     * by the other facets only, so the counts show what selecting another value of it would return.
+     * Facets with many values are tallied by walking the matches instead of intersecting one bitset per value.
+     **/
+    public Map<String, List<Count>> counts(BitSet base, Map<String, ? extends Collection<String>> filters, int maxValues) {
+        Map<String, List<Count>> result = new LinkedHashMap<>();
+        BitSet scratch = new BitSet();
+
+        for (int facet = 0; facet < facetNames.length; facet++) {
+            Map<String, Value> facetValues = facets.get(facetNames[facet]);
+            BitSet candidates = filterExcept(base, filters, facetNames[facet]);
+            int matches = candidates.cardinality();
+
+            List<Count> counts = new ArrayList<>();
+            if ((long) facetValues.size() * (keys.size() / 64 + 1) <= matches) {
+                for (Value value : facetValues.values()) {
+                    scratch.clear();
+                    scratch.or(candidates);
+                    scratch.and(value.documents);
+                    int count = scratch.cardinality();
+                    if (count > 0) {
+                        counts.add(new Count(value.label, count));
+                    }
+                }
+            } else {
+                Map<String, Integer> tally = new HashMap<>();
+                for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                    String value = values.get(ordinal)[facet];
+                    if (value != null) {
+                        tally.merge(value, 1, Integer::sum);
+                    }
+                }
+                tally.forEach((value, count) -> counts.add(new Count(facetValues.get(value).label, count)));
+            }
+
+            counts.sort(Comparator.comparingInt(Count::count).reversed().thenComparing(Count::value));
+            result.put(facetNames[facet], counts.size() > maxValues ? new ArrayList<>(counts.subList(0, maxValues)) : counts);
+        }
+        return result;
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+
+    private BitSet filterExcept(BitSet base, Map<String, ? extends Collection<String>> filters, String skippedFacet) {
+        BitSet result = (BitSet) base.clone();
+        result.and(live);
+
+        for (Map.Entry<String, ? extends Collection<String>> filter : filters.entrySet()) {
+            if (filter.getKey().equals(skippedFacet) || filter.getValue() == null || filter.getValue().isEmpty()) {
+                continue;
+            }
+            Map<String, Value> facetValues = facets.get(filter.getKey());
+            if (facetValues == null) {
+                throw new IllegalArgumentException("Unknown facet: " + filter.getKey());
+            }
+
+            BitSet anyOf = new BitSet();
+            for (String selected : filter.getValue()) {
+                Value value = facetValues.get(normalize(selected));
+                if (value != null) {
+                    anyOf.or(value.documents);
+                }
+            }
+            result.and(anyOf);
+        }
+        return result;
+    }
+
+    private void set(int ordinal, int facet, String rawValue) {
+        String value = rawValue == null || rawValue.isBlank() ? null : normalize(rawValue);
+        String[] documentValues = values.get(ordinal);
+        String previous = documentValues[facet];
+        if (previous != null && previous.equals(value)) {
+            return;
+        }
+
+        Map<String, Value> facetValues = facets.get(facetNames[facet]);
+        if (previous != null) {
+            Value old = facetValues.get(previous);
+            old.documents.clear(ordinal);
+            if (old.documents.isEmpty()) {
+                facetValues.remove(previous);
+            }
+        }
+        if (value != null) {
+            facetValues.computeIfAbsent(value, v -> new Value(rawValue.trim())).documents.set(ordinal);
+        }
+        documentValues[facet] = value;
+    }
+
+    private int facetIndex(String facetName) {
+        for (int facet = 0; facet < facetNames.length; facet++) {
+            if (facetNames[facet].equals(facetName)) {
+                return facet;
+            }
+        }
+        throw new IllegalArgumentException("Unknown facet: " + facetName);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,282 @@
+package com.hasan.library_management.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory inverted index over documents with weighted text fields, scored with BM25 per field.
+ * Query terms are matched typo-tolerantly: a trigram index over the term dictionary yields candidates,
+ * which are kept when their edit distance (with transpositions) is within 1 for terms of up to 5 letters
+ * and 2 beyond. Candidates must share at least |T| - 3k of the query's trigrams (the q-gram lemma for k edits);
+ * a transposition can break 4 trigrams, so single swaps of adjacent letters are looked up directly instead.
+ * A fuzzy match counts for less than an exact one. Not thread-safe; callers guard it with a lock.
+ **/
+public final class FuzzyIndex<K> {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Trigrams; an insertion, deletion or substitution breaks at most Q of them
+    private static final int Q = 3;
+
+    private final double[] fieldWeights;
+
+    // term -> document -> occurrences per field
+    private final Map<String, Map<K, int[]>> postings = new HashMap<>();
+    // trigram -> terms containing it
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<K, String[][]> documents = new HashMap<>();
+    private final long[] totalFieldLengths;
+
+    public record Hit<K>(K key, double score) {
+    }
+
+    public record Result<K>(int total, List<Hit<K>> hits) {
+    }
+
+    private record Match(String term, double similarity) {
+    }
+
+    public FuzzyIndex(double... fieldWeights) {
+        this.fieldWeights = fieldWeights.clone();
+        this.totalFieldLengths = new long[fieldWeights.length];
+    }
+
+    public void put(K key, String... fields) {
+        remove(key);
+
+        String[][] terms = new String[fieldWeights.length][];
+        for (int field = 0; field < fieldWeights.length; field++) {
+            terms[field] = TextNormalizer.terms(field < fields.length ? fields[field] : null);
+            totalFieldLengths[field] += terms[field].length;
+
+            for (String term : terms[field]) {
+                Map<K, int[]> documentsWithTerm = postings.get(term);
+                if (documentsWithTerm == null) {
+                    documentsWithTerm = new HashMap<>();
+                    postings.put(term, documentsWithTerm);
+                    for (String trigram : trigramsOf(term)) {
+                        trigrams.computeIfAbsent(trigram, t -> new HashSet<>()).add(term);
+                    }
+                }
+                documentsWithTerm.computeIfAbsent(key, k -> new int[fieldWeights.length])[field]++;
+            }
+        }
+        documents.put(key, terms);
+    }
+
+    public void remove(K key) {
+        String[][] terms = documents.remove(key);
+        if (terms == null) {
+            return;
+        }
+
+        for (int field = 0; field < terms.length; field++) {
+            totalFieldLengths[field] -= terms[field].length;
+            for (String term : terms[field]) {
+                Map<K, int[]> documentsWithTerm = postings.get(term);
+                if (documentsWithTerm == null || documentsWithTerm.remove(key) == null) {
+                    continue;
+                }
+                if (documentsWithTerm.isEmpty()) {
+                    postings.remove(term);
+                    for (String trigram : trigramsOf(term)) {
+                        Set<String> withTrigram = trigrams.get(trigram);
+                        withTrigram.remove(term);
+                        if (withTrigram.isEmpty()) {
+                            trigrams.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores every document matching at least one query term and returns the total
+     * together with the best {@code limit} hits, highest score first.
+     **/
+    public Result<K> search(String query, int limit) {
+        Map<K, Double> scores = scores(query);
+
+        Comparator<Hit<K>> byScore = Comparator.comparingDouble(Hit::score);
+        PriorityQueue<Hit<K>> top = new PriorityQueue<>(byScore);
+        scores.forEach((key, score) -> {
+            if (limit <= 0) {
+                return;
+            }
+            if (top.size() < limit) {
+                top.add(new Hit<>(key, score));
+            } else if (top.peek().score() < score) {
+                top.poll();
+                top.add(new Hit<>(key, score));
+            }
+        });
+
+        List<Hit<K>> hits = new ArrayList<>(top);
+        hits.sort(byScore.reversed());
+        return new Result<>(scores.size(), hits);
+    }
+
+    // Score of every document matching at least one query term, for callers that filter before ranking
+    public Map<K, Double> scores(String query) {
+        Map<K, Double> scores = new HashMap<>();
+        int documentCount = documents.size();
+
+        for (String queryTerm : new HashSet<>(List.of(TextNormalizer.terms(query)))) {
+            // A document matching several spellings of one query term is scored on the best one only
+            Map<K, Double> best = new HashMap<>();
+            for (Match match : expand(queryTerm)) {
+                Map<K, int[]> documentsWithTerm = postings.get(match.term());
+                double idf = Math.log(1 + (documentCount - documentsWithTerm.size() + 0.5) / (documentsWithTerm.size() + 0.5));
+
+                documentsWithTerm.forEach((key, frequencies) -> {
+                    double score = match.similarity() * idf * bm25(frequencies, documents.get(key), documentCount);
+                    best.merge(key, score, Math::max);
+                });
+            }
+            best.forEach((key, score) -> scores.merge(key, score, Double::sum));
+        }
+        return scores;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private double bm25(int[] frequencies, String[][] terms, int documentCount) {
+        double score = 0;
+        for (int field = 0; field < frequencies.length; field++) {
+            if (frequencies[field] == 0) {
+                continue;
+            }
+            double averageLength = Math.max(1, (double) totalFieldLengths[field] / documentCount);
+            double norm = K1 * (1 - B + B * terms[field].length / averageLength);
+            score += fieldWeights[field] * frequencies[field] * (K1 + 1) / (frequencies[field] + norm);
+        }
+        return score;
+    }
+
+    // Dictionary terms within the allowed edit distance of the query term, weighted by closeness
+    private List<Match> expand(String queryTerm) {
+        List<Match> matches = new ArrayList<>();
+        if (postings.containsKey(queryTerm)) {
+            matches.add(new Match(queryTerm, 1.0));
+        }
+
+        int maxEdits = queryTerm.length() <= 2 ? 0 : queryTerm.length() <= 5 ? 1 : 2;
+        if (maxEdits == 0) {
+            return matches;
+        }
+
+        Set<String> candidates = candidates(queryTerm, maxEdits);
+        candidates.addAll(transpositionsOf(queryTerm));
+        for (String term : candidates) {
+            if (term.equals(queryTerm) || Math.abs(term.length() - queryTerm.length()) > maxEdits) {
+                continue;
+            }
+            int distance = editDistance(queryTerm, term, maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new Match(term, 1.0 - (double) distance / (Math.max(term.length(), queryTerm.length()) + 1)));
+            }
+        }
+        return matches;
+    }
+
+    // Dictionary terms sharing enough trigrams with the query term to be within maxEdits edits of it
+    Set<String> candidates(String queryTerm, int maxEdits) {
+        List<String> queryTrigrams = trigramsOf(queryTerm);
+        int minShared = Math.max(1, queryTrigrams.size() - Q * maxEdits);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String term : trigrams.getOrDefault(trigram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        Set<String> candidates = new HashSet<>();
+        shared.forEach((term, count) -> {
+            if (count >= minShared) {
+                candidates.add(term);
+            }
+        });
+        return candidates;
+    }
+
+    // Dictionary terms equal to the query term with two adjacent letters swapped
+    private List<String> transpositionsOf(String queryTerm) {
+        List<String> found = new ArrayList<>();
+        char[] letters = queryTerm.toCharArray();
+        for (int i = 0; i + 1 < letters.length; i++) {
+            if (letters[i] == letters[i + 1]) {
+                continue;
+            }
+            swap(letters, i);
+            String swapped = new String(letters);
+            swap(letters, i);
+            if (postings.containsKey(swapped)) {
+                found.add(swapped);
+            }
+        }
+        return found;
+    }
+
+    private static void swap(char[] letters, int i) {
+        char letter = letters[i];
+        letters[i] = letters[i + 1];
+        letters[i + 1] = letter;
+    }
+
+    // Padded on both sides so every letter is in 3 trigrams, which the q-gram bound assumes:
+    // "dune" -> "  d", " du", "dun", "une", "ne ", "e  "
+    private static List<String> trigramsOf(String term) {
+        String padded = "  " + term + "  ";
+        List<String> result = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * abandoning early and returning max + 1 once every alignment exceeds max.
+     **/
+    static int editDistance(String a, String b, int max) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+}
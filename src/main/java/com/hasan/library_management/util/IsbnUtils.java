@@ -0,0 +1,66 @@
+package com.hasan.library_management.util;
+
+import java.util.Optional;
+
+public final class IsbnUtils {
+
+    private IsbnUtils() {
+    }
+
+    /**
+     * Converts an ISBN-10 or ISBN-13 in any common notation (hyphens, spaces) to its
+     * 13-digit canonical form. Returns empty if the input cannot be an ISBN or its check digit is wrong,
+     * which catches a mistyped digit and most swapped adjacent digits.
+     **/
+    public static Optional<String> toIsbn13(String raw) {
+        if (raw == null) {
+            return Optional.empty();
+        }
+
+        StringBuilder digits = new StringBuilder(13);
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == 'X' || c == 'x') {
+                digits.append('X');
+            } else if (c != '-' && c != ' ') {
+                return Optional.empty();
+            }
+        }
+
+        String value = digits.toString();
+
+        if (value.length() == 13 && value.indexOf('X') < 0) {
+            return ean13CheckDigit(value) == value.charAt(12) - '0' ? Optional.of(value) : Optional.empty();
+        }
+
+        // ISBN-10: the check digit may be 'X', it is replaced by the EAN-13 check digit
+        if (value.length() == 10 && value.substring(0, 9).indexOf('X') < 0 && isValidIsbn10(value)) {
+            String body = "978" + value.substring(0, 9);
+            return Optional.of(body + ean13CheckDigit(body));
+        }
+
+        return Optional.empty();
+    }
+
+    // Digits weighted 10 down to 1 ('X' = 10) must sum to a multiple of 11
+    private static boolean isValidIsbn10(String tenDigits) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = tenDigits.charAt(i);
+            sum += (10 - i) * (c == 'X' ? 10 : c - '0');
+        }
+        return sum % 11 == 0;
+    }
+
+    // Over the first 12 digits; weights alternate 1 and 3
+    public static int ean13CheckDigit(String twelveDigits) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = twelveDigits.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
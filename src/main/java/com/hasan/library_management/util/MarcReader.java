@@ -0,0 +1,138 @@
+package com.hasan.library_management.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Streaming reader for binary MARC 21 (ISO 2709) files. Records are read one at a time,
+ * so memory use does not depend on the size of the file.
+ **/
+public class MarcReader implements Closeable {
+
+    private static final int LEADER_LENGTH = 24;
+    private static final int DIRECTORY_ENTRY_LENGTH = 12;
+    private static final byte FIELD_TERMINATOR = 0x1E;
+    private static final byte SUBFIELD_DELIMITER = 0x1F;
+
+    private final InputStream in;
+
+    public MarcReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the next record, or null at the end of input.
+     **/
+    public MarcRecord next() throws IOException {
+        byte[] length = new byte[5];
+        int first = in.read();
+
+        // Some exports put line breaks between records
+        while (first == '\n' || first == '\r') {
+            first = in.read();
+        }
+        if (first == -1) {
+            return null;
+        }
+
+        length[0] = (byte) first;
+        readFully(length, 1, 4);
+        int recordLength = parseNumber(length, 0, 5);
+        if (recordLength < LEADER_LENGTH + 1) {
+            throw new IOException("Invalid MARC record length: " + recordLength);
+        }
+
+        byte[] record = new byte[recordLength];
+        System.arraycopy(length, 0, record, 0, 5);
+        readFully(record, 5, recordLength - 5);
+
+        return parse(record);
+    }
+
+    private MarcRecord parse(byte[] record) throws IOException {
+        // Leader position 9 is 'a' for UCS/Unicode, anything else is treated as MARC-8 approximated by Latin-1
+        Charset charset = record[9] == 'a' ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+        int baseAddress = parseNumber(record, 12, 5);
+
+        List<MarcField> fields = new ArrayList<>();
+        for (int entry = LEADER_LENGTH; entry + DIRECTORY_ENTRY_LENGTH <= baseAddress && record[entry] != FIELD_TERMINATOR;
+             entry += DIRECTORY_ENTRY_LENGTH) {
+            String tag = new String(record, entry, 3, StandardCharsets.US_ASCII);
+            int fieldLength = parseNumber(record, entry + 3, 4);
+            int start = baseAddress + parseNumber(record, entry + 7, 5);
+
+            int end = Math.min(start + fieldLength, record.length);
+            if (end > start && record[end - 1] == FIELD_TERMINATOR) {
+                end--;
+            }
+            fields.add(new MarcField(tag, new String(record, start, Math.max(0, end - start), charset)));
+        }
+        return new MarcRecord(fields);
+    }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = in.read(buffer, offset, length);
+            if (read == -1) {
+                throw new EOFException("Truncated MARC record");
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+
+    private static int parseNumber(byte[] bytes, int offset, int length) throws IOException {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                throw new IOException("Invalid number in MARC leader or directory");
+            }
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    public record MarcField(String tag, String data) {
+    }
+
+    public record MarcRecord(List<MarcField> fields) {
+
+        // Data of the first control field (001-009) with the given tag
+        public Optional<String> controlField(String tag) {
+            return fields.stream()
+                    .filter(field -> field.tag().equals(tag))
+                    .map(MarcField::data)
+                    .findFirst();
+        }
+
+        // First non-blank value of the subfield in any occurrence of the given data field
+        public Optional<String> subfield(String tag, char code) {
+            for (MarcField field : fields) {
+                if (!field.tag().equals(tag)) {
+                    continue;
+                }
+                // The part before the first delimiter holds the two indicators
+                String[] subfields = field.data().split(String.valueOf((char) SUBFIELD_DELIMITER));
+                for (int i = 1; i < subfields.length; i++) {
+                    String subfield = subfields[i];
+                    if (subfield.length() > 1 && subfield.charAt(0) == code && !subfield.substring(1).isBlank()) {
+                        return Optional.of(subfield.substring(1).trim());
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.hasan.library_management.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Compressed (radix) trie from string keys to scored values. Every node keeps the best score in its subtree,
+ * so {@link #top} walks straight to the k best values under a prefix without visiting the rest.
+ * A value may be stored under several keys. Not thread-safe; callers guard it with a lock.
+ **/
+public final class PrefixTrie<T> {
+
+    private static final class Node<T> {
+        private String label;
+        private Map<Character, Node<T>> children;
+        private Map<T, Long> values;
+        private long best = Long.MIN_VALUE;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private void recomputeBest() {
+            long max = Long.MIN_VALUE;
+            if (values != null) {
+                for (long score : values.values()) {
+                    max = Math.max(max, score);
+                }
+            }
+            if (children != null) {
+                for (Node<T> child : children.values()) {
+                    max = Math.max(max, child.best);
+                }
+            }
+            best = max;
+        }
+    }
+
+    // Either a subtree still to expand or a value ready to be returned
+    private record Candidate<T>(Node<T> node, T value, long score) {
+    }
+
+    private final Node<T> root = new Node<>("");
+    private int size;
+
+    public void put(String key, T value, long score) {
+        Node<T> node = root;
+        node.best = Math.max(node.best, score);
+        int position = 0;
+
+        while (position < key.length()) {
+            Node<T> child = node.children == null ? null : node.children.get(key.charAt(position));
+            if (child == null) {
+                child = new Node<>(key.substring(position));
+                addChild(node, child);
+                node = child;
+                break;
+            }
+
+            int common = commonPrefix(child.label, key, position);
+            if (common < child.label.length()) {
+                child = split(node, child, common);
+            }
+            node = child;
+            node.best = Math.max(node.best, score);
+            position += common;
+        }
+
+        node.best = Math.max(node.best, score);
+        if (node.values == null) {
+            node.values = new LinkedHashMap<>(2);
+        }
+        if (node.values.put(value, score) == null) {
+            size++;
+        } else {
+            recomputePath(key);
+        }
+    }
+
+    public void remove(String key, T value) {
+        Deque<Node<T>> path = path(key);
+        if (path == null) {
+            return;
+        }
+
+        Node<T> node = path.peek();
+        if (node.values == null || node.values.remove(value) == null) {
+            return;
+        }
+        size--;
+        if (node.values.isEmpty()) {
+            node.values = null;
+        }
+
+        // Prune emptied nodes and merge single-child chains back into one edge, then fix the best scores
+        while (path.size() > 1) {
+            Node<T> current = path.pop();
+            Node<T> parent = path.peek();
+            if (current.values == null && current.children == null) {
+                parent.children.remove(current.label.charAt(0));
+                if (parent.children.isEmpty()) {
+                    parent.children = null;
+                }
+            } else if (current.values == null && current.children.size() == 1) {
+                Node<T> only = current.children.values().iterator().next();
+                only.label = current.label + only.label;
+                parent.children.put(only.label.charAt(0), only);
+            } else {
+                current.recomputeBest();
+            }
+        }
+        root.recomputeBest();
+    }
+
+    /**
+     * The k highest-scoring distinct values stored under keys starting with the prefix, best first.
+     **/
+    public List<T> top(String prefix, int k) {
+        Node<T> start = find(prefix);
+        if (start == null || k <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Nodes are ordered by the best score below them, values by their own score; a value popped
+        // before every remaining node cannot be beaten by anything further down
+        PriorityQueue<Candidate<T>> queue = new PriorityQueue<>((a, b) -> Long.compare(b.score(), a.score()));
+        queue.add(new Candidate<>(start, null, start.best));
+
+        List<T> result = new ArrayList<>(k);
+        Set<T> seen = new HashSet<>();
+        while (!queue.isEmpty() && result.size() < k) {
+            Candidate<T> candidate = queue.poll();
+            if (candidate.node() == null) {
+                if (seen.add(candidate.value())) {
+                    result.add(candidate.value());
+                }
+                continue;
+            }
+
+            Node<T> node = candidate.node();
+            if (node.values != null) {
+                node.values.forEach((value, score) -> queue.add(new Candidate<>(null, value, score)));
+            }
+            if (node.children != null) {
+                node.children.values().forEach(child -> queue.add(new Candidate<>(child, null, child.best)));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // The node whose subtree holds every key starting with the prefix; the prefix may end inside its edge
+    private Node<T> find(String prefix) {
+        Node<T> node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            Node<T> child = node.children == null ? null : node.children.get(prefix.charAt(position));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, prefix, position);
+            if (common < child.label.length() && position + common < prefix.length()) {
+                return null;
+            }
+            node = child;
+            position += common;
+        }
+        return node;
+    }
+
+    // Nodes from the exact key's node up to the root, or null when the key is not present
+    private Deque<Node<T>> path(String key) {
+        Deque<Node<T>> path = new ArrayDeque<>();
+        Node<T> node = root;
+        path.push(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node<T> child = node.children == null ? null : node.children.get(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                return null;
+            }
+            node = child;
+            path.push(node);
+            position += child.label.length();
+        }
+        return path;
+    }
+
+    private void recomputePath(String key) {
+        Deque<Node<T>> path = path(key);
+        while (path != null && !path.isEmpty()) {
+            path.pop().recomputeBest();
+        }
+    }
+
+    private Node<T> split(Node<T> parent, Node<T> child, int at) {
+        Node<T> middle = new Node<>(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        addChild(middle, child);
+        middle.best = child.best;
+        parent.children.put(middle.label.charAt(0), middle);
+        return middle;
+    }
+
+    private void addChild(Node<T> parent, Node<T> child) {
+        if (parent.children == null) {
+            parent.children = new HashMap<>(4);
+        }
+        parent.children.put(child.label.charAt(0), child);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,81 @@
+package com.hasan.library_management.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holder for an in-memory index that is changed incrementally and rebuilt from scratch now and then.
+ * Reads share a lock, changes take it exclusively. A rebuild runs without the lock, so readers keep using the
+ * old index meanwhile; changes that arrive during the build are replayed on the new index before the swap.
+ **/
+public final class RebuildableIndex<I> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private I index;
+    private List<Consumer<I>> pendingWhileRebuilding;
+
+    public RebuildableIndex(I index) {
+        this.index = index;
+    }
+
+    public <R> R read(Function<I, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void apply(Consumer<I> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pendingWhileRebuilding != null) {
+                pendingWhileRebuilding.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns the index that was swapped in; a failed build leaves the current one in place
+    public I rebuild(Supplier<I> builder) {
+        lock.writeLock().lock();
+        try {
+            pendingWhileRebuilding = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        I rebuilt;
+        try {
+            rebuilt = builder.get();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingWhileRebuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingWhileRebuilding.forEach(change -> change.accept(rebuilt));
+            pendingWhileRebuilding = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return rebuilt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.hasan.library_management.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Validators of a response: a strong ETag and the Last-Modified time (null when unknown).
+ * The ETag includes the id so that URLs like /users/me, which serve different rows, never share a tag.
+ * Controllers read the version before the body, so a concurrent change costs at most one extra download
+ * and never produces a stale 304.
+ **/
+public record ResourceVersion(String eTag, Instant lastModified) {
+
+    public static ResourceVersion of(UUID id, long version, Instant updatedAt) {
+        return new ResourceVersion(id + "-" + version, updatedAt);
+    }
+
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+
+    // Checks If-None-Match / If-Modified-Since and, when they match, turns the response into a 304
+    public boolean isNotModified(WebRequest request) {
+        return request.checkNotModified(eTag, lastModifiedMillis());
+    }
+
+    public <T> ResponseEntity<T> ok(T body) {
+        return validators().body(body);
+    }
+
+    // 200 with the validators; private, no-cache: clients may keep the response but must revalidate it before reuse
+    public ResponseEntity.BodyBuilder validators() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+}
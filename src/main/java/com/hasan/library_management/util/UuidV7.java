@@ -0,0 +1,38 @@
+package com.hasan.library_management.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7). The leading 48 bits are the Unix time in milliseconds,
+ * so new primary keys land at the right edge of the B-tree instead of at random pages.
+ **/
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Unix millis shifted left by 12 bits plus a 12-bit counter, keeps ids strictly increasing within this JVM
+    private static final AtomicLong LAST_TIMESTAMP_AND_SEQUENCE = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID randomUuid() {
+        long now = System.currentTimeMillis() << 12;
+        long next = LAST_TIMESTAMP_AND_SEQUENCE.updateAndGet(previous -> Math.max(now, previous + 1));
+
+        long timestamp = next >>> 12;
+        long sequence = next & 0xFFF;
+
+        long mostSignificantBits = (timestamp << 16) | (0x7L << 12) | sequence;
+        long leastSignificantBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    // Creation time in Unix milliseconds, read back from the leading 48 bits
+    public static long timestampOf(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,56 @@
+package com.hasan.library_management.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "server.servlet.context-path="
+})
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static RequestPostProcessor onPort(int port) {
+        return request -> {
+            request.setLocalPort(port);
+            return request;
+        };
+    }
+
+    // *** prometheus Tests ***
+    @Test
+    void prometheus_shouldReturnForbidden_whenScrapedOnPublicPortWithoutToken() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/actuator/prometheus").with(onPort(8080)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void prometheus_shouldPassSecurity_whenScrapedOnManagementPort() throws Exception {
+        // Act
+        int status = mockMvc.perform(get("/actuator/prometheus").with(onPort(8081)))
+                .andReturn().getResponse().getStatus();
+
+        // Assert
+        assertThat(status).isNotIn(401, 403);
+    }
+
+    @Test
+    void metrics_shouldReturnForbidden_whenRequestedOnManagementPortWithoutToken() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/actuator/metrics").with(onPort(8081)))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,147 @@
+package com.hasan.library_management.config;
+
+import com.hasan.library_management.service.ReplicaStickiness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two in-memory databases stand in for the primary and the replica, each reports which one it is
+class ReplicaRoutingDataSourceTest {
+
+    private static final String WHICH = "SELECT name FROM origin";
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaStickiness stickiness;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+
+        stickiness = new ReplicaStickiness();
+        ReflectionTestUtils.setField(stickiness, "stickyMs", 60_000L);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // *** determineCurrentLookupKey Tests ***
+    @Test
+    void readOnlyTransaction_shouldUseReplica_whenReplicaKeepsUp() {
+        // Arrange
+        Routing routing = routing("SELECT 0");
+
+        // Act & Assert
+        assertEquals("replica", routing.read());
+    }
+
+    @Test
+    void readWriteTransaction_shouldUsePrimary() {
+        // Arrange
+        Routing routing = routing("SELECT 0");
+
+        // Act & Assert
+        assertEquals("primary", routing.write());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUsePrimary_whenReplicaLagExceedsLimit() {
+        // Arrange
+        Routing routing = routing("SELECT 60000");
+
+        // Act & Assert
+        assertEquals("primary", routing.read());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUsePrimary_whenReplicaIsUnreachable() {
+        // Arrange
+        Routing routing = routing("SELECT lag FROM missing_table");
+
+        // Act & Assert
+        assertEquals("primary", routing.read());
+        assertEquals(-1, routing.lagMonitor.getLagMs());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUsePrimary_afterOwnWriteCommitted() {
+        // Arrange
+        Routing routing = routing("SELECT 0");
+        authenticate("patron@example.com");
+        routing.readWrite.executeWithoutResult(status -> stickiness.recordWrite());
+
+        // Act & Assert
+        assertEquals("primary", routing.read());
+
+        authenticate("someone.else@example.com");
+        assertEquals("replica", routing.read());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUseReplica_whenOwnWriteRolledBack() {
+        // Arrange
+        Routing routing = routing("SELECT 0");
+        authenticate("patron@example.com");
+        routing.readWrite.executeWithoutResult(status -> {
+            stickiness.recordWrite();
+            status.setRollbackOnly();
+        });
+
+        // Act & Assert
+        assertEquals("replica", routing.read());
+    }
+
+    private record Routing(ReplicaLagMonitor lagMonitor, JdbcTemplate jdbcTemplate,
+                           TransactionTemplate readWrite, TransactionTemplate readOnly) {
+
+        String read() {
+            return readOnly.execute(status -> jdbcTemplate.queryForObject(WHICH, String.class));
+        }
+
+        String write() {
+            return readWrite.execute(status -> jdbcTemplate.queryForObject(WHICH, String.class));
+        }
+    }
+
+    private Routing routing(String lagQuery) {
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica, lagQuery, 5_000, 1_000);
+        lagMonitor.check();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, lagMonitor, stickiness));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return new Routing(lagMonitor, new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager), readOnly);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS origin (name VARCHAR(16))");
+        jdbcTemplate.update("DELETE FROM origin");
+        jdbcTemplate.update("INSERT INTO origin (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+}
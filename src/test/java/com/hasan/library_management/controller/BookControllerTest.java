@@ -13,15 +13,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -82,6 +85,21 @@ class BookControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void getAllBooks_shouldReturnNotModified_whenCatalogIsUnchanged() throws Exception {
+        String eTag = mockMvc.perform(get("/books")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/json"))
+                .andExpect(jsonPath("$").isArray())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/books")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+    }
+
     /* // This endpoint is publicly accessible, no need to expect forbidden error.
  @Test
 void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
@@ -98,7 +116,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("Test Book");
         bookRequest.setAuthor("Author A");
-        bookRequest.setIsbn("1234567890123");
+        bookRequest.setIsbn("1234567890128");
         bookRequest.setGenre("Test Genre");
         bookRequest.setPublicationDate(LocalDate.of(2020, 1, 1));
 
@@ -121,6 +139,53 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
                 .andExpect(jsonPath("$.title").value("Test Book"));
     }
 
+    @Test
+    void getBookById_shouldReturnNotModified_untilBookChanges() throws Exception {
+        BookRequestDto bookRequest = new BookRequestDto();
+        bookRequest.setTitle("Conditional Book");
+        bookRequest.setAuthor("Author E");
+        bookRequest.setIsbn("9780261103573");
+        bookRequest.setGenre("Fantasy");
+        bookRequest.setPublicationDate(LocalDate.of(1954, 7, 29));
+
+        MvcResult createResult = mockMvc.perform(post("/books")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        UUID bookId = UUID.fromString(objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText());
+
+        String eTag = mockMvc.perform(get("/books/" + bookId)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(eTag);
+
+        // Unchanged book: 304 without a body
+        MvcResult notModified = mockMvc.perform(get("/books/" + bookId)
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        assertEquals("", notModified.getResponse().getContentAsString());
+
+        // Adding copies goes through a bulk update, which must still change the ETag
+        mockMvc.perform(post("/books/" + bookId + "/copies")
+                        .header("Authorization", "Bearer " + token)
+                        .param("count", "1"))
+                .andExpect(status().isOk());
+
+        String newETag = mockMvc.perform(get("/books/" + bookId)
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCopies").value(2))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(eTag, newETag);
+    }
+
     @Test
     void getBookById_shouldReturnNotFound_whenBookDoesNotExist() throws Exception {
         UUID nonExistentId = UUID.randomUUID();
@@ -148,7 +213,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("New Book");
         bookRequest.setAuthor("Author X");
-        bookRequest.setIsbn("1112223334445");
+        bookRequest.setIsbn("1112223334448");
         bookRequest.setGenre("Fiction");
         bookRequest.setPublicationDate(LocalDate.of(2023, 5, 10));
 
@@ -165,7 +230,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("Tokenless Book");
         bookRequest.setAuthor("Author Y");
-        bookRequest.setIsbn("1112223339999");
+        bookRequest.setIsbn("1112223339993");
         bookRequest.setGenre("Drama");
         bookRequest.setPublicationDate(LocalDate.of(2023, 5, 10));
 
@@ -175,6 +240,23 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void createBook_shouldReturnBadRequest_whenIsbnCheckDigitIsWrong() throws Exception {
+        BookRequestDto bookRequest = new BookRequestDto();
+        bookRequest.setTitle("Mistyped Book");
+        bookRequest.setAuthor("Author Z");
+        bookRequest.setIsbn("978-0-306-40615-8");
+        bookRequest.setGenre("Fiction");
+        bookRequest.setPublicationDate(LocalDate.of(2023, 5, 10));
+
+        mockMvc.perform(post("/books")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].message").value("ISBN must be a valid ISBN-10 or ISBN-13"));
+    }
+
     @Test
     void createBook_shouldReturnBadRequest_whenMissingRequiredFields() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
@@ -196,7 +278,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("Original Title");
         bookRequest.setAuthor("Author X");
-        bookRequest.setIsbn("1111111111111");
+        bookRequest.setIsbn("1111111111116");
         bookRequest.setGenre("Drama");
         bookRequest.setPublicationDate(LocalDate.of(2020, 1, 1));
 
@@ -234,7 +316,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto request = new BookRequestDto();
         request.setTitle("Ghost Book");
         request.setAuthor("Ghost Author");
-        request.setIsbn("9999999999999");
+        request.setIsbn("9999999999994");
         request.setGenre("Mystery");
         request.setPublicationDate(LocalDate.of(2023, 1, 1));
 
@@ -251,7 +333,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("Valid Book");
         bookRequest.setAuthor("Valid Author");
-        bookRequest.setIsbn("1234567899999");
+        bookRequest.setIsbn("1234567899992");
         bookRequest.setGenre("History");
         bookRequest.setPublicationDate(LocalDate.of(2020, 1, 1));
 
@@ -269,7 +351,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto invalidUpdate = new BookRequestDto();
         invalidUpdate.setTitle("");
         invalidUpdate.setAuthor("New Author");
-        invalidUpdate.setIsbn("9999999999999");
+        invalidUpdate.setIsbn("9999999999994");
         invalidUpdate.setGenre("Science");
         invalidUpdate.setPublicationDate(LocalDate.of(2024, 1, 1));
 
@@ -290,7 +372,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("To Be Deleted");
         bookRequest.setAuthor("Author D");
-        bookRequest.setIsbn("1234567890011");
+        bookRequest.setIsbn("1234567890012");
         bookRequest.setGenre("Thriller");
         bookRequest.setPublicationDate(LocalDate.of(2018, 8, 8));
 
@@ -330,7 +412,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("Unauthorized Delete");
         bookRequest.setAuthor("No Token Author");
-        bookRequest.setIsbn("9876543210000");
+        bookRequest.setIsbn("9876543210005");
         bookRequest.setGenre("Fantasy");
         bookRequest.setPublicationDate(LocalDate.of(2015, 6, 15));
 
@@ -352,6 +434,183 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
 
 
 
+    // *** importBooks Tests ***
+    @Test
+    void importBooks_shouldImportRowsAndSkipDuplicates_whenAuthorized() throws Exception {
+        String csv = "title,author,isbn,publication_date,genre,copies\n" +
+                "Zeitoun,Dave Eggers,9783161484100,2009-07-15,Biography,2\n" +
+                "Zeitoun,Dave Eggers,3-16-148410-X,2009-07-15,Biography,1\n" +
+                ",No Title,9781111111118,2001-01-01,Drama,1\n";
+
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/books/import")
+                        .file(file)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(3))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.failed").value(1));
+
+        // The imported book is visible through the regular API with its copies
+        mockMvc.perform(get("/books/search/isbn")
+                        .param("isbn", "9783161484100")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].totalCopies").value(2));
+    }
+
+    @Test
+    void importBooks_shouldReturnForbidden_whenNoToken() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", new byte[0]);
+
+        mockMvc.perform(multipart("/books/import").file(file))
+                .andExpect(status().isForbidden());
+    }
+
+
+
+
+    // *** suggest Tests ***
+    @Test
+    void suggest_shouldReturnNewBookByWordPrefix() throws Exception {
+        BookRequestDto bookRequest = new BookRequestDto();
+        bookRequest.setTitle("The Zephyrine Chronicles");
+        bookRequest.setAuthor("Quillon Marsh");
+        bookRequest.setIsbn("9780306406157");
+        bookRequest.setGenre("Fantasy");
+        bookRequest.setPublicationDate(LocalDate.of(2019, 3, 3));
+
+        mockMvc.perform(post("/books")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk());
+
+        // The index is updated on create, no rebuild needed; accents and case are ignored
+        mockMvc.perform(get("/books/suggest")
+                        .param("prefix", "Zéph"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("TITLE"))
+                .andExpect(jsonPath("$[0].text").value("The Zephyrine Chronicles"));
+
+        mockMvc.perform(get("/books/suggest")
+                        .param("prefix", "quill"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("AUTHOR"))
+                .andExpect(jsonPath("$[0].text").value("Quillon Marsh"));
+    }
+
+    // *** searchFuzzy Tests ***
+    @Test
+    void searchFuzzy_shouldFindBookDespiteTypos() throws Exception {
+        BookRequestDto bookRequest = new BookRequestDto();
+        bookRequest.setTitle("The Fellowship of the Ring");
+        bookRequest.setAuthor("J. R. R. Tolkien");
+        bookRequest.setIsbn("9780261102217");
+        bookRequest.setGenre("Fantasy");
+        bookRequest.setPublicationDate(LocalDate.of(1954, 7, 29));
+
+        mockMvc.perform(post("/books")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/books/search/fuzzy")
+                        .param("query", "Tolkein felowship")
+                        .param("page", "0")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("The Fellowship of the Ring"));
+    }
+
+    // *** search Tests ***
+    @Test
+    void search_shouldCombineCriteriaAndPageWithCursor() throws Exception {
+        String[][] books = {
+                {"The Left Hand of Darkness", "9780441478125", "1969"},
+                {"A Wizard of Earthsea", "9780547773742", "1968"}
+        };
+        for (String[] book : books) {
+            BookRequestDto bookRequest = new BookRequestDto();
+            bookRequest.setTitle(book[0]);
+            bookRequest.setAuthor("Ursula K. Le Guin");
+            bookRequest.setIsbn(book[1]);
+            bookRequest.setGenre("Fantasy");
+            bookRequest.setPublicationDate(LocalDate.of(Integer.parseInt(book[2]), 4, 10));
+
+            mockMvc.perform(post("/books")
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookRequest)))
+                    .andExpect(status().isOk());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/books/search")
+                        .param("author", "le guin")
+                        .param("genre", "fantasy")
+                        .param("available", "true")
+                        .param("publishedFrom", "1960-01-01")
+                        .param("sort", "publicationDate")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("A Wizard of Earthsea"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn();
+
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/books/search")
+                        .param("author", "le guin")
+                        .param("genre", "fantasy")
+                        .param("available", "true")
+                        .param("publishedFrom", "1960-01-01")
+                        .param("sort", "publicationDate")
+                        .param("size", "1")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("The Left Hand of Darkness"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void search_shouldReturnBadRequest_whenSortFieldIsNotAllowed() throws Exception {
+        mockMvc.perform(get("/books/search")
+                        .param("sort", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // *** searchFaceted Tests ***
+    @Test
+    void searchFaceted_shouldReturnFilteredPageWithFacetCounts() throws Exception {
+        BookRequestDto bookRequest = new BookRequestDto();
+        bookRequest.setTitle("Crime and Punishment");
+        bookRequest.setAuthor("Fyodor Dostoevsky");
+        bookRequest.setIsbn("9780140449136");
+        bookRequest.setGenre("Facetpunk");
+        bookRequest.setPublicationDate(LocalDate.of(1866, 1, 1));
+
+        mockMvc.perform(post("/books")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/books/search/faceted")
+                        .param("genre", "facetpunk")
+                        .param("available", "true")
+                        .param("page", "0")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.totalElements").value(1))
+                .andExpect(jsonPath("$.books.content[0].title").value("Crime and Punishment"))
+                .andExpect(jsonPath("$.facets.decade[0].value").value("1860s"))
+                .andExpect(jsonPath("$.facets.decade[0].count").value(1))
+                .andExpect(jsonPath("$.facets.author[0].value").value("Fyodor Dostoevsky"));
+    }
+
     // *** searchByTitle Tests ***
     @Test
     void searchByTitle_shouldReturnResults_whenMatchingBooksExist() throws Exception {
@@ -359,7 +618,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("Unique Search Title");
         bookRequest.setAuthor("Search Author");
-        bookRequest.setIsbn("1111222233334");
+        bookRequest.setIsbn("1111222233332");
         bookRequest.setGenre("SearchGenre");
         bookRequest.setPublicationDate(LocalDate.of(2021, 7, 7));
 
@@ -379,6 +638,46 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
                 .andExpect(jsonPath("$.content[0].title").value("Unique Search Title"));
     }
 
+    @Test
+    void searchByTitle_shouldRevalidateFirstPage_againstCatalogVersion() throws Exception {
+        String eTag = mockMvc.perform(get("/books/search/title")
+                        .param("title", "Revalidated Title")
+                        .param("page", "0")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Unchanged catalog: 304 without running the search
+        mockMvc.perform(get("/books/search/title")
+                        .param("title", "Revalidated Title")
+                        .param("page", "0")
+                        .param("size", "5")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        BookRequestDto bookRequest = new BookRequestDto();
+        bookRequest.setTitle("Revalidated Title");
+        bookRequest.setAuthor("Revalidated Author");
+        bookRequest.setIsbn("9791234567896");
+        bookRequest.setGenre("RevalidatedGenre");
+        bookRequest.setPublicationDate(LocalDate.of(2020, 1, 1));
+        mockMvc.perform(post("/books")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk());
+
+        // The create bumped the catalog version, so the cached first page is rebuilt
+        mockMvc.perform(get("/books/search/title")
+                        .param("title", "Revalidated Title")
+                        .param("page", "0")
+                        .param("size", "5")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Revalidated Title"));
+    }
+
     @Test
     void searchByTitle_shouldReturnEmpty_whenNoMatchesFound() throws Exception {
         mockMvc.perform(get("/books/search/title")
@@ -401,6 +700,18 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
 
 
 
+    @Test
+    void searchByTitle_shouldOmitTotal_whenTotalIsNone() throws Exception {
+        mockMvc.perform(get("/books/search/title")
+                        .param("title", "a")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .param("total", "NONE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.numberOfElements").exists());
+    }
+
     // *** searchByAuthor Tests ***
     @Test
     void searchByAuthor_shouldReturnResults_whenMatchingBooksExist() throws Exception {
@@ -408,7 +719,7 @@ void getAllBooks_shouldReturnForbidden_whenNoToken() throws Exception {
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("Book with Author");
         bookRequest.setAuthor("Unique Author Name");
-        bookRequest.setIsbn("2222333344445");
+        bookRequest.setIsbn("2222333344448");
         bookRequest.setGenre("AuthorGenre");
         bookRequest.setPublicationDate(LocalDate.of(2021, 6, 6));
 
@@ -456,7 +767,7 @@ void searchByAuthor_shouldReturnForbidden_whenNoTokenProvided() throws Exception
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("ISBN Book");
         bookRequest.setAuthor("Author X");
-        bookRequest.setIsbn("9876543210123");
+        bookRequest.setIsbn("9876543210128");
         bookRequest.setGenre("ISBN Genre");
         bookRequest.setPublicationDate(LocalDate.of(2022, 3, 15));
 
@@ -468,12 +779,12 @@ void searchByAuthor_shouldReturnForbidden_whenNoTokenProvided() throws Exception
 
         // Search by ISBN
         mockMvc.perform(get("/books/search/isbn")
-                        .param("isbn", "9876543210123")
+                        .param("isbn", "9876543210128")
                         .param("page", "0")
                         .param("size", "5")
                         .header("Authorization", "Bearer " + token))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].isbn").value("9876543210123"));
+                .andExpect(jsonPath("$.content[0].isbn").value("9876543210128"));
     }
 
     @Test
@@ -491,7 +802,7 @@ void searchByAuthor_shouldReturnForbidden_whenNoTokenProvided() throws Exception
     @Test
     void searchByIsbn_shouldReturnForbidden_whenNoTokenProvided() throws Exception {
         mockMvc.perform(get("/books/search/isbn")
-                        .param("isbn", "9876543210123"))
+                        .param("isbn", "9876543210128"))
                 .andExpect(status().isForbidden());
     } */
 
@@ -506,7 +817,7 @@ void searchByAuthor_shouldReturnForbidden_whenNoTokenProvided() throws Exception
         BookRequestDto bookRequest = new BookRequestDto();
         bookRequest.setTitle("Genre Book");
         bookRequest.setAuthor("Author G");
-        bookRequest.setIsbn("9999999999999");
+        bookRequest.setIsbn("9999999999994");
         bookRequest.setGenre("Fantasy");
         bookRequest.setPublicationDate(LocalDate.of(2021, 5, 10));
 
@@ -110,7 +110,7 @@ class BorrowRecordControllerTest {
         BookRequestDto book = new BookRequestDto();
         book.setTitle("Borrowable Book");
         book.setAuthor("Author B");
-        book.setIsbn("1234567899998");
+        book.setIsbn("1234567899978");
         book.setGenre("Genre");
         book.setPublicationDate(LocalDate.of(2020, 1, 1));
 
@@ -179,7 +179,7 @@ class BorrowRecordControllerTest {
         BookRequestDto book = new BookRequestDto();
         book.setTitle("Returnable Book");
         book.setAuthor("Author X");
-        book.setIsbn("9991112223334");
+        book.setIsbn("9991112223337");
         book.setGenre("ReturnTest");
         book.setPublicationDate(LocalDate.of(2022, 1, 1));
 
@@ -245,7 +245,7 @@ class BorrowRecordControllerTest {
         BookRequestDto book = new BookRequestDto();
         book.setTitle("User Book");
         book.setAuthor("User Author");
-        book.setIsbn("1212121212121");
+        book.setIsbn("1212121212128");
         book.setGenre("UserGenre");
         book.setPublicationDate(LocalDate.of(2020, 1, 1));
 
@@ -357,7 +357,7 @@ class BorrowRecordControllerTest {
         BookRequestDto book = new BookRequestDto();
         book.setTitle("Own Book");
         book.setAuthor("Own Author");
-        book.setIsbn("9998887776661");
+        book.setIsbn("9998887776662");
         book.setGenre("OwnGenre");
         book.setPublicationDate(LocalDate.of(2021, 5, 5));
 
@@ -442,7 +442,7 @@ class BorrowRecordControllerTest {
         BookRequestDto book = new BookRequestDto();
         book.setTitle("Overdue Book");
         book.setAuthor("Overdue Author");
-        book.setIsbn("9999999999001");
+        book.setIsbn("9999999999000");
         book.setGenre("Horror");
         book.setPublicationDate(LocalDate.of(2015, 1, 1));
 
@@ -525,7 +525,7 @@ class BorrowRecordControllerTest {
 
         RegisterRequest patron = new RegisterRequest();
         patron.setName("Patron User");
-        patron.setEmail("patron@example.com");
+        patron.setEmail("report_patron@example.com");
         patron.setPassword("123456");
         patron.setPhoneNumber("5550001111");
         patron.setRole(Role.PATRON);
@@ -535,7 +535,7 @@ class BorrowRecordControllerTest {
                         .content(objectMapper.writeValueAsString(patron)))
                 .andExpect(status().isOk());
 
-        AuthRequest login = new AuthRequest("patron@example.com", "123456");
+        AuthRequest login = new AuthRequest("report_patron@example.com", "123456");
         MvcResult loginResult = mockMvc.perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(login)))
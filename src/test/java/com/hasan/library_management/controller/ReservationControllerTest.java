@@ -0,0 +1,154 @@
+package com.hasan.library_management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hasan.library_management.dto.request.AuthRequest;
+import com.hasan.library_management.dto.request.BookRequestDto;
+import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
+import com.hasan.library_management.dto.request.RegisterRequest;
+import com.hasan.library_management.dto.request.ReservationRequestDto;
+import com.hasan.library_management.entity.Role;
+import com.hasan.library_management.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        "server.servlet.context-path="
+})
+class ReservationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String librarianToken;
+    private String patronToken;
+    private UUID librarianId;
+
+    @BeforeAll
+    void setup() throws Exception {
+        librarianToken = registerAndLogin("reservation_admin@example.com", Role.LIBRARIAN);
+        patronToken = registerAndLogin("reservation_patron@example.com", Role.PATRON);
+        librarianId = userRepository.findByEmail("reservation_admin@example.com").orElseThrow().getId();
+    }
+
+    private String registerAndLogin(String email, Role role) throws Exception {
+        if (userRepository.findByEmail(email).isEmpty()) {
+            RegisterRequest register = new RegisterRequest();
+            register.setName("Reservation User");
+            register.setEmail(email);
+            register.setPassword("123456");
+            register.setPhoneNumber("5553334444");
+            register.setRole(role);
+
+            mockMvc.perform(post("/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(register)))
+                    .andExpect(status().isOk());
+        }
+
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest(email, "123456"))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    // *** reserveBook Tests ***
+    @Test
+    void reserveBook_shouldQueuePatron_whenBookIsBorrowed() throws Exception {
+        // 1. Create a book
+        BookRequestDto book = new BookRequestDto();
+        book.setTitle("Reserved Book");
+        book.setAuthor("Author R");
+        book.setIsbn("9785554443336");
+        book.setGenre("Queue");
+        book.setPublicationDate(LocalDate.of(2019, 3, 3));
+
+        MvcResult bookResult = mockMvc.perform(post("/books")
+                        .header("Authorization", "Bearer " + librarianToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        UUID bookId = UUID.fromString(objectMapper.readTree(bookResult.getResponse().getContentAsString()).get("id").asText());
+
+        // 2. Librarian borrows it
+        BorrowRecordRequestDto borrow = new BorrowRecordRequestDto();
+        borrow.setUserId(librarianId);
+        borrow.setBookId(bookId);
+        borrow.setBorrowDate(LocalDate.now());
+        borrow.setDueDate(LocalDate.now().plusDays(7));
+
+        mockMvc.perform(post("/borrow-records")
+                        .header("Authorization", "Bearer " + librarianToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(borrow)))
+                .andExpect(status().isOk());
+
+        // 3. Patron joins the queue
+        mockMvc.perform(post("/reservations")
+                        .header("Authorization", "Bearer " + patronToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReservationRequestDto(bookId))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("WAITING"))
+                .andExpect(jsonPath("$.queuePosition").value(1));
+
+        // 4. Joining twice is rejected
+        mockMvc.perform(post("/reservations")
+                        .header("Authorization", "Bearer " + patronToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReservationRequestDto(bookId))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void reserveBook_shouldReturnForbidden_whenNoToken() throws Exception {
+        mockMvc.perform(post("/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReservationRequestDto(UUID.randomUUID()))))
+                .andExpect(status().isForbidden());
+    }
+
+    // *** getOwnReservations Tests ***
+    @Test
+    void getOwnReservations_shouldReturnOk_whenAuthorized() throws Exception {
+        mockMvc.perform(get("/reservations/me")
+                        .header("Authorization", "Bearer " + patronToken))
+                .andExpect(status().isOk());
+    }
+
+    // *** getQueueForBook Tests ***
+    @Test
+    void getQueueForBook_shouldReturnForbidden_whenPatron() throws Exception {
+        mockMvc.perform(get("/reservations/book/" + UUID.randomUUID())
+                        .header("Authorization", "Bearer " + patronToken))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -185,6 +185,20 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value(email));
     }
 
+    @Test
+    void getOwnDetails_shouldReturnNotModified_whenETagMatches() throws Exception {
+        String eTag = mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void getOwnDetails_shouldReturnForbidden_whenNoToken() throws Exception {
         mockMvc.perform(get("/users/me"))
@@ -0,0 +1,303 @@
+package com.hasan.library_management.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hasan.library_management.config.SyntheticDataGenerator;
+import com.hasan.library_management.dto.request.AuthRequest;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.repository.UserRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a realistic mix of search, borrow, return and SSE subscriptions against the application on a random port
+ * and reports throughput and latency percentiles per operation. Disabled by default; run it with
+ * <pre>mvn test -Dtest=LibraryLoadTest -Dloadtest=true [-Dloadtest.threads=32 -Dloadtest.duration-seconds=60 ...]</pre>
+ * With -Dloadtest.virtual-threads=true the server handles requests on virtual threads, and the run also records
+ * JFR pinning events; it fails if application code blocks a carrier thread while holding a monitor.
+ **/
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // Own in-memory database so the regular test context is not affected
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "synthetic-data.enabled=true",
+        "synthetic-data.seed=${loadtest.seed:42}",
+        "synthetic-data.users=${loadtest.users:500}",
+        "synthetic-data.books=${loadtest.books:20000}",
+        "synthetic-data.loans=${loadtest.loans:100000}",
+        "synthetic-data.overdue-ratio=${loadtest.overdue-ratio:0.2}",
+        "spring.threads.virtual.enabled=${loadtest.virtual-threads:false}",
+        "spring.datasource.hikari.maximum-pool-size=${loadtest.pool-size:20}",
+        // Workers share one IP and few users, so the per-client limits would throttle the run itself
+        "rate-limit.enabled=${loadtest.rate-limit:false}",
+        "logging.level.root=WARN"
+})
+class LibraryLoadTest {
+
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 16);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 30);
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("loadtest.virtual-threads");
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final String APPLICATION_PACKAGE = "com.hasan.library_management.";
+    private static final Duration PINNING_THRESHOLD = Duration.ofMillis(20);
+
+    // Relative weights of the operations in the mix
+    private static final int SEARCH_WEIGHT = 60;
+    private static final int BORROW_WEIGHT = 15;
+    private static final int RETURN_WEIGHT = 15;
+    private static final int SSE_WEIGHT = 10;
+
+    private static final String[] SEARCHES = {
+            "/books/search/title?title=river", "/books/search/title?title=the%20silent",
+            "/books/search/author?author=hopper", "/books/search/genre?genre=fantasy",
+            "/books/search/isbn?isbn=97900000", "/books/search/genre?genre=mystery"
+    };
+
+    private enum Operation {SEARCH, BORROW, RETURN, SSE}
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejected = new EnumMap<>(Operation.class);
+    private final LongAdder serverErrors = new LongAdder();
+    // Pinned virtual threads, keyed by the first frame below the JDK
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+
+    private String baseUrl;
+    private List<UUID> bookIds;
+
+    @Test
+    void runMixedWorkload() throws Exception {
+        // Arrange
+        baseUrl = "http://localhost:" + port + "/library/api";
+        bookIds = bookRepository.findAll(PageRequest.of(0, 5_000)).map(Book::getId).getContent();
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            rejected.put(operation, new LongAdder());
+        }
+
+        // Act
+        try (RecordingStream pinning = new RecordingStream()) {
+            pinning.enable("jdk.VirtualThreadPinned").withStackTrace().withThreshold(PINNING_THRESHOLD);
+            pinning.onEvent("jdk.VirtualThreadPinned", this::recordPinning);
+            pinning.startAsync();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+            // Client workers stay on platform threads so every pinning event comes from the server side
+            ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int userIndex = i;
+                futures.add(workers.submit(() -> {
+                    runWorker(userIndex, deadline);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            workers.shutdown();
+        }
+
+        // Assert
+        report();
+        assertEquals(0, serverErrors.sum(), "Server errors during load test");
+        List<String> pinnedInApplication = pinnedSites.keySet().stream()
+                .filter(site -> site.startsWith(APPLICATION_PACKAGE))
+                .toList();
+        assertTrue(pinnedInApplication.isEmpty(), "Virtual threads pinned in application code: " + pinnedInApplication);
+    }
+
+    private void recordPinning(RecordedEvent event) {
+        String site = "unknown";
+        if (event.getStackTrace() != null) {
+            site = event.getStackTrace().getFrames().stream()
+                    .map(RecordedFrame::getMethod)
+                    .map(method -> method.getType().getName() + "." + method.getName())
+                    .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+                    .findFirst()
+                    .orElse(site);
+        }
+        pinnedSites.computeIfAbsent(site, key -> new LongAdder()).increment();
+    }
+
+    private void runWorker(int userIndex, long deadline) throws Exception {
+        String email = SyntheticDataGenerator.emailOf(userIndex);
+        UUID userId = userRepository.findByEmail(email).orElseThrow().getId();
+        String token = login(email);
+        Deque<UUID> openLoans = new ArrayDeque<>();
+
+        while (System.nanoTime() < deadline) {
+            int pick = ThreadLocalRandom.current().nextInt(SEARCH_WEIGHT + BORROW_WEIGHT + RETURN_WEIGHT + SSE_WEIGHT);
+
+            if (pick < SEARCH_WEIGHT) {
+                String path = SEARCHES[ThreadLocalRandom.current().nextInt(SEARCHES.length)] + "&page=0&size=10";
+                send(Operation.SEARCH, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+            } else if (pick < SEARCH_WEIGHT + BORROW_WEIGHT + RETURN_WEIGHT) {
+                // A return without an open loan turns into a borrow, keeping both paths busy
+                if (pick >= SEARCH_WEIGHT + BORROW_WEIGHT && !openLoans.isEmpty()) {
+                    returnLoan(token, openLoans.poll());
+                } else {
+                    borrow(token, userId, openLoans);
+                }
+            } else {
+                subscribeToAvailabilityStream();
+            }
+        }
+
+        // Not measured: hand back what this worker still has on loan
+        for (UUID recordId : openLoans) {
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/borrow-records/return/" + recordId))
+                    .header("Authorization", "Bearer " + token)
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private void borrow(String token, UUID userId, Deque<UUID> openLoans) throws Exception {
+        UUID bookId = bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+        String body = objectMapper.writeValueAsString(Map.of(
+                "userId", userId,
+                "bookId", bookId,
+                "borrowDate", LocalDate.now().toString(),
+                "dueDate", LocalDate.now().plusDays(14).toString()));
+
+        HttpResponse<String> response = send(Operation.BORROW, HttpRequest.newBuilder(URI.create(baseUrl + "/borrow-records"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (response.statusCode() == 200) {
+            openLoans.add(UUID.fromString(objectMapper.readTree(response.body()).get("id").asText()));
+        }
+    }
+
+    private void returnLoan(String token, UUID recordId) throws Exception {
+        send(Operation.RETURN, HttpRequest.newBuilder(URI.create(baseUrl + "/borrow-records/return/" + recordId))
+                .header("Authorization", "Bearer " + token)
+                .PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private String login(String email) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(new AuthRequest(email, "123456"))))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode json = objectMapper.readTree(response.body());
+        return json.get("token").asText();
+    }
+
+    private HttpResponse<String> send(Operation operation, HttpRequest.Builder request) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        record(operation, started, response.statusCode());
+        return response;
+    }
+
+    // Measures the time until the stream is established, then disconnects like a closed browser tab
+    private void subscribeToAvailabilityStream() throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/books/availability-stream"))
+                        .header("Accept", "text/event-stream")
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        record(Operation.SSE, started, response.statusCode());
+        response.body().close();
+    }
+
+    private void record(Operation operation, long startedNanos, int status) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedNanos);
+        latencies.get(operation).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            // Business rejections such as "book not available" or the borrow limit are part of a realistic mix
+            rejected.get(operation).increment();
+        }
+    }
+
+    private void report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%nLoad test: %d client threads, %d s, server on %s threads%n",
+                THREADS, DURATION_SECONDS, VIRTUAL_THREADS ? "virtual" : "platform"));
+        report.append(String.format("%-8s %10s %10s %9s %9s %9s %9s %9s %9s%n",
+                "op", "count", "ops/s", "rejected", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            total += histogram.getTotalCount();
+            report.append(String.format("%-8s %10d %10.1f %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation,
+                    histogram.getTotalCount(),
+                    (double) histogram.getTotalCount() / DURATION_SECONDS,
+                    rejected.get(operation).sum(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0));
+        }
+        report.append(String.format("total    %10d %10.1f   server errors: %d%n",
+                total, (double) total / DURATION_SECONDS, serverErrors.sum()));
+
+        if (!pinnedSites.isEmpty()) {
+            report.append(String.format("Virtual threads pinned longer than %d ms:%n", PINNING_THRESHOLD.toMillis()));
+            pinnedSites.forEach((site, count) -> report.append(String.format("  %6d  %s%n", count.sum(), site)));
+        }
+
+        System.out.println(report);
+    }
+}
@@ -0,0 +1,95 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.BookCopy;
+import com.hasan.library_management.entity.CopyStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Same configuration as the controller tests so the cached application context is reused
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "server.servlet.context-path="
+})
+class BookRepositoryBatchingTest {
+
+    private static final int BOOKS = 20;
+    private static final int COPIES_PER_BOOK = 2;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void saveAll_shouldBatchInsertsOfBooksAndCopies() {
+        // Arrange
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = Book.builder()
+                    .title("Batch Book " + i)
+                    .author("Batch Author")
+                    .isbn(String.format("97800000%05d", i))
+                    .publicationDate(LocalDate.of(2001, 1, 1))
+                    .genre("Batch")
+                    .totalCopies(COPIES_PER_BOOK)
+                    .availableCopies(COPIES_PER_BOOK)
+                    .build();
+
+            List<BookCopy> copies = new ArrayList<>();
+            for (int copyNumber = 1; copyNumber <= COPIES_PER_BOOK; copyNumber++) {
+                copies.add(BookCopy.builder().book(book).copyNumber(copyNumber).status(CopyStatus.AVAILABLE).build());
+            }
+            book.setCopies(copies);
+            books.add(book);
+        }
+
+        // Act
+        List<Book> saved = bookRepository.saveAll(books);
+
+        // Assert
+        assertEquals(BOOKS + BOOKS * COPIES_PER_BOOK, statistics.getEntityInsertCount());
+        // One batched statement per table instead of one per row
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // Ids are UUIDv7 and increase in insertion order
+        for (int i = 0; i < saved.size(); i++) {
+            assertEquals(7, saved.get(i).getId().version());
+            if (i > 0) {
+                assertTrue(saved.get(i - 1).getId().compareTo(saved.get(i).getId()) < 0);
+            }
+        }
+
+        bookRepository.deleteAll(saved);
+    }
+}
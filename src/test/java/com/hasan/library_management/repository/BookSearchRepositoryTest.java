@@ -0,0 +1,116 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Same configuration as the controller tests so the cached application context is reused
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "server.servlet.context-path="
+})
+class BookSearchRepositoryTest {
+
+    private static final String GENRE = "Keysetpunk";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final List<Book> books = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        books.add(save("Undated Keyset Book", "9791000000015", null));
+        books.add(save("Keyset Book 1970", "9791000000022", LocalDate.of(1970, 1, 1)));
+        books.add(save("Keyset Book 1980", "9791000000039", LocalDate.of(1980, 1, 1)));
+        books.add(save("Second Undated Keyset Book", "9791000000046", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll(books);
+    }
+
+    private Book save(String title, String isbn, LocalDate publicationDate) {
+        return bookRepository.save(Book.builder()
+                .title(title)
+                .author("Keyset Author")
+                .isbn(isbn)
+                .isbnCanonical(isbn)
+                .genre(GENRE)
+                .publicationDate(publicationDate)
+                .build());
+    }
+
+    // Titles of every page of the given size, following the keyset of each page's last row
+    private List<String> pageThrough(boolean ascending, int size) {
+        Specification<Book> filter = BookSpecifications.genre(GENRE);
+        List<String> titles = new ArrayList<>();
+        BookSearchRepository.Keyset after = null;
+        for (int page = 0; page < 10; page++) {
+            List<BookRepository.BookSummary> rows = bookRepository.search(filter, BookSortField.PUBLICATION_DATE, ascending, after, size);
+            rows.forEach(row -> titles.add(row.getTitle()));
+            if (rows.size() < size) {
+                return titles;
+            }
+            BookRepository.BookSummary last = rows.get(rows.size() - 1);
+            after = new BookSearchRepository.Keyset(BookSortField.PUBLICATION_DATE.valueOf(last), last.getId());
+        }
+        fail("Paging did not end");
+        return titles;
+    }
+
+    // *** search Tests ***
+    @Test
+    void search_shouldPutBooksWithoutValueLast_whenAscending() {
+        // Act
+        List<String> titles = pageThrough(true, 1);
+
+        // Assert
+        assertEquals(List.of("Keyset Book 1970", "Keyset Book 1980", "Undated Keyset Book", "Second Undated Keyset Book"), titles);
+    }
+
+    @Test
+    void search_shouldPutBooksWithoutValueLast_whenDescending() {
+        // Act
+        List<String> titles = pageThrough(false, 1);
+
+        // Assert
+        assertEquals(List.of("Keyset Book 1980", "Keyset Book 1970", "Second Undated Keyset Book", "Undated Keyset Book"), titles);
+    }
+
+    @Test
+    void search_shouldFillPageAcrossBooksWithAndWithoutValue() {
+        // Act
+        List<String> titles = pageThrough(true, 3);
+
+        // Assert
+        assertEquals(List.of("Keyset Book 1970", "Keyset Book 1980", "Undated Keyset Book", "Second Undated Keyset Book"), titles);
+    }
+
+    @Test
+    void search_shouldReturnProjection_withCopyCounters() {
+        // Act
+        List<BookRepository.BookSummary> rows = bookRepository.search(BookSpecifications.genre(GENRE),
+                BookSortField.TITLE, true, null, 1);
+
+        // Assert
+        assertEquals(1, rows.size());
+        assertInstanceOf(BookSearchRepository.SearchRow.class, rows.get(0));
+        assertEquals("Keyset Book 1970", rows.get(0).getTitle());
+        assertEquals(1, rows.get(0).getAvailableCopies());
+    }
+}
@@ -0,0 +1,109 @@
+package com.hasan.library_management.repository;
+
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.Role;
+import com.hasan.library_management.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Same configuration as the controller tests so the cached application context is reused
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "server.servlet.context-path="
+})
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void findByEmail_shouldNotQueryDatabase_whenUserIsCached() {
+        // Arrange
+        User user = userRepository.save(User.builder()
+                .name("Cache Reader")
+                .email("cache.reader@example.com")
+                .password("hash")
+                .role(Role.PATRON)
+                .build());
+        userRepository.findByEmail("cache.reader@example.com");
+        statistics.clear();
+
+        // Act
+        User cached = userRepository.findByEmail("cache.reader@example.com").orElseThrow();
+
+        // Assert
+        assertEquals(user.getId(), cached.getId());
+        // Email to id from the natural-id region, the row from the entity region
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+
+        userRepository.delete(cached);
+        assertTrue(userRepository.findByEmail("cache.reader@example.com").isEmpty());
+    }
+
+    @Test
+    void findById_shouldReadBookFromDatabase_afterAvailabilityUpdate() {
+        // Arrange
+        Book book = bookRepository.save(Book.builder()
+                .title("Uncached Book")
+                .author("Cache Author")
+                .isbn("9780000000019")
+                .publicationDate(LocalDate.of(2001, 1, 1))
+                .genre("Cache")
+                .totalCopies(2)
+                .availableCopies(2)
+                .build());
+        bookRepository.findById(book.getId());
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> bookRepository.decrementAvailableCopies(book.getId()));
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(1, reloaded.getAvailableCopies());
+        assertEquals(book.getVersion() + 1, reloaded.getVersion());
+        // Counters change on every borrow, so books stay out of the second-level cache
+        assertFalse(entityManagerFactory.getCache().contains(Book.class, book.getId()));
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+
+        bookRepository.delete(reloaded);
+    }
+}
@@ -0,0 +1,113 @@
+package com.hasan.library_management.security;
+
+import com.hasan.library_management.exceptions.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    // Blocks every encode until released, standing in for a slow BCrypt
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("encoded:" + rawPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    // *** encode Tests ***
+    @Test
+    void encode_shouldDelegateToWrappedEncoder() {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 1000);
+        release.countDown();
+
+        // Act
+        String encoded = encoder.encode("secret");
+
+        // Assert
+        assertEquals("encoded:secret", encoded);
+        assertTrue(encoder.matches("secret", encoded));
+    }
+
+    @Test
+    void encode_shouldRejectWithTooManyRequests_whenPoolAndQueueAreFull() throws Exception {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 5000);
+        Thread running = new Thread(() -> encoder.encode("first"));
+        Thread queued = new Thread(() -> encoder.encode("second"));
+        running.start();
+        queued.start();
+        while (encoder.getExecutor().getQueue().isEmpty() || encoder.getExecutor().getActiveCount() == 0) {
+            Thread.sleep(5);
+        }
+
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class, () -> encoder.encode("third"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getHttpStatus());
+
+        release.countDown();
+        running.join();
+        queued.join();
+    }
+
+    @Test
+    void encode_shouldRejectWithTooManyRequests_whenHashDoesNotStartInTime() throws Exception {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 50);
+        Thread running = new Thread(() -> encoder.encode("first"));
+        running.start();
+        while (encoder.getExecutor().getActiveCount() == 0) {
+            Thread.sleep(5);
+        }
+
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class, () -> encoder.encode("queued"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getHttpStatus());
+
+        release.countDown();
+        running.join();
+    }
+
+    @Test
+    void encode_shouldWaitForRunningHash_whenItOutlastsMaxWait() throws Exception {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 50);
+        AtomicReference<String> encoded = new AtomicReference<>();
+        Thread caller = new Thread(() -> encoded.set(encoder.encode("slow")));
+        caller.start();
+
+        // Act
+        Thread.sleep(200);
+        release.countDown();
+        caller.join();
+
+        // Assert
+        assertEquals("encoded:slow", encoded.get());
+    }
+}
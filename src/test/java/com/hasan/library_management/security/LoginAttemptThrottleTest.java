@@ -0,0 +1,182 @@
+package com.hasan.library_management.security;
+
+import com.hasan.library_management.exceptions.ApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptThrottleTest {
+
+    private LoginAttemptThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginAttemptThrottle();
+        ReflectionTestUtils.setField(throttle, "windowMinutes", 15L);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerEmail", 3);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerIp", 5);
+        ReflectionTestUtils.setField(throttle, "maxTrackedKeys", 100_000);
+        throttle.init();
+    }
+
+    // *** checkAllowed Tests ***
+    @Test
+    void checkAllowed_shouldReject_whenEmailReachedFailureLimit() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAllowed("Patron@Example.com", "10.0.0." + i);
+        }
+
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class, () -> throttle.checkAllowed("patron@example.com", "10.0.0.9"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getHttpStatus());
+    }
+
+    @Test
+    void checkAllowed_shouldReject_whenIpReachedFailureLimitAcrossEmails() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            throttle.checkAllowed("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        // Act & Assert
+        assertThrows(ApiException.class, () -> throttle.checkAllowed("someone@example.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.checkAllowed("someone@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void checkAllowed_shouldNotCountEmailAttempt_whenIpRejectsIt() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            throttle.checkAllowed("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ApiException.class, () -> throttle.checkAllowed("patron@example.com", "10.0.0.1"));
+        }
+
+        // Assert
+        assertDoesNotThrow(() -> throttle.checkAllowed("patron@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void checkAllowed_shouldLetOnlyLimitThrough_whenAttemptsRaceForSameEmail() throws Exception {
+        // Arrange
+        int attempts = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < attempts; i++) {
+                String ip = "10.0.1." + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        throttle.checkAllowed("patron@example.com", ip);
+                        return true;
+                    } catch (ApiException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int allowed = 0;
+            for (Future<Boolean> result : results) {
+                allowed += result.get() ? 1 : 0;
+            }
+
+            // Assert
+            assertEquals(3, allowed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void checkAllowed_shouldAllow_afterSuccessfulLoginClearsEmail() {
+        // Arrange
+        throttle.checkAllowed("patron@example.com", "10.0.0.1");
+        throttle.checkAllowed("patron@example.com", "10.0.0.1");
+        throttle.checkAllowed("patron@example.com", "10.0.0.1");
+        throttle.recordSuccess("patron@example.com", "10.0.0.1");
+        throttle.checkAllowed("patron@example.com", "10.0.0.1");
+
+        // Act & Assert
+        assertDoesNotThrow(() -> throttle.checkAllowed("patron@example.com", "10.0.0.1"));
+    }
+
+    // *** recordSuccess Tests ***
+    @Test
+    void recordSuccess_shouldHandBackIpAttempt() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            throttle.checkAllowed("user" + i + "@example.com", "10.0.0.1");
+            throttle.recordSuccess("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        // Act & Assert
+        assertDoesNotThrow(() -> throttle.checkAllowed("someone@example.com", "10.0.0.1"));
+    }
+
+    // *** recordAborted Tests ***
+    @Test
+    void recordAborted_shouldHandBackBothAttempts() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAllowed("patron@example.com", "10.0.0.1");
+            throttle.recordAborted("patron@example.com", "10.0.0.1");
+        }
+
+        // Act & Assert
+        assertDoesNotThrow(() -> throttle.checkAllowed("patron@example.com", "10.0.0.1"));
+        assertEquals(2, throttle.getTrackedKeyCount());
+    }
+
+    // *** evictExpiredWindows Tests ***
+    @Test
+    void evictExpiredWindows_shouldForgetFailures_whenWindowElapsed() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAllowed("patron@example.com", "10.0.0.1");
+        }
+        ReflectionTestUtils.setField(throttle, "windowMinutes", 0L);
+
+        // Act
+        throttle.evictExpiredWindows();
+
+        // Assert
+        assertEquals(0, throttle.getTrackedKeyCount());
+        ReflectionTestUtils.setField(throttle, "windowMinutes", 15L);
+        assertDoesNotThrow(() -> throttle.checkAllowed("patron@example.com", "10.0.0.1"));
+    }
+
+    // *** bounded size Tests ***
+    @Test
+    void checkAllowed_shouldDropLeastRecentlyUsedWindows_whenMaxTrackedKeysReached() {
+        // Arrange
+        ReflectionTestUtils.setField(throttle, "maxTrackedKeys", 64);
+        throttle.init();
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            throttle.checkAllowed("user" + i + "@example.com", "10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        // Assert
+        assertTrue(throttle.getTrackedKeyCount() <= 64);
+    }
+}
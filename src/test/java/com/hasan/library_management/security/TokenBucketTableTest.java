@@ -0,0 +1,72 @@
+package com.hasan.library_management.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTableTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // *** tryConsume Tests ***
+    @Test
+    void tryConsume_shouldAllowBurstThenReject() {
+        // Arrange
+        TokenBucketTable table = new TokenBucketTable(4, 100);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, table.tryConsume("client", 3, 1, 0));
+        }
+        long wait = table.tryConsume("client", 3, 1, 0);
+
+        // Assert
+        assertEquals(SECOND, wait, 1.0);
+        assertEquals(0, table.tryConsume("other", 3, 1, 0));
+    }
+
+    @Test
+    void tryConsume_shouldRefillOverTime() {
+        // Arrange
+        TokenBucketTable table = new TokenBucketTable(4, 100);
+        table.tryConsume("client", 1, 2, 0);
+
+        // Act & Assert
+        assertTrue(table.tryConsume("client", 1, 2, SECOND / 4) > 0);
+        assertEquals(0, table.tryConsume("client", 1, 2, SECOND));
+    }
+
+    @Test
+    void tryConsume_shouldBoundTrackedClients() {
+        // Arrange
+        TokenBucketTable table = new TokenBucketTable(1, 10);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            table.tryConsume("client-" + i, 5, 1, 0);
+        }
+
+        // Assert
+        assertEquals(10, table.size());
+    }
+
+    // *** evictIdle Tests ***
+    @Test
+    void evictIdle_shouldRemoveOnlyRefilledBuckets() {
+        // Arrange
+        TokenBucketTable table = new TokenBucketTable(4, 100);
+        table.tryConsume("idle", 2, 1, 0);
+        table.tryConsume("busy", 2, 1, 0);
+        table.tryConsume("busy", 2, 1, 0);
+        table.tryConsume("busy", 2, 1, SECOND);
+
+        // Act
+        int evicted = table.evictIdle(SECOND + SECOND / 2);
+
+        // Assert
+        assertEquals(1, evicted);
+        assertEquals(1, table.size());
+    }
+}
@@ -0,0 +1,138 @@
+package com.hasan.library_management.security;
+
+import com.hasan.library_management.entity.RevokedToken;
+import com.hasan.library_management.repository.RevokedTokenRepository;
+import com.hasan.library_management.util.UuidV7;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    private static final String EMAIL = "patron@example.com";
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(revokedTokenRepository);
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(revocationList, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(revocationList, "refreshExpirationMs", 1_209_600_000L);
+        revocationList.init();
+    }
+
+    private Claims claims(UUID jti) {
+        Claims claims = Jwts.claims().setSubject(EMAIL);
+        claims.setId(jti.toString());
+        claims.setIssuedAt(new Date(UuidV7.timestampOf(jti)));
+        return claims;
+    }
+
+    // *** revokeToken Tests ***
+    @Test
+    void revokeToken_shouldRejectRevokedTokenOnly() {
+        // Arrange
+        UUID revoked = UuidV7.randomUuid();
+        UUID other = UuidV7.randomUuid();
+
+        // Act
+        boolean first = revocationList.revokeToken(revoked, EMAIL, Instant.now().plusSeconds(60));
+
+        // Assert
+        assertTrue(first);
+        assertTrue(revocationList.isRevoked(claims(revoked)));
+        assertFalse(revocationList.isRevoked(claims(other)));
+    }
+
+    @Test
+    void revokeToken_shouldReturnFalse_whenAlreadyRevoked() {
+        // Arrange
+        UUID jti = UuidV7.randomUuid();
+        revocationList.revokeToken(jti, EMAIL, Instant.now().plusSeconds(60));
+
+        // Act & Assert
+        assertFalse(revocationList.revokeToken(jti, EMAIL, Instant.now().plusSeconds(60)));
+    }
+
+    @Test
+    void revokeToken_shouldReturnFalse_whenAnotherNodeRevokedItFirst() {
+        // Arrange
+        UUID jti = UuidV7.randomUuid();
+        when(revokedTokenRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate jti"));
+
+        // Act & Assert
+        assertFalse(revocationList.revokeToken(jti, EMAIL, Instant.now().plusSeconds(60)));
+        assertTrue(revocationList.isRevoked(claims(jti)));
+    }
+
+    // *** revokeSubject Tests ***
+    @Test
+    void revokeSubject_shouldRejectTokensIssuedBeforeButNotAfter() throws InterruptedException {
+        // Arrange
+        UUID before = UuidV7.randomUuid();
+        Thread.sleep(2);
+
+        // Act
+        revocationList.revokeSubject("Patron@Example.com");
+        Thread.sleep(2);
+        UUID after = UuidV7.randomUuid();
+
+        // Assert
+        assertTrue(revocationList.isRevoked(claims(before)));
+        assertFalse(revocationList.isRevoked(claims(after)));
+    }
+
+    // *** sync Tests ***
+    @Test
+    void sync_shouldLoadRevocationsMadeOnOtherNodes() {
+        // Arrange
+        UUID jti = UuidV7.randomUuid();
+        Instant now = Instant.now();
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenReturn(List.of(
+                RevokedToken.builder().jti(jti).subject("other@example.com").revokedAt(now).expiresAt(now.plusSeconds(60)).build()));
+
+        // Act
+        revocationList.sync();
+
+        // Assert
+        assertTrue(revocationList.isRevoked(claims(jti)));
+    }
+
+    // *** purgeExpired Tests ***
+    @Test
+    void purgeExpired_shouldDropExpiredTokensAndKeepLiveOnes() {
+        // Arrange
+        UUID expired = UuidV7.randomUuid();
+        UUID live = UuidV7.randomUuid();
+        revocationList.revokeToken(expired, EMAIL, Instant.now().minusSeconds(1));
+        revocationList.revokeToken(live, EMAIL, Instant.now().plusSeconds(60));
+
+        // Act
+        revocationList.purgeExpired();
+
+        // Assert
+        assertEquals(1, revocationList.size());
+        assertFalse(revocationList.isRevoked(claims(expired)));
+        assertTrue(revocationList.isRevoked(claims(live)));
+    }
+}
@@ -1,14 +1,27 @@
 package com.hasan.library_management.service;
 
 import com.hasan.library_management.dto.response.BookAvailabilityEvent;
-import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 import reactor.test.StepVerifier;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BookAvailabilityServiceTest {
 
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     // *** publishAvailabilityChange Tests ***
     @Test
     void publishAvailabilityChange_shouldEmitEvent() {
@@ -25,4 +38,52 @@ class BookAvailabilityServiceTest {
                 .thenCancel() // Cancel since this is an infinite stream
                 .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    void publishAvailabilityChange_shouldNotifyListenersOnlyAfterCommit_whenInTransaction() {
+        // Arrange
+        BookAvailabilityService service = new BookAvailabilityService();
+        List<BookAvailabilityEvent> received = new ArrayList<>();
+        service.addListener(received::add);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        service.publishAvailabilityChange("book-123", false);
+
+        // Assert
+        assertTrue(received.isEmpty());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertEquals(1, received.size());
+        assertFalse(received.get(0).isAvailable());
+    }
+
+    @Test
+    void publishAvailabilityChange_shouldDropEvent_whenTransactionRollsBack() {
+        // Arrange
+        BookAvailabilityService service = new BookAvailabilityService();
+        List<BookAvailabilityEvent> received = new ArrayList<>();
+        service.addListener(received::add);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        service.publishAvailabilityChange("book-123", false);
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertTrue(received.isEmpty());
+    }
+
+    // *** getSubscriberCount Tests ***
+    @Test
+    void getSubscriberCount_shouldTrackOpenSubscriptions() {
+        // Arrange
+        BookAvailabilityService service = new BookAvailabilityService();
+
+        // Act & Assert
+        StepVerifier.create(service.getStream())
+                .then(() -> assertEquals(1, service.getSubscriberCount()))
+                .thenCancel()
+                .verify();
+        assertEquals(0, service.getSubscriberCount());
+    }
+}
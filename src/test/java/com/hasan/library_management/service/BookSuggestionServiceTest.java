@@ -0,0 +1,110 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.dto.response.BookSuggestionDto;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookSuggestionServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookSuggestionService suggestionService;
+
+    private final UUID duneId = UUID.randomUUID();
+    private final UUID messiahId = UUID.randomUUID();
+    private final UUID emmaId = UUID.randomUUID();
+
+    private static BookRepository.BookPopularity popularity(UUID id, String title, String author, long borrowCount) {
+        return new BookRepository.BookPopularity() {
+            public UUID getId() { return id; }
+            public String getTitle() { return title; }
+            public String getAuthor() { return author; }
+            public long getBorrowCount() { return borrowCount; }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        suggestionService = new BookSuggestionService(bookRepository);
+        when(bookRepository.findBookPopularity()).thenReturn(List.of(
+                popularity(duneId, "Dune", "Frank Herbert", 40),
+                popularity(messiahId, "Dune Messiah", "Frank Herbert", 10),
+                popularity(emmaId, "Emma", "Jane Austen", 25)));
+        suggestionService.rebuild();
+    }
+
+    private static Book book(UUID id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+
+    // *** suggest Tests ***
+    @Test
+    void suggest_shouldRankByBorrowCount() {
+        // Act
+        List<BookSuggestionDto> result = suggestionService.suggest("du", 10);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Dune", result.get(0).getText());
+        assertEquals(duneId, result.get(0).getBookId());
+        assertEquals("Dune Messiah", result.get(1).getText());
+    }
+
+    @Test
+    void suggest_shouldMatchLaterWordsAndAggregateAuthors() {
+        // Act
+        List<BookSuggestionDto> messiah = suggestionService.suggest("MESS", 10);
+        List<BookSuggestionDto> herbert = suggestionService.suggest("herb", 10);
+
+        // Assert
+        assertEquals("Dune Messiah", messiah.get(0).getText());
+        assertEquals("AUTHOR", herbert.get(0).getType());
+        assertEquals(50, herbert.get(0).getBorrowCount());
+    }
+
+    @Test
+    void suggest_shouldReturnEmpty_whenPrefixIsBlank() {
+        // Act & Assert
+        assertTrue(suggestionService.suggest("  ", 10).isEmpty());
+    }
+
+    // *** bookSaved / bookDeleted Tests ***
+    @Test
+    void bookSaved_shouldReindexRenamedBookAndKeepItsBorrowCount() {
+        // Act
+        suggestionService.bookSaved(book(emmaId, "Persuasion", "Jane Austen"));
+
+        // Assert
+        assertTrue(suggestionService.suggest("emma", 10).isEmpty());
+        List<BookSuggestionDto> result = suggestionService.suggest("pers", 10);
+        assertEquals(1, result.size());
+        assertEquals(25, result.get(0).getBorrowCount());
+    }
+
+    @Test
+    void bookDeleted_shouldDropAuthorWithItsLastBook() {
+        // Act
+        suggestionService.bookDeleted(emmaId);
+
+        // Assert
+        assertTrue(suggestionService.suggest("austen", 10).isEmpty());
+        assertEquals(1, suggestionService.suggest("frank", 10).size());
+    }
+}
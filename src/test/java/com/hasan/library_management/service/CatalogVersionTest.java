@@ -0,0 +1,141 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogVersionTest {
+
+    private BookRepository bookRepository;
+    private BookAvailabilityService bookAvailabilityService;
+    private CatalogVersion catalogVersion;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        bookAvailabilityService = new BookAvailabilityService();
+        stubCatalogState(3, 7L, Instant.parse("2024-01-01T00:00:00Z"));
+        catalogVersion = new CatalogVersion(bookRepository, bookAvailabilityService);
+        catalogVersion.init();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void stubCatalogState(long count, Long versionSum, Instant updatedAt) {
+        when(bookRepository.findCatalogState()).thenReturn(new BookRepository.CatalogState() {
+            public long getCount() { return count; }
+            public Long getVersionSum() { return versionSum; }
+            public Instant getUpdatedAt() { return updatedAt; }
+        });
+    }
+
+    // *** current Tests ***
+    @Test
+    void current_shouldNotQueryBooks() {
+        // Act
+        String first = catalogVersion.current().eTag();
+        String second = catalogVersion.current().eTag();
+
+        // Assert
+        assertEquals(first, second);
+        verify(bookRepository, times(1)).findCatalogState();
+    }
+
+    // *** bump Tests ***
+    @Test
+    void bump_shouldChangeETag_whenOutsideTransaction() {
+        // Arrange
+        String before = catalogVersion.current().eTag();
+
+        // Act
+        catalogVersion.bump();
+
+        // Assert
+        assertNotEquals(before, catalogVersion.current().eTag());
+    }
+
+    @Test
+    void bump_shouldWaitForCommit_whenInTransaction() {
+        // Arrange
+        String before = catalogVersion.current().eTag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        catalogVersion.bump();
+        String duringTransaction = catalogVersion.current().eTag();
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert
+        assertEquals(before, duringTransaction);
+        assertNotEquals(before, catalogVersion.current().eTag());
+    }
+
+    @Test
+    void bump_shouldKeepETag_whenTransactionRollsBack() {
+        // Arrange
+        String before = catalogVersion.current().eTag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        catalogVersion.bump();
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertEquals(before, catalogVersion.current().eTag());
+    }
+
+    @Test
+    void availabilityEvent_shouldChangeETag() {
+        // Arrange
+        String before = catalogVersion.current().eTag();
+
+        // Act
+        bookAvailabilityService.publishAvailabilityChange("book-123", false);
+
+        // Assert
+        assertNotEquals(before, catalogVersion.current().eTag());
+    }
+
+    // *** sync Tests ***
+    @Test
+    void sync_shouldKeepETag_whenCatalogUnchanged() {
+        // Arrange
+        String before = catalogVersion.current().eTag();
+
+        // Act
+        catalogVersion.sync();
+
+        // Assert
+        assertEquals(before, catalogVersion.current().eTag());
+    }
+
+    @Test
+    void sync_shouldChangeETag_whenCatalogChangedElsewhere() {
+        // Arrange
+        String before = catalogVersion.current().eTag();
+        stubCatalogState(3, 8L, Instant.parse("2024-01-02T00:00:00Z"));
+
+        // Act
+        catalogVersion.sync();
+
+        // Assert
+        assertNotEquals(before, catalogVersion.current().eTag());
+    }
+}
@@ -0,0 +1,167 @@
+package com.hasan.library_management.service;
+
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.util.FacetIndex;
+import com.hasan.library_management.util.FuzzyIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FuzzyBookSearchServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private final BookAvailabilityService bookAvailabilityService = new BookAvailabilityService();
+
+    private FuzzyBookSearchService searchService;
+
+    private final UUID hobbitId = UUID.randomUUID();
+    private final UUID hungerGamesId = UUID.randomUUID();
+    private final UUID gameOfThronesId = UUID.randomUUID();
+    private final UUID emmaId = UUID.randomUUID();
+
+    private static BookRepository.BookText text(UUID id, String title, String author, String genre, int year, boolean available) {
+        return new BookRepository.BookText() {
+            public UUID getId() { return id; }
+            public String getTitle() { return title; }
+            public String getAuthor() { return author; }
+            public String getGenre() { return genre; }
+            public LocalDate getPublicationDate() { return LocalDate.of(year, 1, 1); }
+            public boolean isAvailable() { return available; }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        searchService = new FuzzyBookSearchService(bookRepository, bookAvailabilityService);
+        searchService.init();
+        when(bookRepository.findAllBookText()).thenReturn(List.of(
+                text(hobbitId, "The Hobbit", "J. R. R. Tolkien", "Fantasy", 1937, true),
+                text(hungerGamesId, "The Hunger Games", "Suzanne Collins", "Dystopian", 2008, true),
+                text(gameOfThronesId, "A Game of Thrones", "George R. R. Martin", "Fantasy", 1996, true),
+                text(emmaId, "Emma", "Jane Austen", "Romance", 1815, false)));
+        searchService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchService.close();
+    }
+
+    private List<UUID> keys(FuzzyIndex.Result<UUID> result) {
+        return result.hits().stream().map(FuzzyIndex.Hit::key).toList();
+    }
+
+    // *** search Tests ***
+    @Test
+    void search_shouldTolerateTransposedLetters() {
+        // Act
+        var result = searchService.search("Tolkein", 10);
+
+        // Assert
+        assertEquals(List.of(hobbitId), keys(result));
+    }
+
+    @Test
+    void search_shouldRankBookMatchingAllTermsFirst() {
+        // Act
+        var result = searchService.search("Hunger Game", 10);
+
+        // Assert
+        assertEquals(2, result.total());
+        assertEquals(hungerGamesId, result.hits().get(0).key());
+        assertEquals(gameOfThronesId, result.hits().get(1).key());
+    }
+
+    @Test
+    void search_shouldWeighTitleAboveGenre() {
+        // Arrange
+        UUID fantasyTitleId = UUID.randomUUID();
+        Book book = new Book();
+        book.setId(fantasyTitleId);
+        book.setTitle("Fantasy Lands");
+        book.setAuthor("Ann Writer");
+        book.setGenre("Travel");
+        searchService.bookSaved(book);
+
+        // Act
+        var result = searchService.search("fantasy", 10);
+
+        // Assert
+        assertEquals(3, result.total());
+        assertEquals(fantasyTitleId, result.hits().get(0).key());
+    }
+
+    @Test
+    void search_shouldReturnTotalBeyondLimit() {
+        // Act
+        var result = searchService.search("the", 1);
+
+        // Assert
+        assertEquals(2, result.total());
+        assertEquals(1, result.hits().size());
+    }
+
+    // *** bookDeleted Tests ***
+    @Test
+    void bookDeleted_shouldRemoveBookFromResults() {
+        // Act
+        searchService.bookDeleted(emmaId);
+
+        // Assert
+        assertEquals(0, searchService.search("emma", 10).total());
+    }
+
+    // *** searchFaceted Tests ***
+    @Test
+    void searchFaceted_shouldCountEachFacetWithoutItsOwnFilter() {
+        // Act
+        var result = searchService.searchFaceted(null, Map.of(FuzzyBookSearchService.GENRE, List.of("fantasy")), 0, 10);
+
+        // Assert
+        assertEquals(2, result.total());
+        assertEquals(2, result.ids().size());
+        assertTrue(result.ids().containsAll(List.of(hobbitId, gameOfThronesId)));
+        assertEquals(List.of(new FacetIndex.Count("Fantasy", 2), new FacetIndex.Count("Dystopian", 1), new FacetIndex.Count("Romance", 1)),
+                result.facets().get(FuzzyBookSearchService.GENRE));
+        assertEquals(List.of(new FacetIndex.Count("1930s", 1), new FacetIndex.Count("1990s", 1)),
+                result.facets().get(FuzzyBookSearchService.DECADE));
+    }
+
+    @Test
+    void searchFaceted_shouldRankQueryMatchesAndPage() {
+        // Act
+        var result = searchService.searchFaceted("Hunger Game", Map.of(FuzzyBookSearchService.AVAILABLE, List.of("true")), 1, 1);
+
+        // Assert
+        assertEquals(2, result.total());
+        assertEquals(List.of(gameOfThronesId), result.ids());
+        assertEquals(List.of(new FacetIndex.Count("Dystopian", 1), new FacetIndex.Count("Fantasy", 1)),
+                result.facets().get(FuzzyBookSearchService.GENRE));
+    }
+
+    @Test
+    void searchFaceted_shouldFollowAvailabilityEvents() {
+        // Act
+        bookAvailabilityService.publishAvailabilityChange(hobbitId.toString(), false);
+        var result = searchService.searchFaceted(null, Map.of(FuzzyBookSearchService.AVAILABLE, List.of("false")), 0, 10);
+
+        // Assert
+        assertEquals(2, result.total());
+        assertTrue(result.ids().containsAll(List.of(hobbitId, emmaId)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.hasan.library_management.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCountCacheTest {
+
+    private SearchCountCache searchCountCache;
+
+    @BeforeEach
+    void setUp() {
+        searchCountCache = new SearchCountCache();
+        ReflectionTestUtils.setField(searchCountCache, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(searchCountCache, "maxEntries", 2);
+    }
+
+    // *** count Tests ***
+    @Test
+    void count_shouldRunCounterOnce_whileEntryIsFresh() {
+        // Arrange
+        AtomicInteger queries = new AtomicInteger();
+
+        // Act
+        long first = searchCountCache.count("title:dune", () -> {
+            queries.incrementAndGet();
+            return 7;
+        });
+        long second = searchCountCache.count("title:dune", () -> {
+            queries.incrementAndGet();
+            return 8;
+        });
+
+        // Assert
+        assertEquals(7, first);
+        assertEquals(7, second);
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void count_shouldRunCounterAgain_whenEntryExpired() {
+        // Arrange
+        ReflectionTestUtils.setField(searchCountCache, "ttlMillis", 0L);
+        searchCountCache.count("title:dune", () -> 7);
+
+        // Act
+        long count = searchCountCache.count("title:dune", () -> 8);
+
+        // Assert
+        assertEquals(8, count);
+    }
+
+    @Test
+    void count_shouldEvictLeastRecentlyUsedTerm_whenFull() {
+        // Arrange
+        searchCountCache.count("title:a", () -> 1);
+        searchCountCache.count("title:b", () -> 2);
+        searchCountCache.count("title:a", () -> 10);
+
+        // Act
+        searchCountCache.count("title:c", () -> 3);
+
+        // Assert
+        assertEquals(2, searchCountCache.size());
+        assertEquals(1, searchCountCache.count("title:a", () -> 10));
+        assertEquals(20, searchCountCache.count("title:b", () -> 20));
+    }
+}
@@ -0,0 +1,117 @@
+package com.hasan.library_management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hasan.library_management.util.ResourceVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializedResponseCacheTest {
+
+    private SerializedResponseCache serializedResponseCache;
+
+    @BeforeEach
+    void setUp() {
+        serializedResponseCache = new SerializedResponseCache(new ObjectMapper());
+        ReflectionTestUtils.setField(serializedResponseCache, "maxEntries", 2);
+        ReflectionTestUtils.setField(serializedResponseCache, "minCompressSize", DataSize.ofBytes(16));
+    }
+
+    private static ServletWebRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return new ServletWebRequest(request);
+    }
+
+    // *** respond Tests ***
+    @Test
+    void respond_shouldSerializeOnce_whileVersionIsUnchanged() {
+        // Arrange
+        ResourceVersion version = new ResourceVersion("books-2-5", Instant.parse("2024-03-01T10:15:30Z"));
+        AtomicInteger serialized = new AtomicInteger();
+
+        // Act
+        serializedResponseCache.respond("books", version, request(null), () -> {
+            serialized.incrementAndGet();
+            return List.of("Dune");
+        });
+        ResponseEntity<byte[]> second = serializedResponseCache.respond("books", version, request(null), () -> {
+            serialized.incrementAndGet();
+            return List.of("Emma");
+        });
+
+        // Assert
+        assertEquals(1, serialized.get());
+        assertEquals("[\"Dune\"]", new String(second.getBody(), StandardCharsets.UTF_8));
+        assertEquals("\"books-2-5\"", second.getHeaders().getETag());
+        assertEquals("Accept-Encoding", second.getHeaders().getFirst("Vary"));
+    }
+
+    @Test
+    void respond_shouldRebuild_whenVersionChanges() {
+        // Arrange
+        serializedResponseCache.respond("books", new ResourceVersion("books-2-5", null), request(null), () -> List.of("Dune"));
+
+        // Act
+        ResponseEntity<byte[]> result = serializedResponseCache.respond("books", new ResourceVersion("books-3-5", null),
+                request(null), () -> List.of("Dune", "Emma"));
+
+        // Assert
+        assertEquals("[\"Dune\",\"Emma\"]", new String(result.getBody(), StandardCharsets.UTF_8));
+        assertEquals(1, serializedResponseCache.size());
+    }
+
+    @Test
+    void respond_shouldServePrecompressedBody_whenClientAcceptsGzip() throws IOException {
+        // Arrange
+        ResourceVersion version = new ResourceVersion("books-2-5", null);
+        List<String> titles = List.of("The Left Hand of Darkness", "The Dispossessed");
+
+        // Act
+        ResponseEntity<byte[]> result = serializedResponseCache.respond("books", version, request("br, gzip;q=0.8"), () -> titles);
+
+        // Assert
+        assertEquals("gzip", result.getHeaders().getFirst("Content-Encoding"));
+        assertEquals("W/\"books-2-5\"", result.getHeaders().getETag());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(result.getBody()))) {
+            assertEquals(new ObjectMapper().writeValueAsString(titles), new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void respond_shouldNotCompressSmallBodies() {
+        // Act
+        ResponseEntity<byte[]> result = serializedResponseCache.respond("books", new ResourceVersion("books-0-0", null),
+                request("gzip"), List::of);
+
+        // Assert
+        assertNull(result.getHeaders().getFirst("Content-Encoding"));
+        assertEquals("[]", new String(result.getBody(), StandardCharsets.UTF_8));
+    }
+
+    // *** acceptsGzip Tests ***
+    @Test
+    void acceptsGzip_shouldHonourQualityValues() {
+        assertTrue(SerializedResponseCache.acceptsGzip("gzip, deflate, br"));
+        assertTrue(SerializedResponseCache.acceptsGzip("identity;q=1, *;q=0.5"));
+        assertFalse(SerializedResponseCache.acceptsGzip("gzip;q=0, deflate"));
+        assertFalse(SerializedResponseCache.acceptsGzip("br"));
+        assertFalse(SerializedResponseCache.acceptsGzip(null));
+    }
+}
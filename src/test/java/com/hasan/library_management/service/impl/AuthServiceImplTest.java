@@ -1,30 +1,40 @@
 package com.hasan.library_management.service.impl;
 
 import com.hasan.library_management.dto.request.AuthRequest;
+import com.hasan.library_management.dto.request.RefreshTokenRequest;
 import com.hasan.library_management.dto.request.RegisterRequest;
 import com.hasan.library_management.entity.Role;
-import com.hasan.library_management.entity.User;
 import com.hasan.library_management.exceptions.ApiException;
 import com.hasan.library_management.repository.UserRepository;
 import com.hasan.library_management.security.JwtUtil;
+import com.hasan.library_management.security.LoginAttemptThrottle;
+import com.hasan.library_management.security.TokenRevocationList;
+import com.hasan.library_management.util.UuidV7;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,11 +52,18 @@ class AuthServiceImplTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private LoginAttemptThrottle loginAttemptThrottle;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
     private RegisterRequest registerRequest;
     private AuthRequest authRequest;
+    private static final String CLIENT_IP = "203.0.113.7";
 
     @BeforeEach
     void setUp() {
@@ -65,9 +82,8 @@ class AuthServiceImplTest {
     @Test
     void register_shouldReturnToken_whenEmailIsNotRegistered() {
         // Arrange
-        when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
-        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
         when(jwtUtil.generateToken(registerRequest.getEmail(), registerRequest.getRole().name()))
                 .thenReturn("mocked-jwt-token");
 
@@ -77,13 +93,15 @@ class AuthServiceImplTest {
         // Assert
         assertNotNull(response);
         assertEquals("mocked-jwt-token", response.getToken());
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
     void register_shouldThrowException_whenEmailAlreadyExists() {
         // Arrange
-        when(userRepository.findByEmail(registerRequest.getEmail()))
-                .thenReturn(Optional.of(new User())); // user already exists
+        when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("unique constraint on email")); // user already exists
 
         // Act & Assert
         ApiException exception = assertThrows(ApiException.class, () -> authService.register(registerRequest));
@@ -96,27 +114,20 @@ class AuthServiceImplTest {
     void login_shouldReturnToken_whenCredentialsAreValid() {
         // Arrange
         var email = authRequest.getEmail();
-        var password = authRequest.getPassword();
-
-        User mockUser = User.builder()
-                .id(UUID.randomUUID())
-                .name("Test User")
-                .email(email)
-                .password("encodedPassword")
-                .role(Role.PATRON)
-                .phoneNumber("5551234567")
-                .build();
 
         // mock authentication
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(mockUser));
+        when(authenticationManager.authenticate(any())).thenReturn(new UsernamePasswordAuthenticationToken(
+                email, null, List.of(new SimpleGrantedAuthority("ROLE_PATRON"))));
         when(jwtUtil.generateToken(email, "PATRON")).thenReturn("mocked-jwt-token");
 
         // Act
-        var response = authService.login(authRequest);
+        var response = authService.login(authRequest, CLIENT_IP);
 
         // Assert
         assertNotNull(response);
         assertEquals("mocked-jwt-token", response.getToken());
+        verify(loginAttemptThrottle).recordSuccess(email, CLIENT_IP);
+        verify(userRepository, never()).findByEmail(any());
     }
 
 
@@ -127,18 +138,115 @@ class AuthServiceImplTest {
                 .thenThrow(new BadCredentialsException("Invalid credentials"));
 
         // Act & Assert
-        assertThrows(BadCredentialsException.class, () -> authService.login(authRequest));
+        assertThrows(BadCredentialsException.class, () -> authService.login(authRequest, CLIENT_IP));
+        verify(loginAttemptThrottle).checkAllowed(authRequest.getEmail(), CLIENT_IP);
+        verify(loginAttemptThrottle, never()).recordSuccess(any(), any());
+        verify(loginAttemptThrottle, never()).recordAborted(any(), any());
+    }
+
+    @Test
+    void login_shouldHandBackAttempt_whenAuthenticationFailsWithoutVerdict() {
+        // Arrange
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new IllegalStateException("Password hashing failed"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> authService.login(authRequest, CLIENT_IP));
+        verify(loginAttemptThrottle).recordAborted(authRequest.getEmail(), CLIENT_IP);
+    }
+
+    @Test
+    void login_shouldRejectBeforeAuthenticating_whenThrottled() {
+        // Arrange
+        doThrow(new ApiException("Too many failed login attempts, please try again later", HttpStatus.TOO_MANY_REQUESTS))
+                .when(loginAttemptThrottle).checkAllowed(authRequest.getEmail(), CLIENT_IP);
+
+        // Act & Assert
+        ApiException exception = assertThrows(ApiException.class, () -> authService.login(authRequest, CLIENT_IP));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getHttpStatus());
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    // Refresh tests
+    private Claims refreshClaims(UUID jti) {
+        Claims claims = Jwts.claims().setSubject(authRequest.getEmail());
+        claims.setId(jti.toString());
+        claims.setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        claims.put("role", "PATRON");
+        return claims;
+    }
+
+    @Test
+    void refresh_shouldRotateTokens_whenRefreshTokenIsValid() {
+        // Arrange
+        UUID jti = UuidV7.randomUuid();
+        Claims claims = refreshClaims(jti);
+        when(jwtUtil.parseClaims("refresh-token")).thenReturn(claims);
+        when(jwtUtil.isRefreshToken(claims)).thenReturn(true);
+        when(jwtUtil.getTokenId(claims)).thenReturn(jti);
+        when(tokenRevocationList.revokeToken(any(), any(), any())).thenReturn(true);
+        when(jwtUtil.generateToken(authRequest.getEmail(), "PATRON")).thenReturn("new-access-token");
+        when(jwtUtil.generateRefreshToken(authRequest.getEmail(), "PATRON")).thenReturn("new-refresh-token");
+
+        // Act
+        var response = authService.refresh(new RefreshTokenRequest("refresh-token"));
+
+        // Assert
+        assertEquals("new-access-token", response.getToken());
+        assertEquals("new-refresh-token", response.getRefreshToken());
+        verify(tokenRevocationList).revokeToken(jti, authRequest.getEmail(), claims.getExpiration().toInstant());
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
-    void login_shouldThrowException_whenUserNotFound() {
+    void refresh_shouldThrowException_whenRefreshTokenWasAlreadyUsed() {
         // Arrange
-        when(authenticationManager.authenticate(any())).thenReturn(mock(Authentication.class));
-        when(userRepository.findByEmail(authRequest.getEmail())).thenReturn(Optional.empty());
+        UUID jti = UuidV7.randomUuid();
+        Claims claims = refreshClaims(jti);
+        when(jwtUtil.parseClaims("refresh-token")).thenReturn(claims);
+        when(jwtUtil.isRefreshToken(claims)).thenReturn(true);
+        when(jwtUtil.getTokenId(claims)).thenReturn(jti);
+        when(tokenRevocationList.revokeToken(any(), any(), any())).thenReturn(false);
 
         // Act & Assert
-        ApiException exception = assertThrows(ApiException.class, () -> authService.login(authRequest));
-        assertEquals("User not found", exception.getMessage());
+        ApiException exception = assertThrows(ApiException.class,
+                () -> authService.refresh(new RefreshTokenRequest("refresh-token")));
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getHttpStatus());
+        verify(jwtUtil, never()).generateToken(any(), any());
     }
 
-}
\ No newline at end of file
+    @Test
+    void refresh_shouldThrowException_whenTokenIsAnAccessToken() {
+        // Arrange
+        Claims claims = refreshClaims(UuidV7.randomUuid());
+        when(jwtUtil.parseClaims("access-token")).thenReturn(claims);
+        when(jwtUtil.isRefreshToken(claims)).thenReturn(false);
+
+        // Act & Assert
+        ApiException exception = assertThrows(ApiException.class,
+                () -> authService.refresh(new RefreshTokenRequest("access-token")));
+        assertEquals("Invalid refresh token", exception.getMessage());
+        verify(tokenRevocationList, never()).revokeToken(any(), any(), any());
+    }
+
+    // Logout tests
+    @Test
+    void logout_shouldRevokeRefreshAndAccessTokens() {
+        // Arrange
+        UUID refreshId = UuidV7.randomUuid();
+        UUID accessId = UuidV7.randomUuid();
+        Claims refresh = refreshClaims(refreshId);
+        Claims access = refreshClaims(accessId);
+        when(jwtUtil.parseClaims("refresh-token")).thenReturn(refresh);
+        when(jwtUtil.parseClaims("access-token")).thenReturn(access);
+        when(jwtUtil.getTokenId(refresh)).thenReturn(refreshId);
+        when(jwtUtil.getTokenId(access)).thenReturn(accessId);
+
+        // Act
+        authService.logout(new RefreshTokenRequest("refresh-token"), "access-token");
+
+        // Assert
+        verify(tokenRevocationList).revokeToken(refreshId, authRequest.getEmail(), refresh.getExpiration().toInstant());
+        verify(tokenRevocationList).revokeToken(accessId, authRequest.getEmail(), access.getExpiration().toInstant());
+    }
+}
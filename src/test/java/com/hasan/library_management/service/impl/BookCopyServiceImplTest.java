@@ -0,0 +1,152 @@
+package com.hasan.library_management.service.impl;
+
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.BookCopy;
+import com.hasan.library_management.entity.CopyStatus;
+import com.hasan.library_management.exceptions.ApiException;
+import com.hasan.library_management.repository.BookCopyRepository;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.repository.BorrowRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookCopyServiceImplTest {
+
+    @Mock
+    private BookCopyRepository bookCopyRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @InjectMocks
+    private BookCopyServiceImpl bookCopyService;
+
+    private Book book;
+    private UUID copyId;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setId(UUID.randomUUID());
+        book.setTitle("Course Textbook");
+        copyId = UUID.randomUUID();
+    }
+
+    // *** newCopies Tests ***
+    @Test
+    void newCopies_shouldNumberCopiesSequentially() {
+        // Act
+        List<BookCopy> copies = bookCopyService.newCopies(book, 4, 3);
+
+        // Assert
+        assertEquals(3, copies.size());
+        assertEquals(4, copies.get(0).getCopyNumber());
+        assertEquals(6, copies.get(2).getCopyNumber());
+        assertTrue(copies.stream().allMatch(copy -> copy.getStatus() == CopyStatus.AVAILABLE));
+    }
+
+    // *** claimFreeCopy Tests ***
+    @Test
+    void claimFreeCopy_shouldClaimCopyWithoutTouchingCounter() {
+        // Arrange
+        BookCopy copy = BookCopy.builder().id(copyId).book(book).copyNumber(1).build();
+        when(bookCopyRepository.findIdsByBookIdAndStatus(eq(book.getId()), eq(CopyStatus.AVAILABLE), any(Pageable.class)))
+                .thenReturn(List.of(copyId));
+        when(bookCopyRepository.compareAndSetStatus(copyId, CopyStatus.AVAILABLE, CopyStatus.ON_LOAN)).thenReturn(1);
+        when(bookCopyRepository.getReferenceById(copyId)).thenReturn(copy);
+
+        // Act
+        var result = bookCopyService.claimFreeCopy(book.getId());
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(copyId, result.get().getId());
+        verify(bookRepository, never()).decrementAvailableCopies(any());
+    }
+
+    @Test
+    void claimFreeCopy_shouldReturnEmpty_whenNoCopyIsFree() {
+        // Arrange
+        when(bookCopyRepository.findIdsByBookIdAndStatus(eq(book.getId()), eq(CopyStatus.AVAILABLE), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        assertTrue(bookCopyService.claimFreeCopy(book.getId()).isEmpty());
+    }
+
+    // *** decrementAvailableCopies Tests ***
+    @Test
+    void decrementAvailableCopies_shouldDecrementCounter() {
+        // Arrange
+        when(bookRepository.decrementAvailableCopies(book.getId())).thenReturn(1);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> bookCopyService.decrementAvailableCopies(book.getId()));
+    }
+
+    @Test
+    void decrementAvailableCopies_shouldThrowException_whenCounterIsOutOfSync() {
+        // Arrange
+        when(bookRepository.decrementAvailableCopies(book.getId())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ApiException.class, () -> bookCopyService.decrementAvailableCopies(book.getId()));
+    }
+
+    // *** returnCopy Tests ***
+    @Test
+    void returnCopy_shouldPutCopyBackOnShelf() {
+        // Arrange
+        BookCopy copy = BookCopy.builder().id(copyId).book(book).copyNumber(1).status(CopyStatus.ON_LOAN).build();
+        when(bookCopyRepository.compareAndSetStatus(copyId, CopyStatus.ON_LOAN, CopyStatus.AVAILABLE)).thenReturn(1);
+
+        // Act
+        bookCopyService.returnCopy(book.getId(), copy);
+
+        // Assert
+        verify(bookCopyRepository).compareAndSetStatus(copyId, CopyStatus.ON_LOAN, CopyStatus.AVAILABLE);
+        verify(bookRepository).incrementAvailableCopies(book.getId());
+    }
+
+    @Test
+    void returnCopy_shouldLeaveCounterUnchanged_whenCopyWasNotOnLoan() {
+        // Arrange
+        BookCopy copy = BookCopy.builder().id(copyId).book(book).copyNumber(1).status(CopyStatus.AVAILABLE).build();
+        when(bookCopyRepository.compareAndSetStatus(copyId, CopyStatus.ON_LOAN, CopyStatus.AVAILABLE)).thenReturn(0);
+
+        // Act
+        bookCopyService.returnCopy(book.getId(), copy);
+
+        // Assert
+        verify(bookRepository, never()).incrementAvailableCopies(book.getId());
+    }
+
+    @Test
+    void returnCopy_shouldOnlyIncrementCounter_whenRecordHasNoCopy() {
+        // Act
+        bookCopyService.returnCopy(book.getId(), null);
+
+        // Assert
+        verify(bookCopyRepository, never()).compareAndSetStatus(any(), any(), any());
+        verify(bookRepository).incrementAvailableCopies(book.getId());
+    }
+}
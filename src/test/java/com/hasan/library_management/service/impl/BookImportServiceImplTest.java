@@ -0,0 +1,268 @@
+package com.hasan.library_management.service.impl;
+
+import com.hasan.library_management.dto.request.BookImportFormat;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.exceptions.ApiException;
+import com.hasan.library_management.mapper.BookMapper;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.service.BookSuggestionService;
+import com.hasan.library_management.service.CatalogVersion;
+import com.hasan.library_management.service.FuzzyBookSearchService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceImplTest {
+
+    private static final String CSV_HEADER = "title,author,isbn,publication_date,genre,copies\n";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookSuggestionService bookSuggestionService;
+
+    @Mock
+    private FuzzyBookSearchService fuzzyBookSearchService;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    private BookImportServiceImpl bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        bookImportService = new BookImportServiceImpl(jdbcTemplate, transactionTemplate, bookRepository, new BookMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), bookSuggestionService, fuzzyBookSearchService, catalogVersion);
+        ReflectionTestUtils.setField(bookImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(bookImportService, "maxReportedErrors", 10);
+    }
+
+    private void runTransactionsInline() {
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+    }
+
+    private MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "books.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // *** importBooks Tests ***
+    @Test
+    void importBooks_shouldInsertValidRowsInBatches() {
+        // Arrange
+        runTransactionsInline();
+        when(bookRepository.findExistingCanonicalIsbns(anyCollection())).thenReturn(Set.of());
+
+        String content = CSV_HEADER +
+                "Dune,Frank Herbert,9780441172719,1965-08-01,Science Fiction,2\n" +
+                "\"Good Omens, a novel\",Terry Pratchett,9780060853983,1990,Fantasy,\n" +
+                "Emma,Jane Austen,9780141439587,1815-12-23,Romance,1\n";
+
+        // Act
+        var result = bookImportService.importBooks(csv(content), null);
+
+        // Assert
+        assertEquals(3, result.getTotalRows());
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        assertTrue(result.getErrors().isEmpty());
+        verify(bookRepository, times(2)).findExistingCanonicalIsbns(anyCollection());
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO books"), anyList());
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO book_copies"), anyList());
+    }
+
+    @Test
+    void importBooks_shouldFeedSearchIndexesAndBumpCatalogVersion_afterEachCommittedBatch() {
+        // Arrange
+        runTransactionsInline();
+        when(bookRepository.findExistingCanonicalIsbns(anyCollection())).thenReturn(Set.of());
+
+        String content = CSV_HEADER +
+                "Dune,Frank Herbert,9780441172719,1965-08-01,Science Fiction,2\n" +
+                "Emma,Jane Austen,9780141439587,1815-12-23,Romance,1\n" +
+                "Zeitoun,Dave Eggers,9783161484100,2009-07-15,Biography,1\n";
+
+        // Act
+        bookImportService.importBooks(csv(content), null);
+
+        // Assert
+        ArgumentCaptor<Book> indexed = ArgumentCaptor.forClass(Book.class);
+        verify(fuzzyBookSearchService, times(3)).bookSaved(indexed.capture());
+        verify(bookSuggestionService, times(3)).bookSaved(any(Book.class));
+        assertEquals(List.of("Dune", "Emma", "Zeitoun"), indexed.getAllValues().stream().map(Book::getTitle).toList());
+        assertNotNull(indexed.getValue().getId());
+        assertEquals("Biography", indexed.getValue().getGenre());
+        assertTrue(indexed.getValue().isAvailable());
+        verify(catalogVersion, times(2)).bump();
+    }
+
+    @Test
+    void importBooks_shouldNotFeedSearchIndexes_whenBatchRollsBack() {
+        // Arrange
+        when(bookRepository.findExistingCanonicalIsbns(anyCollection())).thenReturn(Set.of());
+        when(transactionTemplate.execute(any())).thenThrow(new IllegalStateException("connection lost"));
+
+        String content = CSV_HEADER + "Dune,Frank Herbert,9780441172719,1965-08-01,Science Fiction,2\n";
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> bookImportService.importBooks(csv(content), null));
+        verify(fuzzyBookSearchService, never()).bookSaved(any());
+        verify(bookSuggestionService, never()).bookSaved(any());
+        verify(catalogVersion, never()).bump();
+    }
+
+    @Test
+    void importBooks_shouldReportInvalidAndDuplicateRows() {
+        // Arrange
+        ReflectionTestUtils.setField(bookImportService, "batchSize", 10);
+        runTransactionsInline();
+        when(bookRepository.findExistingCanonicalIsbns(anyCollection())).thenReturn(Set.of("9780441172719"));
+
+        String content = CSV_HEADER +
+                ",Frank Herbert,9780441172720,1965-08-01,Science Fiction,1\n" +
+                "Emma,Jane Austen,9780141439587,23/12/1815,Romance,1\n" +
+                "Dune,Frank Herbert,9780441172719,1965-08-01,Science Fiction,1\n" +
+                "Zeitoun,Dave Eggers,9783161484100,2009-07-15,Biography,1\n" +
+                "Zeitoun,Dave Eggers,3-16-148410-X,2009-07-15,Biography,1\n";
+
+        // Act
+        var result = bookImportService.importBooks(csv(content), BookImportFormat.CSV);
+
+        // Assert
+        assertEquals(5, result.getTotalRows());
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(4, result.getErrors().size());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals("Title is required", result.getErrors().get(0).getMessage());
+        assertEquals("Invalid publication date: 23/12/1815", result.getErrors().get(1).getMessage());
+        assertEquals("A book with this ISBN already exists: 3-16-148410-X", result.getErrors().get(2).getMessage());
+    }
+
+    @Test
+    void importBooks_shouldThrowException_whenCsvHeaderIsMissingIsbn() {
+        // Arrange
+        MockMultipartFile file = csv("title,author,publication_date,genre\nDune,Frank Herbert,1965-08-01,Science Fiction\n");
+
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class, () -> bookImportService.importBooks(file, null));
+        assertEquals("CSV header is missing column: isbn", ex.getMessage());
+    }
+
+    @Test
+    void importBooks_shouldCloseUpload_whenCsvHeaderIsRejected() throws Exception {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream upload = new ByteArrayInputStream("title,author\n".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getOriginalFilename()).thenReturn("books.csv");
+        when(file.getInputStream()).thenReturn(upload);
+
+        // Act
+        assertThrows(ApiException.class, () -> bookImportService.importBooks(file, null));
+
+        // Assert
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importBooks_shouldMapMarcRecords() {
+        // Arrange
+        runTransactionsInline();
+        when(bookRepository.findExistingCanonicalIsbns(anyCollection())).thenReturn(Set.of());
+
+        byte[] marc = marcRecord(
+                new String[]{"008", "060926s2006    nyu           000 1 eng d"},
+                new String[]{"020", "  \u001Fa0307265439 (hardcover)"},
+                new String[]{"100", "1 \u001FaMcCarthy, Cormac,"},
+                new String[]{"245", "14\u001FaThe road /\u001FcCormac McCarthy."},
+                new String[]{"650", " 0\u001FaFathers and sons\u001FvFiction."});
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.mrc", "application/marc", marc);
+
+        // Act
+        var result = bookImportService.importBooks(file, null);
+
+        // Assert
+        assertEquals(1, result.getImported());
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO books"), rows.capture());
+        Object[] book = rows.getValue().get(0);
+        assertEquals("The road", book[1]);
+        assertEquals("McCarthy, Cormac", book[2]);
+        assertEquals("0307265439", book[3]);
+        assertEquals("9780307265432", book[4]);
+        assertEquals(2006, ((LocalDate) book[5]).getYear());
+        assertEquals("Fathers and sons", book[6]);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO book_copies (id, book_id, copy_number, status) VALUES (?, ?, ?, ?)"), anyList());
+    }
+
+    // Builds a binary MARC 21 record from tag / data pairs
+    private static byte[] marcRecord(String[]... fields) {
+        StringBuilder directory = new StringBuilder();
+        StringBuilder data = new StringBuilder();
+        for (String[] field : fields) {
+            String value = field[1] + "\u001E";
+            directory.append(field[0])
+                    .append(String.format("%04d", value.length()))
+                    .append(String.format("%05d", data.length()));
+            data.append(value);
+        }
+        directory.append('\u001E');
+
+        int baseAddress = 24 + directory.length();
+        int length = baseAddress + data.length() + 1;
+        String leader = String.format("%05d", length) + "nam a22" + String.format("%05d", baseAddress) + "   4500";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes((leader + directory + data + "\u001D").getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+}
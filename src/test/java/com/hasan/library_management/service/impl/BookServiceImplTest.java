@@ -1,27 +1,54 @@
 package com.hasan.library_management.service.impl;
 
 import com.hasan.library_management.dto.request.BookRequestDto;
+import com.hasan.library_management.dto.request.BookSearchCriteria;
+import com.hasan.library_management.dto.request.SearchTotal;
 import com.hasan.library_management.dto.response.BookResponseDto;
 import com.hasan.library_management.entity.Book;
 import com.hasan.library_management.exceptions.ApiException;
 import com.hasan.library_management.mapper.BookMapper;
 import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.repository.BookSearchRepository;
+import com.hasan.library_management.repository.BookSortField;
+import com.hasan.library_management.repository.EntityVersion;
+import com.hasan.library_management.service.BookCopyService;
+import com.hasan.library_management.service.BookSuggestionService;
+import com.hasan.library_management.service.CatalogVersion;
+import com.hasan.library_management.service.FuzzyBookSearchService;
+import com.hasan.library_management.service.SearchCountCache;
+import com.hasan.library_management.util.FacetIndex;
+import com.hasan.library_management.util.FuzzyIndex;
+import com.hasan.library_management.util.ResourceVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Base64;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -34,6 +61,21 @@ class BookServiceImplTest {
     @Mock
     private BookMapper bookMapper;
 
+    @Mock
+    private BookCopyService bookCopyService;
+
+    @Mock
+    private BookSuggestionService bookSuggestionService;
+
+    @Mock
+    private FuzzyBookSearchService fuzzyBookSearchService;
+
+    @Mock
+    private SearchCountCache searchCountCache;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -47,12 +89,29 @@ class BookServiceImplTest {
         book.setId(bookId);
         book.setTitle("The Resonance Key");
         book.setAuthor("Marie D. Jones");
-        book.setIsbn("9781601631234");
+        book.setIsbn("9781601631237");
         book.setGenre("Metaphysical");
         book.setPublicationDate(LocalDate.of(2010, 5, 20));
         book.setAvailable(true);
     }
 
+    // Projections as the repository returns them, one instance per book so mapper stubs match
+    private final Map<Book, BookRepository.BookSummary> summaries = new IdentityHashMap<>();
+
+    private BookRepository.BookSummary summaryOf(Book book) {
+        return summaries.computeIfAbsent(book, b -> new BookRepository.BookSummary() {
+            public UUID getId() { return b.getId(); }
+            public String getTitle() { return b.getTitle(); }
+            public String getAuthor() { return b.getAuthor(); }
+            public String getIsbn() { return b.getIsbn(); }
+            public LocalDate getPublicationDate() { return b.getPublicationDate(); }
+            public String getGenre() { return b.getGenre(); }
+            public boolean isAvailable() { return b.isAvailable(); }
+            public int getTotalCopies() { return b.getTotalCopies(); }
+            public int getAvailableCopies() { return b.getAvailableCopies(); }
+        });
+    }
+
     // *** getAllBooks Tests ***
     @Test
     void getAllBooks_shouldReturnBookList() {
@@ -68,9 +127,9 @@ class BookServiceImplTest {
 
         book.setAvailable(true);
 
-        when(bookRepository.findAll()).thenReturn(List.of(book, anotherBook));
+        when(bookRepository.findAllSummaries()).thenReturn(List.of(summaryOf(book), summaryOf(anotherBook)));
 
-        when(bookMapper.toResponseDto(book)).thenReturn(
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(
                 new BookResponseDto(
                         book.getId(),
                         book.getTitle(),
@@ -78,11 +137,13 @@ class BookServiceImplTest {
                         book.getIsbn(),
                         book.getPublicationDate(),
                         book.getGenre(),
-                        book.isAvailable()
+                        book.isAvailable(),
+                        1,
+                        1
                 )
         );
 
-        when(bookMapper.toResponseDto(anotherBook)).thenReturn(
+        when(bookMapper.toResponseDto(summaryOf(anotherBook))).thenReturn(
                 new BookResponseDto(
                         anotherBook.getId(),
                         anotherBook.getTitle(),
@@ -90,7 +151,9 @@ class BookServiceImplTest {
                         anotherBook.getIsbn(),
                         anotherBook.getPublicationDate(),
                         anotherBook.getGenre(),
-                        anotherBook.isAvailable()
+                        anotherBook.isAvailable(),
+                        1,
+                        1
                 )
         );
 
@@ -107,8 +170,8 @@ class BookServiceImplTest {
     @Test
     void getBookById_shouldReturnBook_whenExists() {
         // Arrange
-        when(bookRepository.findById(bookId)).thenReturn(java.util.Optional.of(book));
-        when(bookMapper.toResponseDto(book)).thenReturn(
+        when(bookRepository.findSummaryById(bookId)).thenReturn(Optional.of(summaryOf(book)));
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(
                 new BookResponseDto(
                         book.getId(),
                         book.getTitle(),
@@ -116,7 +179,9 @@ class BookServiceImplTest {
                         book.getIsbn(),
                         book.getPublicationDate(),
                         book.getGenre(),
-                        book.isAvailable()
+                        book.isAvailable(),
+                        1,
+                        1
                 )
         );
 
@@ -134,13 +199,44 @@ class BookServiceImplTest {
     void getBookById_shouldThrowException_whenNotFound() {
         // Arrange
         UUID unknownId = UUID.randomUUID();
-        when(bookRepository.findById(unknownId)).thenReturn(java.util.Optional.empty());
+        when(bookRepository.findSummaryById(unknownId)).thenReturn(Optional.empty());
 
         // Act & Assert
         var exception = assertThrows(ApiException.class, () -> bookService.getBookById(unknownId));
         assertEquals("Book not found with id: " + unknownId, exception.getMessage());
     }
 
+    // *** getBookVersion Tests ***
+    @Test
+    void getBookVersion_shouldBuildETagFromIdAndVersion() {
+        // Arrange
+        Instant updatedAt = Instant.parse("2024-03-01T10:15:30Z");
+        EntityVersion version = new EntityVersion() {
+            public UUID getId() { return bookId; }
+            public long getVersion() { return 7; }
+            public Instant getUpdatedAt() { return updatedAt; }
+        };
+        when(bookRepository.findVersionById(bookId)).thenReturn(Optional.of(version));
+
+        // Act
+        ResourceVersion result = bookService.getBookVersion(bookId);
+
+        // Assert
+        assertEquals(bookId + "-7", result.eTag());
+        assertEquals(updatedAt.toEpochMilli(), result.lastModifiedMillis());
+    }
+
+    @Test
+    void getBookVersion_shouldThrowException_whenNotFound() {
+        // Arrange
+        UUID unknownId = UUID.randomUUID();
+        when(bookRepository.findVersionById(unknownId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        var exception = assertThrows(ApiException.class, () -> bookService.getBookVersion(unknownId));
+        assertEquals("Book not found with id: " + unknownId, exception.getMessage());
+    }
+
     // *** createBook Tests ***
     @Test
     void createBook_shouldCreate_whenIsbnNotExists() {
@@ -148,12 +244,11 @@ class BookServiceImplTest {
         var requestDto = new com.hasan.library_management.dto.request.BookRequestDto();
         requestDto.setTitle("The Resonance Key");
         requestDto.setAuthor("Marie D. Jones");
-        requestDto.setIsbn("9781601631234");
+        requestDto.setIsbn("9781601631237");
         requestDto.setGenre("Metaphysical");
         requestDto.setPublicationDate(LocalDate.of(2010, 5, 20));
 
-        when(bookRepository.findByIsbnContainingIgnoreCase("9781601631234", org.springframework.data.domain.Pageable.ofSize(1)))
-                .thenReturn(org.springframework.data.domain.Page.empty());
+        when(bookRepository.existsByIsbnCanonical("9781601631237")).thenReturn(false);
 
         when(bookMapper.toEntity(requestDto)).thenReturn(book);
         when(bookRepository.save(book)).thenReturn(book);
@@ -165,7 +260,9 @@ class BookServiceImplTest {
                         book.getIsbn(),
                         book.getPublicationDate(),
                         book.getGenre(),
-                        book.isAvailable()
+                        book.isAvailable(),
+                        1,
+                        1
                 )
         );
 
@@ -176,6 +273,7 @@ class BookServiceImplTest {
         assertNotNull(result);
         assertEquals("The Resonance Key", result.getTitle());
         assertEquals("Marie D. Jones", result.getAuthor());
+        verify(catalogVersion).bump();
     }
 
     @Test
@@ -184,18 +282,81 @@ class BookServiceImplTest {
         var requestDto = new com.hasan.library_management.dto.request.BookRequestDto();
         requestDto.setTitle("The Resonance Key");
         requestDto.setAuthor("Marie D. Jones");
-        requestDto.setIsbn("9781601631234");
+        requestDto.setIsbn("9781601631237");
         requestDto.setGenre("Metaphysical");
         requestDto.setPublicationDate(LocalDate.of(2010, 5, 20));
 
-        var existingPage = new org.springframework.data.domain.PageImpl<>(List.of(book));
+        when(bookRepository.existsByIsbnCanonical("9781601631237")).thenReturn(true);
 
-        when(bookRepository.findByIsbnContainingIgnoreCase("9781601631234", org.springframework.data.domain.Pageable.ofSize(1)))
-                .thenReturn(existingPage);
+        // Act & Assert
+        var exception = assertThrows(ApiException.class, () -> bookService.createBook(requestDto));
+        assertEquals("A book with this ISBN already exists: 9781601631237", exception.getMessage());
+    }
+
+    @Test
+    void createBook_shouldThrowException_whenIsbn10OfExistingBookIsUsed() {
+        // Arrange
+        var requestDto = new BookRequestDto();
+        requestDto.setTitle("The Resonance Key");
+        requestDto.setAuthor("Marie D. Jones");
+        requestDto.setIsbn("0-306-40615-2");
+        requestDto.setGenre("Metaphysical");
+        requestDto.setPublicationDate(LocalDate.of(2010, 5, 20));
+
+        when(bookRepository.existsByIsbnCanonical("9780306406157")).thenReturn(true);
+
+        // Act & Assert
+        var exception = assertThrows(ApiException.class, () -> bookService.createBook(requestDto));
+        assertEquals("A book with this ISBN already exists: 0-306-40615-2", exception.getMessage());
+    }
+
+    @Test
+    void createBook_shouldThrowException_whenIsbnIsMalformed() {
+        // Arrange
+        var requestDto = new BookRequestDto();
+        requestDto.setTitle("The Resonance Key");
+        requestDto.setAuthor("Marie D. Jones");
+        requestDto.setIsbn("12345X78901");
+        requestDto.setGenre("Metaphysical");
+        requestDto.setPublicationDate(LocalDate.of(2010, 5, 20));
+
+        // Act & Assert
+        var exception = assertThrows(ApiException.class, () -> bookService.createBook(requestDto));
+        assertEquals("ISBN must be a valid ISBN-10 or ISBN-13", exception.getMessage());
+    }
+
+    @Test
+    void createBook_shouldRejectIsbn13_whenCheckDigitIsWrong() {
+        // Arrange
+        var requestDto = new BookRequestDto();
+        requestDto.setTitle("The Resonance Key");
+        requestDto.setAuthor("Marie D. Jones");
+        requestDto.setIsbn("978-0-306-40615-8");
+        requestDto.setGenre("Metaphysical");
+        requestDto.setPublicationDate(LocalDate.of(2010, 5, 20));
 
         // Act & Assert
         var exception = assertThrows(ApiException.class, () -> bookService.createBook(requestDto));
-        assertEquals("A book with this ISBN already exists: 9781601631234", exception.getMessage());
+        assertEquals("ISBN must be a valid ISBN-10 or ISBN-13", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+        verify(bookRepository, never()).save(any());
+    }
+
+    @Test
+    void createBook_shouldRejectIsbn10_whenCheckDigitIsWrong() {
+        // Arrange
+        var requestDto = new BookRequestDto();
+        requestDto.setTitle("The Resonance Key");
+        requestDto.setAuthor("Marie D. Jones");
+        // Adjacent digits swapped: 0-306-40615-2 with 0 and 6 exchanged
+        requestDto.setIsbn("0-306-46015-2");
+        requestDto.setGenre("Metaphysical");
+        requestDto.setPublicationDate(LocalDate.of(2010, 5, 20));
+
+        // Act & Assert
+        var exception = assertThrows(ApiException.class, () -> bookService.createBook(requestDto));
+        assertEquals("ISBN must be a valid ISBN-10 or ISBN-13", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
     }
 
     // *** updateBook Tests ***
@@ -207,7 +368,7 @@ class BookServiceImplTest {
         var requestDto = new BookRequestDto();
         requestDto.setTitle("Updated Title");
         requestDto.setAuthor("Updated Author");
-        requestDto.setIsbn("1111111111111");
+        requestDto.setIsbn("1111111111116");
         requestDto.setGenre("Updated Genre");
         requestDto.setPublicationDate(LocalDate.of(2020, 1, 1));
 
@@ -222,7 +383,9 @@ class BookServiceImplTest {
                         requestDto.getIsbn(),
                         requestDto.getPublicationDate(),
                         requestDto.getGenre(),
-                        true
+                        true,
+                        1,
+                        1
                 )
         );
 
@@ -233,7 +396,7 @@ class BookServiceImplTest {
         assertNotNull(result);
         assertEquals("Updated Title", result.getTitle());
         assertEquals("Updated Author", result.getAuthor());
-        assertEquals("1111111111111", result.getIsbn());
+        assertEquals("1111111111116", result.getIsbn());
     }
 
     @Test
@@ -266,6 +429,8 @@ class BookServiceImplTest {
 
         // Act & Assert
         assertDoesNotThrow(() -> bookService.deleteBook(bookId));
+        verify(bookSuggestionService).bookDeleted(bookId);
+        verify(catalogVersion).bump();
     }
 
     @Test
@@ -284,7 +449,7 @@ class BookServiceImplTest {
 
     // *** searchByTitle Tests ***
     @Test
-    void searchByTitle_shouldReturnPagedBooks() {
+    void searchByTitle_shouldReturnPagedBooks_whenTotalIsExact() {
         // Arrange
         Pageable pageable = Pageable.ofSize(10);
         Book secondBook = new Book();
@@ -296,23 +461,22 @@ class BookServiceImplTest {
         secondBook.setPublicationDate(LocalDate.of(1943, 4, 6));
         secondBook.setAvailable(true);
 
-        List<Book> books = List.of(book, secondBook);
-        Page<Book> bookPage = new PageImpl<>(books);
+        Page<BookRepository.BookSummary> bookPage = new PageImpl<>(List.of(summaryOf(book), summaryOf(secondBook)));
 
-        when(bookRepository.findByTitleContainingIgnoreCase("prince", pageable)).thenReturn(bookPage);
+        when(bookRepository.findByTitleContainingIgnoreCase("prince", pageable, BookRepository.BookSummary.class)).thenReturn(bookPage);
 
-        when(bookMapper.toResponseDto(book)).thenReturn(new BookResponseDto(
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(new BookResponseDto(
                 book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
-                book.getPublicationDate(), book.getGenre(), book.isAvailable()
+                book.getPublicationDate(), book.getGenre(), book.isAvailable(), 1, 1
         ));
 
-        when(bookMapper.toResponseDto(secondBook)).thenReturn(new BookResponseDto(
+        when(bookMapper.toResponseDto(summaryOf(secondBook))).thenReturn(new BookResponseDto(
                 secondBook.getId(), secondBook.getTitle(), secondBook.getAuthor(), secondBook.getIsbn(),
-                secondBook.getPublicationDate(), secondBook.getGenre(), secondBook.isAvailable()
+                secondBook.getPublicationDate(), secondBook.getGenre(), secondBook.isAvailable(), 1, 1
         ));
 
         // Act
-        var result = bookService.searchByTitle("prince", pageable);
+        var result = bookService.searchByTitle("prince", pageable, SearchTotal.EXACT);
 
         // Assert
         assertEquals(2, result.getContent().size());
@@ -320,9 +484,60 @@ class BookServiceImplTest {
         assertEquals("The Little Prince", result.getContent().get(1).getTitle());
     }
 
+    @Test
+    void searchByTitle_shouldSkipCount_whenTotalIsNone() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        when(bookRepository.findSliceByTitleContainingIgnoreCase("resonance", pageable, BookRepository.BookSummary.class))
+                .thenReturn(new SliceImpl<>(List.of(summaryOf(book)), pageable, true));
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(BookResponseDto.builder().id(bookId).title(book.getTitle()).build());
+
+        // Act
+        var result = bookService.searchByTitle("resonance", pageable, SearchTotal.NONE);
+
+        // Assert
+        assertFalse(result instanceof Page);
+        assertTrue(result.hasNext());
+        assertEquals(1, result.getNumberOfElements());
+        verify(bookRepository, never()).countByTitleContainingIgnoreCase(any());
+    }
+
+    @Test
+    void searchByTitle_shouldUseCachedCount_whenTotalIsApproximate() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        when(bookRepository.findSliceByTitleContainingIgnoreCase("Resonance", pageable, BookRepository.BookSummary.class))
+                .thenReturn(new SliceImpl<>(List.of(summaryOf(book)), pageable, true));
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(BookResponseDto.builder().id(bookId).title(book.getTitle()).build());
+        when(searchCountCache.count(eq("title:resonance"), any())).thenReturn(40L);
+
+        // Act
+        var result = bookService.searchByTitle("Resonance", pageable, SearchTotal.APPROXIMATE);
+
+        // Assert
+        assertEquals(40, ((Page<BookResponseDto>) result).getTotalElements());
+        verify(bookRepository, never()).findByTitleContainingIgnoreCase(any(), any(), any());
+    }
+
+    @Test
+    void searchByTitle_shouldNotCount_whenApproximateSliceReachesLastMatch() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        when(bookRepository.findSliceByTitleContainingIgnoreCase("resonance", pageable, BookRepository.BookSummary.class))
+                .thenReturn(new SliceImpl<>(List.of(summaryOf(book)), pageable, false));
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(BookResponseDto.builder().id(bookId).title(book.getTitle()).build());
+
+        // Act
+        var result = bookService.searchByTitle("resonance", pageable, SearchTotal.APPROXIMATE);
+
+        // Assert
+        assertEquals(1, ((Page<BookResponseDto>) result).getTotalElements());
+        verify(searchCountCache, never()).count(any(), any());
+    }
+
     // *** searchByAuthor Tests ***
     @Test
-    void searchByAuthor_shouldReturnPagedBooks() {
+    void searchByAuthor_shouldReturnPagedBooks_whenTotalIsExact() {
         // Arrange
         Pageable pageable = Pageable.ofSize(10);
         Book anotherBook = new Book();
@@ -334,23 +549,22 @@ class BookServiceImplTest {
         anotherBook.setPublicationDate(LocalDate.of(2011, 5, 13));
         anotherBook.setAvailable(true);
 
-        List<Book> books = List.of(book, anotherBook);
-        Page<Book> bookPage = new PageImpl<>(books);
+        Page<BookRepository.BookSummary> bookPage = new PageImpl<>(List.of(summaryOf(book), summaryOf(anotherBook)));
 
-        when(bookRepository.findByAuthorContainingIgnoreCase("robert", pageable)).thenReturn(bookPage);
+        when(bookRepository.findByAuthorContainingIgnoreCase("robert", pageable, BookRepository.BookSummary.class)).thenReturn(bookPage);
 
-        when(bookMapper.toResponseDto(book)).thenReturn(new BookResponseDto(
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(new BookResponseDto(
                 book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
-                book.getPublicationDate(), book.getGenre(), book.isAvailable()
+                book.getPublicationDate(), book.getGenre(), book.isAvailable(), 1, 1
         ));
 
-        when(bookMapper.toResponseDto(anotherBook)).thenReturn(new BookResponseDto(
+        when(bookMapper.toResponseDto(summaryOf(anotherBook))).thenReturn(new BookResponseDto(
                 anotherBook.getId(), anotherBook.getTitle(), anotherBook.getAuthor(), anotherBook.getIsbn(),
-                anotherBook.getPublicationDate(), anotherBook.getGenre(), anotherBook.isAvailable()
+                anotherBook.getPublicationDate(), anotherBook.getGenre(), anotherBook.isAvailable(), 1, 1
         ));
 
         // Act
-        var result = bookService.searchByAuthor("robert", pageable);
+        var result = bookService.searchByAuthor("robert", pageable, SearchTotal.EXACT);
 
         // Assert
         assertEquals(2, result.getContent().size());
@@ -360,7 +574,7 @@ class BookServiceImplTest {
 
     // *** searchByIsbn Tests ***
     @Test
-    void searchByIsbn_shouldReturnPagedBooks() {
+    void searchByIsbn_shouldReturnPagedBooks_whenTotalIsExact() {
         // Arrange
         Pageable pageable = Pageable.ofSize(10);
 
@@ -373,19 +587,18 @@ class BookServiceImplTest {
         anotherBook.setPublicationDate(LocalDate.of(2020, 1, 1));
         anotherBook.setAvailable(true);
 
-        List<Book> books = List.of(anotherBook);
-        Page<Book> bookPage = new PageImpl<>(books);
+        Page<BookRepository.BookSummary> bookPage = new PageImpl<>(List.of(summaryOf(anotherBook)));
 
-        when(bookRepository.findByIsbnContainingIgnoreCase("1234567890", pageable)).thenReturn(bookPage);
+        when(bookRepository.findByIsbnContainingIgnoreCase("1234567890", pageable, BookRepository.BookSummary.class)).thenReturn(bookPage);
 
-        when(bookMapper.toResponseDto(anotherBook)).thenReturn(new BookResponseDto(
+        when(bookMapper.toResponseDto(summaryOf(anotherBook))).thenReturn(new BookResponseDto(
                 anotherBook.getId(), anotherBook.getTitle(), anotherBook.getAuthor(),
                 anotherBook.getIsbn(), anotherBook.getPublicationDate(),
-                anotherBook.getGenre(), anotherBook.isAvailable()
+                anotherBook.getGenre(), anotherBook.isAvailable(), 1, 1
         ));
 
         // Act
-        var result = bookService.searchByIsbn("1234567890", pageable);
+        var result = bookService.searchByIsbn("1234567890", pageable, SearchTotal.EXACT);
 
         // Assert
         assertEquals(1, result.getContent().size());
@@ -396,7 +609,7 @@ class BookServiceImplTest {
 
     // *** searchByGenre Tests ***
     @Test
-    void searchByGenre_shouldReturnPagedBooks() {
+    void searchByGenre_shouldReturnPagedBooks_whenTotalIsExact() {
         // Arrange
         Pageable pageable = Pageable.ofSize(10);
 
@@ -409,23 +622,119 @@ class BookServiceImplTest {
         anotherBook.setPublicationDate(LocalDate.of(1943, 4, 6));
         anotherBook.setAvailable(true);
 
-        List<Book> books = List.of(anotherBook);
-        Page<Book> bookPage = new PageImpl<>(books);
+        Page<BookRepository.BookSummary> bookPage = new PageImpl<>(List.of(summaryOf(anotherBook)));
 
-        when(bookRepository.findByGenreContainingIgnoreCase("fiction", pageable)).thenReturn(bookPage);
+        when(bookRepository.findByGenreContainingIgnoreCase("fiction", pageable, BookRepository.BookSummary.class)).thenReturn(bookPage);
 
-        when(bookMapper.toResponseDto(anotherBook)).thenReturn(new BookResponseDto(
+        when(bookMapper.toResponseDto(summaryOf(anotherBook))).thenReturn(new BookResponseDto(
                 anotherBook.getId(), anotherBook.getTitle(), anotherBook.getAuthor(),
                 anotherBook.getIsbn(), anotherBook.getPublicationDate(),
-                anotherBook.getGenre(), anotherBook.isAvailable()
+                anotherBook.getGenre(), anotherBook.isAvailable(), 1, 1
         ));
 
         // Act
-        var result = bookService.searchByGenre("fiction", pageable);
+        var result = bookService.searchByGenre("fiction", pageable, SearchTotal.EXACT);
 
         // Assert
         assertEquals(1, result.getContent().size());
         assertEquals("The Little Prince", result.getContent().get(0).getTitle());
         assertEquals("Fiction", result.getContent().get(0).getGenre());
     }
-}
\ No newline at end of file
+
+    // *** searchFuzzy Tests ***
+    @Test
+    void searchFuzzy_shouldReturnRankedPageInIndexOrder() {
+        // Arrange
+        Pageable pageable = PageRequest.of(1, 1);
+
+        Book secondBook = new Book();
+        secondBook.setId(UUID.randomUUID());
+        secondBook.setTitle("The Resonance Keys");
+
+        when(fuzzyBookSearchService.search("resonanse", 2)).thenReturn(new FuzzyIndex.Result<>(3, List.of(
+                new FuzzyIndex.Hit<>(bookId, 2.0), new FuzzyIndex.Hit<>(secondBook.getId(), 1.0))));
+        when(bookRepository.findSummariesByIdIn(List.of(secondBook.getId()))).thenReturn(List.of(summaryOf(secondBook)));
+        when(bookMapper.toResponseDto(summaryOf(secondBook))).thenReturn(BookResponseDto.builder()
+                .id(secondBook.getId()).title(secondBook.getTitle()).build());
+
+        // Act
+        var result = bookService.searchFuzzy("resonanse", pageable);
+
+        // Assert
+        assertEquals(3, result.getTotalElements());
+        assertEquals(1, result.getContent().size());
+        assertEquals("The Resonance Keys", result.getContent().get(0).getTitle());
+    }
+
+    // *** search Tests ***
+    @Test
+    void search_shouldReturnCursorToNextPage_whenMoreBooksMatch() {
+        // Arrange
+        Book secondBook = new Book();
+        secondBook.setId(UUID.randomUUID());
+        secondBook.setTitle("The Resonance Keys");
+
+        when(bookRepository.search(any(), eq(BookSortField.TITLE), eq(true), isNull(), eq(2)))
+                .thenReturn(List.of(summaryOf(book), summaryOf(secondBook)));
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(BookResponseDto.builder().id(bookId).title(book.getTitle()).build());
+        when(bookRepository.search(any(), eq(BookSortField.TITLE), eq(true),
+                eq(new BookSearchRepository.Keyset(book.getTitle(), bookId)), eq(2)))
+                .thenReturn(List.of(summaryOf(secondBook)));
+
+        // Act
+        var firstPage = bookService.search(new BookSearchCriteria(), "title", "asc", null, 1);
+        var secondPage = bookService.search(new BookSearchCriteria(), "title", "asc", firstPage.getNextCursor(), 1);
+
+        // Assert
+        assertTrue(firstPage.isHasNext());
+        assertEquals(1, firstPage.getContent().size());
+        assertFalse(secondPage.isHasNext());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void search_shouldThrowException_whenSortFieldIsNotWhitelisted() {
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class,
+                () -> bookService.search(new BookSearchCriteria(), "isbnCanonical", "asc", null, 10));
+        assertEquals("Unsupported sort field: isbnCanonical", ex.getMessage());
+    }
+
+    @Test
+    void search_shouldThrowException_whenCursorBelongsToAnotherSort() {
+        // Arrange
+        String cursor = Base64.getUrlEncoder().encodeToString((bookId + "|AUTHOR|=Marie D. Jones").getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class,
+                () -> bookService.search(new BookSearchCriteria(), "title", "asc", cursor, 10));
+        assertEquals("Invalid cursor", ex.getMessage());
+    }
+
+    // *** searchFaceted Tests ***
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchFaceted_shouldPassFiltersAndMapFacetCounts() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        BookResponseDto bookResponseDto = BookResponseDto.builder().id(bookId).title(book.getTitle()).build();
+        ArgumentCaptor<Map<String, List<String>>> filters = ArgumentCaptor.forClass(Map.class);
+
+        when(fuzzyBookSearchService.searchFaceted(eq(null), filters.capture(), eq(0), eq(10)))
+                .thenReturn(new FuzzyBookSearchService.FacetedResult(1, List.of(bookId),
+                        Map.of(FuzzyBookSearchService.GENRE, List.of(new FacetIndex.Count("Fantasy", 1)))));
+        when(bookRepository.findSummariesByIdIn(List.of(bookId))).thenReturn(List.of(summaryOf(book)));
+        when(bookMapper.toResponseDto(summaryOf(book))).thenReturn(bookResponseDto);
+
+        // Act
+        var result = bookService.searchFaceted(null, List.of("Fantasy"), null, List.of("1930s"), true, pageable);
+
+        // Assert
+        assertEquals(1, result.getBooks().getTotalElements());
+        assertEquals(bookResponseDto, result.getBooks().getContent().get(0));
+        assertEquals("Fantasy", result.getFacets().get(FuzzyBookSearchService.GENRE).get(0).getValue());
+        assertEquals(List.of("true"), filters.getValue().get(FuzzyBookSearchService.AVAILABLE));
+        assertEquals(List.of("1930s"), filters.getValue().get(FuzzyBookSearchService.DECADE));
+        assertNull(filters.getValue().get(FuzzyBookSearchService.AUTHOR));
+    }
+}
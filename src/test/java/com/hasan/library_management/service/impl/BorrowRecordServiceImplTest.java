@@ -2,21 +2,32 @@ package com.hasan.library_management.service.impl;
 
 import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
 import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import com.hasan.library_management.entity.ArchivedBorrowRecord;
 import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.BookCopy;
 import com.hasan.library_management.entity.BorrowRecord;
 import com.hasan.library_management.entity.User;
 import com.hasan.library_management.exceptions.ApiException;
 import com.hasan.library_management.mapper.BorrowRecordMapper;
+import com.hasan.library_management.repository.ArchivedBorrowRecordRepository;
 import com.hasan.library_management.repository.BookRepository;
 import com.hasan.library_management.repository.BorrowRecordRepository;
 import com.hasan.library_management.repository.UserRepository;
 import com.hasan.library_management.service.BookAvailabilityService;
+import com.hasan.library_management.service.BookCopyService;
+import com.hasan.library_management.service.ReplicaStickiness;
+import com.hasan.library_management.service.ReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,6 +35,12 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,9 +55,24 @@ class BorrowRecordServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ArchivedBorrowRecordRepository archivedBorrowRecordRepository;
+
     @Mock
     private BookAvailabilityService bookAvailabilityService;
 
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private BookCopyService bookCopyService;
+
+    @Mock
+    private ReplicaStickiness replicaStickiness;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private BorrowRecordServiceImpl borrowRecordService;
 
@@ -50,6 +82,7 @@ class BorrowRecordServiceImplTest {
     private BorrowRecord borrowRecord;
     private User user;
     private Book book;
+    private BookCopy copy;
     private UUID recordId;
 
 
@@ -68,6 +101,8 @@ class BorrowRecordServiceImplTest {
         book.setId(bookId);
         book.setTitle("The Alchemist");
 
+        copy = BookCopy.builder().id(UUID.randomUUID()).book(book).copyNumber(1).build();
+
         borrowRecord = new BorrowRecord();
         borrowRecord.setId(recordId);
         borrowRecord.setUser(user);
@@ -118,8 +153,9 @@ class BorrowRecordServiceImplTest {
 
         when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(bookCopyService.claimFreeCopy(book.getId())).thenReturn(Optional.of(copy));
         when(borrowRecordMapper.toEntity(requestDto, user, book)).thenReturn(borrowRecord);
-        when(borrowRecordRepository.save(borrowRecord)).thenReturn(borrowRecord);
+        when(borrowRecordRepository.saveAndFlush(borrowRecord)).thenReturn(borrowRecord);
         when(borrowRecordMapper.toResponseDto(borrowRecord)).thenReturn(new BorrowRecordResponseDto(
                 book.getTitle(), user.getName(), borrowRecord.getId(),
                 user.getId(), book.getId(),
@@ -134,6 +170,12 @@ class BorrowRecordServiceImplTest {
         assertNotNull(result);
         assertEquals(book.getTitle(), result.getBookTitle());
         assertEquals(user.getName(), result.getUserName());
+        verify(replicaStickiness).recordWrite();
+
+        // The counter update locks the title row until commit, so it follows the record insert
+        InOrder inOrder = inOrder(borrowRecordRepository, bookCopyService);
+        inOrder.verify(borrowRecordRepository).saveAndFlush(borrowRecord);
+        inOrder.verify(bookCopyService).decrementAvailableCopies(book.getId());
     }
 
     @Test
@@ -182,6 +224,77 @@ class BorrowRecordServiceImplTest {
     }
 
 
+    @Test
+    void borrowBook_shouldCreateBorrowRecord_whenBookIsHeldForUser() {
+        // Arrange
+        book.setAvailable(false);
+        BorrowRecordRequestDto requestDto = new BorrowRecordRequestDto(
+                user.getId(), book.getId(), LocalDate.now(), LocalDate.now().plusDays(7)
+        );
+
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(reservationService.claimHold(book.getId(), user.getId())).thenReturn(true);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(bookCopyService.claimHeldCopy(book.getId())).thenReturn(Optional.of(copy));
+        when(borrowRecordMapper.toEntity(requestDto, user, book)).thenReturn(borrowRecord);
+        when(borrowRecordMapper.toResponseDto(borrowRecord)).thenReturn(new BorrowRecordResponseDto(
+                book.getTitle(), user.getName(), borrowRecord.getId(),
+                user.getId(), book.getId(),
+                borrowRecord.getBorrowDate(), borrowRecord.getDueDate(),
+                null, false
+        ));
+
+        // Act
+        var result = borrowRecordService.borrowBook(requestDto);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(book.getId(), result.getBookId());
+        assertEquals(copy, borrowRecord.getCopy());
+    }
+
+    @Test
+    void borrowBook_shouldUseHeldCopy_whenUserHasHoldAndOtherCopiesAreFree() {
+        // Arrange
+        book.setAvailable(true);
+        BorrowRecordRequestDto requestDto = new BorrowRecordRequestDto(
+                user.getId(), book.getId(), LocalDate.now(), LocalDate.now().plusDays(7)
+        );
+
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(reservationService.claimHold(book.getId(), user.getId())).thenReturn(true);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(bookCopyService.claimHeldCopy(book.getId())).thenReturn(Optional.of(copy));
+        when(borrowRecordMapper.toEntity(requestDto, user, book)).thenReturn(borrowRecord);
+
+        // Act
+        borrowRecordService.borrowBook(requestDto);
+
+        // Assert
+        assertEquals(copy, borrowRecord.getCopy());
+        verify(bookCopyService, never()).claimFreeCopy(book.getId());
+        // Held copies were never counted as available
+        verify(bookCopyService, never()).decrementAvailableCopies(book.getId());
+    }
+
+    @Test
+    void borrowBook_shouldThrowException_whenLastCopyWasTakenConcurrently() {
+        // Arrange
+        book.setAvailable(true);
+        BorrowRecordRequestDto requestDto = new BorrowRecordRequestDto(
+                user.getId(), book.getId(), LocalDate.now(), LocalDate.now().plusDays(7)
+        );
+
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(bookCopyService.claimFreeCopy(book.getId())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class, () -> borrowRecordService.borrowBook(requestDto));
+        assertEquals("Book is currently not available for borrowing", ex.getMessage());
+    }
+
+
     @Test
     void borrowBook_shouldThrowException_whenUserHasAlreadyBorrowed5Books() {
         // Arrange
@@ -240,8 +353,7 @@ class BorrowRecordServiceImplTest {
         book.setAvailable(false);
 
         when(borrowRecordRepository.findById(borrowRecord.getId())).thenReturn(Optional.of(borrowRecord));
-        when(borrowRecordRepository.save(borrowRecord)).thenReturn(borrowRecord);
-        when(bookRepository.save(book)).thenReturn(book);
+        when(borrowRecordRepository.saveAndFlush(borrowRecord)).thenReturn(borrowRecord);
         when(borrowRecordMapper.toResponseDto(borrowRecord)).thenReturn(new BorrowRecordResponseDto(
                 book.getTitle(), user.getName(), borrowRecord.getId(),
                 user.getId(), book.getId(),
@@ -255,6 +367,34 @@ class BorrowRecordServiceImplTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.isReturned());
+        InOrder inOrder = inOrder(borrowRecordRepository, bookCopyService);
+        inOrder.verify(borrowRecordRepository).saveAndFlush(borrowRecord);
+        inOrder.verify(bookCopyService).returnCopy(book.getId(), borrowRecord.getCopy());
+        verify(replicaStickiness).recordWrite();
+    }
+
+    @Test
+    void returnBook_shouldKeepBookUnavailable_whenHandedOffToReservation() {
+        // Arrange
+        borrowRecord.setReturned(false);
+        book.setAvailable(false);
+
+        when(borrowRecordRepository.findById(borrowRecord.getId())).thenReturn(Optional.of(borrowRecord));
+        when(reservationService.handOffToNextInQueue(book)).thenReturn(true);
+        when(borrowRecordMapper.toResponseDto(borrowRecord)).thenReturn(new BorrowRecordResponseDto(
+                book.getTitle(), user.getName(), borrowRecord.getId(),
+                user.getId(), book.getId(),
+                borrowRecord.getBorrowDate(), borrowRecord.getDueDate(),
+                LocalDate.now(), true
+        ));
+
+        // Act
+        var result = borrowRecordService.returnBook(borrowRecord.getId());
+
+        // Assert
+        assertTrue(result.isReturned());
+        verify(bookCopyService).holdCopy(borrowRecord.getCopy());
+        verify(bookAvailabilityService, never()).publishAvailabilityChange(book.getId().toString(), true);
     }
 
     @Test
@@ -302,6 +442,33 @@ class BorrowRecordServiceImplTest {
         assertEquals(userId, result.get(0).getUserId());
     }
 
+    @Test
+    void getBorrowRecordsByUserId_shouldIncludeArchivedRecords() {
+        // Arrange
+        UUID userId = user.getId();
+        ArchivedBorrowRecord archived = ArchivedBorrowRecord.builder()
+                .id(UUID.randomUUID()).user(user).book(book)
+                .borrowDate(LocalDate.of(2022, 1, 1)).dueDate(LocalDate.of(2022, 1, 15)).returnDate(LocalDate.of(2022, 1, 10))
+                .build();
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(borrowRecordRepository.findByUserId(userId)).thenReturn(List.of(borrowRecord));
+        when(archivedBorrowRecordRepository.findByUserId(userId)).thenReturn(List.of(archived));
+        when(borrowRecordMapper.toResponseDto(borrowRecord)).thenReturn(
+                BorrowRecordResponseDto.builder().id(borrowRecord.getId()).userId(userId).returned(false).build());
+        when(borrowRecordMapper.toResponseDto(archived)).thenReturn(
+                BorrowRecordResponseDto.builder().id(archived.getId()).userId(userId).returned(true).build());
+
+        // Act
+        var result = borrowRecordService.getBorrowRecordsByUserId(userId);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(borrowRecord.getId(), result.get(0).getId());
+        assertEquals(archived.getId(), result.get(1).getId());
+        assertTrue(result.get(1).isReturned());
+    }
+
     @Test
     void getBorrowRecordsByUserId_shouldThrowException_whenUserNotFound() {
         // Arrange
@@ -403,5 +570,47 @@ class BorrowRecordServiceImplTest {
         assertTrue(report.contains("Returned: ❌ No"));
     }
 
+    // *** archiveReturnedRecords Tests ***
+    @Test
+    void archiveReturnedRecords_shouldMoveBatches_untilLastBatchIsPartial() {
+        // Arrange
+        ReflectionTestUtils.setField(borrowRecordService, "archiveAfterMonths", 12);
+        ReflectionTestUtils.setField(borrowRecordService, "archiveBatchSize", 2);
+        List<UUID> firstBatch = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> lastBatch = List.of(UUID.randomUUID());
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(borrowRecordRepository.findArchivableIds(any(LocalDate.class), any(Pageable.class)))
+                .thenReturn(firstBatch, lastBatch);
+        when(borrowRecordRepository.deleteByIdIn(firstBatch)).thenReturn(2);
+        when(borrowRecordRepository.deleteByIdIn(lastBatch)).thenReturn(1);
+
+        // Act
+        borrowRecordService.archiveReturnedRecords();
+
+        // Assert
+        verify(borrowRecordRepository, times(2)).findArchivableIds(eq(LocalDate.now().minusMonths(12)), any(Pageable.class));
+        verify(borrowRecordRepository).copyToArchive(firstBatch);
+        verify(borrowRecordRepository).copyToArchive(lastBatch);
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void archiveReturnedRecords_shouldNotCopyAnything_whenNoRecordIsOldEnough() {
+        // Arrange
+        ReflectionTestUtils.setField(borrowRecordService, "archiveAfterMonths", 12);
+        ReflectionTestUtils.setField(borrowRecordService, "archiveBatchSize", 2);
 
-}
\ No newline at end of file
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(borrowRecordRepository.findArchivableIds(any(LocalDate.class), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        borrowRecordService.archiveReturnedRecords();
+
+        // Assert
+        verify(borrowRecordRepository, never()).copyToArchive(any());
+        verify(borrowRecordRepository, never()).deleteByIdIn(any());
+    }
+}
@@ -0,0 +1,242 @@
+package com.hasan.library_management.service.impl;
+
+import com.hasan.library_management.dto.request.BorrowRecordRequestDto;
+import com.hasan.library_management.dto.response.BorrowRecordResponseDto;
+import com.hasan.library_management.entity.CopyStatus;
+import com.hasan.library_management.exceptions.ApiException;
+import com.hasan.library_management.repository.ReactiveBorrowRecordRepository;
+import com.hasan.library_management.repository.ReactiveBorrowRecordRepository.Loan;
+import com.hasan.library_management.repository.ReactiveBorrowRecordRepository.QueueEntry;
+import com.hasan.library_management.service.BookAvailabilityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBorrowRecordServiceImplTest {
+
+    @Mock
+    private ReactiveBorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private BookAvailabilityService bookAvailabilityService;
+
+    @InjectMocks
+    private ReactiveBorrowRecordServiceImpl borrowRecordService;
+
+    private UUID userId;
+    private UUID bookId;
+    private UUID copyId;
+    private BorrowRecordRequestDto requestDto;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        bookId = UUID.randomUUID();
+        copyId = UUID.randomUUID();
+
+        requestDto = BorrowRecordRequestDto.builder()
+                .userId(userId)
+                .bookId(bookId)
+                .borrowDate(LocalDate.now())
+                .dueDate(LocalDate.now().plusDays(14))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private BorrowRecordResponseDto response(UUID id) {
+        return BorrowRecordResponseDto.builder().id(id).userId(userId).bookId(bookId).build();
+    }
+
+    // *** borrowBook Tests ***
+    @Test
+    void borrowBook_shouldClaimCopyAndPublishAfterCommit() {
+        // Arrange
+        runTransactionsInline();
+        when(borrowRecordRepository.findBookAvailability(bookId)).thenReturn(Mono.just(true));
+        when(borrowRecordRepository.existsUser(userId)).thenReturn(Mono.just(true));
+        when(borrowRecordRepository.countOpenLoans(userId)).thenReturn(Mono.just(0L));
+        when(borrowRecordRepository.hasOverdueLoans(eq(userId), any())).thenReturn(Mono.just(false));
+        when(borrowRecordRepository.findCopyIds(eq(bookId), eq(CopyStatus.AVAILABLE), anyInt())).thenReturn(Flux.just(copyId));
+        when(borrowRecordRepository.compareAndSetCopyStatus(copyId, CopyStatus.AVAILABLE, CopyStatus.ON_LOAN)).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.decrementAvailableCopies(bookId)).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.insert(any(), eq(requestDto), eq(copyId))).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.findAvailableCopies(bookId)).thenReturn(Mono.just(0));
+        when(borrowRecordRepository.findById(any())).thenAnswer(invocation -> Mono.just(response(invocation.getArgument(0))));
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.borrowBook(requestDto))
+                .assertNext(result -> {
+                    assertEquals(bookId, result.getBookId());
+                    assertEquals(7, result.getId().version());
+                })
+                .verifyComplete();
+        verify(bookAvailabilityService).publishAvailabilityChange(bookId.toString(), false);
+
+        // The counter update locks the title row until commit, so it follows the record insert
+        InOrder inOrder = inOrder(borrowRecordRepository);
+        inOrder.verify(borrowRecordRepository).insert(any(), eq(requestDto), eq(copyId));
+        inOrder.verify(borrowRecordRepository).decrementAvailableCopies(bookId);
+    }
+
+    @Test
+    void borrowBook_shouldFail_whenBookNotFound() {
+        // Arrange
+        when(borrowRecordRepository.findBookAvailability(bookId)).thenReturn(Mono.empty());
+        runTransactionsInline();
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.borrowBook(requestDto))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(ApiException.class, error);
+                    assertEquals("Book not found with id: " + bookId, error.getMessage());
+                })
+                .verify();
+        verify(bookAvailabilityService, never()).publishAvailabilityChange(any(), anyBoolean());
+    }
+
+    @Test
+    void borrowBook_shouldFail_whenBookUnavailableAndNoHold() {
+        // Arrange
+        runTransactionsInline();
+        when(borrowRecordRepository.findBookAvailability(bookId)).thenReturn(Mono.just(false));
+        when(borrowRecordRepository.findReadyHold(eq(bookId), eq(userId), any())).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.borrowBook(requestDto))
+                .expectErrorMessage("Book is currently not available for borrowing")
+                .verify();
+        verify(borrowRecordRepository, never()).insert(any(), any(), any());
+    }
+
+    @Test
+    void borrowBook_shouldFail_whenUserReachedLoanLimit() {
+        // Arrange
+        runTransactionsInline();
+        when(borrowRecordRepository.findBookAvailability(bookId)).thenReturn(Mono.just(true));
+        when(borrowRecordRepository.existsUser(userId)).thenReturn(Mono.just(true));
+        when(borrowRecordRepository.countOpenLoans(userId)).thenReturn(Mono.just(5L));
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.borrowBook(requestDto))
+                .expectErrorMessage("You have reached the maximum limit of 5 borrowed books.")
+                .verify();
+        verify(borrowRecordRepository, never()).findCopyIds(any(), any(), anyInt());
+    }
+
+    // *** returnBook Tests ***
+    @Test
+    void returnBook_shouldHandCopyToNextReservation() {
+        // Arrange
+        UUID recordId = UUID.randomUUID();
+        UUID reservationId = UUID.randomUUID();
+        UUID waitingUserId = UUID.randomUUID();
+        runTransactionsInline();
+        when(borrowRecordRepository.findLoan(recordId)).thenReturn(Mono.just(new Loan(recordId, bookId, copyId)));
+        when(borrowRecordRepository.markReturned(eq(recordId), any())).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.findQueueHead(bookId)).thenReturn(Mono.just(new QueueEntry(reservationId, waitingUserId)));
+        when(borrowRecordRepository.promoteToReady(eq(reservationId), any())).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.compareAndSetCopyStatus(copyId, CopyStatus.ON_LOAN, CopyStatus.ON_HOLD)).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.findById(recordId)).thenReturn(Mono.just(response(recordId)));
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.returnBook(recordId))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(bookAvailabilityService).publishHandoff(bookId.toString(), waitingUserId.toString());
+        verify(borrowRecordRepository, never()).incrementAvailableCopies(any());
+    }
+
+    @Test
+    void returnBook_shouldPutCopyBackOnShelf_whenNobodyIsWaiting() {
+        // Arrange
+        UUID recordId = UUID.randomUUID();
+        runTransactionsInline();
+        when(borrowRecordRepository.findLoan(recordId)).thenReturn(Mono.just(new Loan(recordId, bookId, copyId)));
+        when(borrowRecordRepository.markReturned(eq(recordId), any())).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.findQueueHead(bookId)).thenReturn(Mono.empty());
+        when(borrowRecordRepository.compareAndSetCopyStatus(copyId, CopyStatus.ON_LOAN, CopyStatus.AVAILABLE)).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.incrementAvailableCopies(bookId)).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.findById(recordId)).thenReturn(Mono.just(response(recordId)));
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.returnBook(recordId))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(bookAvailabilityService).publishAvailabilityChange(bookId.toString(), true);
+    }
+
+    @Test
+    void returnBook_shouldLeaveCounterUnchanged_whenCopyWasNotOnLoan() {
+        // Arrange
+        UUID recordId = UUID.randomUUID();
+        runTransactionsInline();
+        when(borrowRecordRepository.findLoan(recordId)).thenReturn(Mono.just(new Loan(recordId, bookId, copyId)));
+        when(borrowRecordRepository.markReturned(eq(recordId), any())).thenReturn(Mono.just(1L));
+        when(borrowRecordRepository.findQueueHead(bookId)).thenReturn(Mono.empty());
+        when(borrowRecordRepository.compareAndSetCopyStatus(copyId, CopyStatus.ON_LOAN, CopyStatus.AVAILABLE)).thenReturn(Mono.just(0L));
+        when(borrowRecordRepository.findById(recordId)).thenReturn(Mono.just(response(recordId)));
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.returnBook(recordId))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(borrowRecordRepository, never()).incrementAvailableCopies(any());
+        verify(bookAvailabilityService, never()).publishAvailabilityChange(any(), anyBoolean());
+    }
+
+    @Test
+    void returnBook_shouldFail_whenAlreadyReturned() {
+        // Arrange
+        UUID recordId = UUID.randomUUID();
+        runTransactionsInline();
+        when(borrowRecordRepository.findLoan(recordId)).thenReturn(Mono.just(new Loan(recordId, bookId, copyId)));
+        when(borrowRecordRepository.markReturned(eq(recordId), any())).thenReturn(Mono.just(0L));
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.returnBook(recordId))
+                .expectErrorMessage("This book has already been returned")
+                .verify();
+        verify(bookAvailabilityService, never()).publishAvailabilityChange(any(), anyBoolean());
+    }
+
+    // *** getBorrowRecordsByUserId Tests ***
+    @Test
+    void getBorrowRecordsByUserId_shouldFail_whenUserNotFound() {
+        // Arrange
+        when(borrowRecordRepository.existsUser(userId)).thenReturn(Mono.just(false));
+
+        // Act & Assert
+        StepVerifier.create(borrowRecordService.getBorrowRecordsByUserId(userId))
+                .expectErrorMessage("User not found with id: " + userId)
+                .verify();
+    }
+}
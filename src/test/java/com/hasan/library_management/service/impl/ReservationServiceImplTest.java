@@ -0,0 +1,235 @@
+package com.hasan.library_management.service.impl;
+
+import com.hasan.library_management.dto.response.ReservationResponseDto;
+import com.hasan.library_management.entity.Book;
+import com.hasan.library_management.entity.Reservation;
+import com.hasan.library_management.entity.ReservationStatus;
+import com.hasan.library_management.entity.Role;
+import com.hasan.library_management.entity.User;
+import com.hasan.library_management.exceptions.ApiException;
+import com.hasan.library_management.mapper.ReservationMapper;
+import com.hasan.library_management.repository.BookRepository;
+import com.hasan.library_management.repository.BorrowRecordRepository;
+import com.hasan.library_management.repository.ReservationRepository;
+import com.hasan.library_management.repository.UserRepository;
+import com.hasan.library_management.service.BookAvailabilityService;
+import com.hasan.library_management.service.BookCopyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceImplTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private BookCopyService bookCopyService;
+
+    @Mock
+    private ReservationMapper reservationMapper;
+
+    @Mock
+    private BookAvailabilityService bookAvailabilityService;
+
+    @InjectMocks
+    private ReservationServiceImpl reservationService;
+
+    private User user;
+    private Book book;
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setName("Alice");
+        user.setEmail("alice@example.com");
+        user.setRole(Role.PATRON);
+
+        book = new Book();
+        book.setId(UUID.randomUUID());
+        book.setTitle("The Alchemist");
+        book.setAvailable(false);
+
+        reservation = Reservation.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .book(book)
+                .status(ReservationStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // *** reserveBook Tests ***
+    @Test
+    void reserveBook_shouldQueueUser_whenBookNotAvailable() {
+        // Arrange
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(reservationRepository.existsByBookIdAndUserIdAndStatusIn(eq(book.getId()), eq(user.getId()), anyCollection()))
+                .thenReturn(false);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+        when(reservationRepository.countByBookIdAndStatusAndCreatedAtBefore(
+                book.getId(), ReservationStatus.WAITING, reservation.getCreatedAt())).thenReturn(2L);
+        when(reservationMapper.toResponseDto(reservation, 3L)).thenReturn(ReservationResponseDto.builder()
+                .id(reservation.getId())
+                .bookId(book.getId())
+                .status(ReservationStatus.WAITING)
+                .queuePosition(3L)
+                .build());
+
+        // Act
+        var result = reservationService.reserveBook(book.getId(), user.getEmail());
+
+        // Assert
+        assertEquals(ReservationStatus.WAITING, result.getStatus());
+        assertEquals(3L, result.getQueuePosition());
+    }
+
+    @Test
+    void reserveBook_shouldThrowException_whenBookIsAvailable() {
+        // Arrange
+        book.setAvailable(true);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class, () -> reservationService.reserveBook(book.getId(), user.getEmail()));
+        assertEquals("Book is available, please borrow it directly", ex.getMessage());
+    }
+
+    @Test
+    void reserveBook_shouldThrowConflict_whenAlreadyReserved() {
+        // Arrange
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(reservationRepository.existsByBookIdAndUserIdAndStatusIn(eq(book.getId()), eq(user.getId()), anyCollection()))
+                .thenReturn(true);
+
+        // Act & Assert
+        ApiException ex = assertThrows(ApiException.class, () -> reservationService.reserveBook(book.getId(), user.getEmail()));
+        assertEquals(HttpStatus.CONFLICT, ex.getHttpStatus());
+    }
+
+    // *** handOffToNextInQueue Tests ***
+    @Test
+    void handOffToNextInQueue_shouldPromoteHeadOfQueue() {
+        // Arrange
+        when(reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(book.getId(), ReservationStatus.WAITING))
+                .thenReturn(Optional.of(reservation));
+        when(reservationRepository.promoteToReady(eq(reservation.getId()), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        boolean handedOff = reservationService.handOffToNextInQueue(book);
+
+        // Assert
+        assertTrue(handedOff);
+        verify(bookAvailabilityService).publishHandoff(book.getId().toString(), user.getId().toString());
+    }
+
+    @Test
+    void handOffToNextInQueue_shouldRetryWithNextHead_whenRaceIsLost() {
+        // Arrange
+        Reservation second = Reservation.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .book(book)
+                .status(ReservationStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        when(reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(book.getId(), ReservationStatus.WAITING))
+                .thenReturn(Optional.of(reservation), Optional.of(second));
+        when(reservationRepository.promoteToReady(eq(reservation.getId()), any(LocalDateTime.class))).thenReturn(0);
+        when(reservationRepository.promoteToReady(eq(second.getId()), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act & Assert
+        assertTrue(reservationService.handOffToNextInQueue(book));
+    }
+
+    @Test
+    void handOffToNextInQueue_shouldReturnFalse_whenQueueIsEmpty() {
+        // Arrange
+        when(reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(book.getId(), ReservationStatus.WAITING))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertFalse(reservationService.handOffToNextInQueue(book));
+        verify(bookAvailabilityService, never()).publishHandoff(any(), any());
+    }
+
+    // *** claimHold Tests ***
+    @Test
+    void claimHold_shouldFulfilReadyReservation() {
+        // Arrange
+        reservation.setStatus(ReservationStatus.READY);
+        reservation.setReadyUntil(LocalDateTime.now().plusHours(1));
+        when(reservationRepository.findFirstByBookIdAndUserIdAndStatus(book.getId(), user.getId(), ReservationStatus.READY))
+                .thenReturn(Optional.of(reservation));
+        when(reservationRepository.compareAndSetStatus(reservation.getId(), ReservationStatus.READY, ReservationStatus.FULFILLED))
+                .thenReturn(1);
+
+        // Act & Assert
+        assertTrue(reservationService.claimHold(book.getId(), user.getId()));
+    }
+
+    @Test
+    void claimHold_shouldReturnFalse_whenPickupWindowPassed() {
+        // Arrange
+        reservation.setStatus(ReservationStatus.READY);
+        reservation.setReadyUntil(LocalDateTime.now().minusMinutes(1));
+        when(reservationRepository.findFirstByBookIdAndUserIdAndStatus(book.getId(), user.getId(), ReservationStatus.READY))
+                .thenReturn(Optional.of(reservation));
+
+        // Act & Assert
+        assertFalse(reservationService.claimHold(book.getId(), user.getId()));
+    }
+
+    // *** expireStaleHolds Tests ***
+    @Test
+    void expireStaleHolds_shouldReleaseHeldCopy_whenNobodyIsWaiting() {
+        // Arrange
+        reservation.setStatus(ReservationStatus.READY);
+        when(reservationRepository.findByStatusAndReadyUntilBefore(eq(ReservationStatus.READY), any(LocalDateTime.class)))
+                .thenReturn(List.of(reservation));
+        when(reservationRepository.compareAndSetStatus(reservation.getId(), ReservationStatus.READY, ReservationStatus.EXPIRED))
+                .thenReturn(1);
+        when(reservationRepository.findFirstByBookIdAndStatusOrderByCreatedAtAsc(book.getId(), ReservationStatus.WAITING))
+                .thenReturn(Optional.empty());
+
+        // Act
+        reservationService.expireStaleHolds();
+
+        // Assert
+        verify(bookCopyService).releaseHeldCopy(book.getId());
+        verify(bookAvailabilityService).publishAvailabilityChange(book.getId().toString(), true);
+    }
+}
@@ -7,19 +7,29 @@ import com.hasan.library_management.entity.Role;
 import com.hasan.library_management.entity.User;
 import com.hasan.library_management.exceptions.ApiException;
 import com.hasan.library_management.mapper.UserMapper;
+import com.hasan.library_management.repository.EntityVersion;
 import com.hasan.library_management.repository.UserRepository;
+import com.hasan.library_management.security.TokenRevocationList;
+import com.hasan.library_management.util.ResourceVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +41,9 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -48,6 +61,24 @@ class UserServiceImplTest {
         user.setRole(Role.PATRON);
     }
 
+    private static EntityVersion versionOf(UUID id, long version, Instant updatedAt) {
+        return new EntityVersion() {
+            public UUID getId() { return id; }
+            public long getVersion() { return version; }
+            public Instant getUpdatedAt() { return updatedAt; }
+        };
+    }
+
+    private static UserRepository.UserSummary summaryOf(User user) {
+        return new UserRepository.UserSummary() {
+            public UUID getId() { return user.getId(); }
+            public String getName() { return user.getName(); }
+            public String getEmail() { return user.getEmail(); }
+            public String getPhoneNumber() { return user.getPhoneNumber(); }
+            public Role getRole() { return user.getRole(); }
+        };
+    }
+
     // *** getAllUsers Tests ***
     @Test
     void getAllUsers_shouldReturnUserList() {
@@ -59,15 +90,17 @@ class UserServiceImplTest {
         user2.setPhoneNumber("5556547788");
         user2.setRole(Role.LIBRARIAN);
 
-        when(userRepository.findAll()).thenReturn(List.of(user, user2));
+        UserRepository.UserSummary summary = summaryOf(user);
+        UserRepository.UserSummary summary2 = summaryOf(user2);
+        when(userRepository.findAllSummaries()).thenReturn(List.of(summary, summary2));
 
-        when(userMapper.toResponseDto(user)).thenReturn(
+        when(userMapper.toResponseDto(summary)).thenReturn(
                 new com.hasan.library_management.dto.response.UserResponseDto(
                         user.getId(), user.getName(), user.getEmail(), user.getPhoneNumber(), user.getRole()
                 )
         );
 
-        when(userMapper.toResponseDto(user2)).thenReturn(
+        when(userMapper.toResponseDto(summary2)).thenReturn(
                 new com.hasan.library_management.dto.response.UserResponseDto(
                         user2.getId(), user2.getName(), user2.getEmail(), user2.getPhoneNumber(), user2.getRole()
                 )
@@ -86,8 +119,9 @@ class UserServiceImplTest {
     @Test
     void getUserById_shouldReturnUser_whenExists() {
         // Arrange
-        when(userRepository.findById(userId)).thenReturn(java.util.Optional.of(user));
-        when(userMapper.toResponseDto(user)).thenReturn(
+        UserRepository.UserSummary summary = summaryOf(user);
+        when(userRepository.findSummaryById(userId)).thenReturn(Optional.of(summary));
+        when(userMapper.toResponseDto(summary)).thenReturn(
                 new com.hasan.library_management.dto.response.UserResponseDto(
                         user.getId(), user.getName(), user.getEmail(), user.getPhoneNumber(), user.getRole()
                 )
@@ -106,7 +140,7 @@ class UserServiceImplTest {
     void getUserById_shouldThrowException_whenUserNotFound() {
         // Arrange
         UUID unknownId = UUID.randomUUID();
-        when(userRepository.findById(unknownId)).thenReturn(Optional.empty());
+        when(userRepository.findSummaryById(unknownId)).thenReturn(Optional.empty());
 
         // Act & Assert
         ApiException exception = assertThrows(ApiException.class, () -> userService.getUserById(unknownId));
@@ -119,9 +153,10 @@ class UserServiceImplTest {
         // Arrange
         String email = "hasan@gmail.com";
 
-        when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.of(user));
+        UserRepository.UserSummary summary = summaryOf(user);
+        when(userRepository.findSummaryByEmail(email)).thenReturn(Optional.of(summary));
 
-        when(userMapper.toResponseDto(user)).thenReturn(
+        when(userMapper.toResponseDto(summary)).thenReturn(
                 new com.hasan.library_management.dto.response.UserResponseDto(
                         user.getId(), user.getName(), user.getEmail(), user.getPhoneNumber(), user.getRole()
                 )
@@ -140,7 +175,7 @@ class UserServiceImplTest {
     void getOwnUserDetails_shouldThrowException_whenUserNotFound() {
         // Arrange
         String unknownEmail = "unknownuser@gmail.com";
-        when(userRepository.findByEmail(unknownEmail)).thenReturn(Optional.empty());
+        when(userRepository.findSummaryByEmail(unknownEmail)).thenReturn(Optional.empty());
 
         // Act & Assert
         ApiException exception = assertThrows(ApiException.class, () ->
@@ -151,6 +186,33 @@ class UserServiceImplTest {
     }
 
 
+    // *** getUserVersion Tests ***
+    @Test
+    void getOwnUserVersion_shouldBuildETagFromIdAndVersion() {
+        // Arrange
+        Instant updatedAt = Instant.parse("2024-03-01T10:15:30Z");
+        when(userRepository.findVersionByEmail("hasan@gmail.com")).thenReturn(Optional.of(versionOf(userId, 3, updatedAt)));
+
+        // Act
+        ResourceVersion result = userService.getOwnUserVersion("hasan@gmail.com");
+
+        // Assert
+        assertEquals(userId + "-3", result.eTag());
+        assertEquals(updatedAt, result.lastModified());
+    }
+
+    @Test
+    void getUserVersion_shouldThrowException_whenUserNotFound() {
+        // Arrange
+        UUID unknownId = UUID.randomUUID();
+        when(userRepository.findVersionById(unknownId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        ApiException exception = assertThrows(ApiException.class, () -> userService.getUserVersion(unknownId));
+        assertEquals("User not found with id: " + unknownId, exception.getMessage());
+    }
+
+
     // *** updateUser Tests ***
     @Test
     void updateUser_shouldUpdateUser_whenExists() {
@@ -184,6 +246,30 @@ class UserServiceImplTest {
         assertEquals("Updated Hasan", result.getName());
         assertEquals("updatedhasan@gmail.com", result.getEmail());
         assertEquals(Role.LIBRARIAN, result.getRole());
+        // The mocked mapper leaves email and role as they were, so issued tokens stay valid
+        verify(tokenRevocationList, never()).revokeSubject(anyString());
+    }
+
+    @Test
+    void updateUser_shouldRevokeTokens_whenRoleChanges() {
+        // Arrange
+        var requestDto = new AdminUserUpdateRequestDto();
+        requestDto.setName("Hasan");
+        requestDto.setEmail("hasan@gmail.com");
+        requestDto.setPhoneNumber("5546006599");
+        requestDto.setRole(Role.LIBRARIAN);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userMapper.updateEntityFromAdminDto(user, requestDto)).thenAnswer(invocation -> {
+            user.setRole(Role.LIBRARIAN);
+            return user;
+        });
+
+        // Act
+        userService.updateUser(userId, requestDto);
+
+        // Assert
+        verify(tokenRevocationList).revokeSubject("hasan@gmail.com");
     }
 
 
@@ -209,6 +295,24 @@ class UserServiceImplTest {
         assertEquals("User not found with id: " + unknownId, exception.getMessage());
     }
 
+    @Test
+    void updateUser_shouldThrowConflict_whenUserWasModifiedConcurrently() {
+        // Arrange
+        var requestDto = new AdminUserUpdateRequestDto();
+        requestDto.setName("Hasan");
+        requestDto.setEmail("hasan@gmail.com");
+        requestDto.setPhoneNumber("5546006599");
+        requestDto.setRole(Role.PATRON);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenThrow(new ObjectOptimisticLockingFailureException(User.class, userId));
+
+        // Act & Assert
+        ApiException exception = assertThrows(ApiException.class, () -> userService.updateUser(userId, requestDto));
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+        verify(tokenRevocationList, never()).revokeSubject(anyString());
+    }
+
 
     // *** deleteUser Tests ***
     @Test
@@ -221,6 +325,7 @@ class UserServiceImplTest {
 
         // Assert
         assertDoesNotThrow(() -> userService.deleteUser(userId));
+        verify(tokenRevocationList, times(2)).revokeSubject("hasan@gmail.com");
     }
 
     @Test
@@ -0,0 +1,62 @@
+package com.hasan.library_management.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyIndexTest {
+
+    private FuzzyIndex<Integer> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzyIndex<>(1.0);
+        index.put(1, "tolkien");
+        index.put(2, "tolstoy");
+        index.put(3, "tower");
+        index.put(4, "dune");
+    }
+
+    // *** candidates Tests ***
+    @Test
+    void candidates_shouldPruneTermsSharingTooFewTrigrams() {
+        // Act
+        // "tolkein" has 9 trigrams and 2 edits break at most 6 of them; "tower" shares only "  t" and " to"
+        Set<String> candidates = index.candidates("tolkein", 2);
+
+        // Assert
+        assertEquals(Set.of("tolkien", "tolstoy"), candidates);
+    }
+
+    @Test
+    void candidates_shouldKeepTermsWithinTheQGramBound() {
+        // Act
+        Set<String> candidates = index.candidates("dume", 1);
+
+        // Assert
+        assertEquals(Set.of("dune"), candidates);
+    }
+
+    // *** search Tests ***
+    @Test
+    void search_shouldMatchTransposedLetters_thatBreakFourTrigrams() {
+        // Act
+        var result = index.search("dnue", 10);
+
+        // Assert
+        assertEquals(List.of(4), result.hits().stream().map(FuzzyIndex.Hit::key).toList());
+    }
+
+    @Test
+    void search_shouldMatchSubstitution() {
+        // Act
+        var result = index.search("tolstoi", 10);
+
+        // Assert
+        assertEquals(List.of(2), result.hits().stream().map(FuzzyIndex.Hit::key).toList());
+    }
+}
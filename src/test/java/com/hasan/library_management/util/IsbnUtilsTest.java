@@ -0,0 +1,48 @@
+package com.hasan.library_management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsbnUtilsTest {
+
+    // *** toIsbn13 Tests ***
+    @Test
+    void toIsbn13_shouldKeepValidIsbn13() {
+        // Act & Assert
+        assertEquals(Optional.of("9780306406157"), IsbnUtils.toIsbn13("978-0-306-40615-7"));
+    }
+
+    @Test
+    void toIsbn13_shouldConvertValidIsbn10() {
+        // Act & Assert
+        assertEquals(Optional.of("9780306406157"), IsbnUtils.toIsbn13("0-306-40615-2"));
+    }
+
+    @Test
+    void toIsbn13_shouldAcceptIsbn10WithCheckDigitX() {
+        // Act & Assert
+        assertEquals(Optional.of("9780804429573"), IsbnUtils.toIsbn13("080442957x"));
+    }
+
+    @Test
+    void toIsbn13_shouldRejectIsbn13_whenCheckDigitIsWrong() {
+        // Act & Assert
+        assertEquals(Optional.empty(), IsbnUtils.toIsbn13("9780306406158"));
+    }
+
+    @Test
+    void toIsbn13_shouldRejectIsbn10_whenCheckDigitIsWrong() {
+        // Act & Assert
+        assertEquals(Optional.empty(), IsbnUtils.toIsbn13("0306406153"));
+        assertEquals(Optional.empty(), IsbnUtils.toIsbn13("0804429579"));
+    }
+
+    @Test
+    void toIsbn13_shouldRejectIsbn10_whenAdjacentDigitsAreSwapped() {
+        // Act & Assert
+        assertEquals(Optional.empty(), IsbnUtils.toIsbn13("0306460152"));
+    }
+}
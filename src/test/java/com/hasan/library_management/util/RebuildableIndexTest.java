@@ -0,0 +1,46 @@
+package com.hasan.library_management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RebuildableIndexTest {
+
+    // *** rebuild Tests ***
+    @Test
+    void rebuild_shouldReplayChangesMadeDuringBuild() {
+        // Arrange
+        RebuildableIndex<List<String>> index = new RebuildableIndex<>(new ArrayList<>(List.of("old")));
+
+        // Act
+        List<String> rebuilt = index.rebuild(() -> {
+            List<String> fresh = new ArrayList<>(List.of("loaded"));
+            // Readers still see the old index while the new one is built
+            assertEquals(List.of("old"), index.read(List::copyOf));
+            index.apply(current -> current.add("added"));
+            return fresh;
+        });
+
+        // Assert
+        assertEquals(List.of("loaded", "added"), rebuilt);
+        assertEquals(List.of("loaded", "added"), index.read(List::copyOf));
+    }
+
+    @Test
+    void rebuild_shouldKeepCurrentIndex_whenBuildFails() {
+        // Arrange
+        RebuildableIndex<List<String>> index = new RebuildableIndex<>(new ArrayList<>(List.of("old")));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> index.rebuild(() -> {
+            throw new IllegalStateException("database down");
+        }));
+        index.apply(current -> current.add("added"));
+
+        // Assert
+        assertEquals(List.of("old", "added"), index.read(List::copyOf));
+    }
+}